@@ -0,0 +1,16 @@
+package com.rapidphotoupload.api.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for retry endpoints.
+ */
+public record RetryUploadResponse(
+    List<String> photoIds
+) {
+    public RetryUploadResponse {
+        if (photoIds == null) {
+            photoIds = List.of();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.rapidphotoupload.api.dto.ErrorResponse;
 import com.rapidphotoupload.infrastructure.exceptions.DomainException;
 import com.rapidphotoupload.infrastructure.exceptions.ResourceNotFoundException;
 import com.rapidphotoupload.infrastructure.exceptions.StorageQuotaExceededException;
+import com.rapidphotoupload.infrastructure.exceptions.TemporaryStorageFullException;
 import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -60,6 +62,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(TemporaryStorageFullException.class)
+    public ResponseEntity<ErrorResponse> handleTemporaryStorageFull(
+        TemporaryStorageFullException ex,
+        WebRequest request
+    ) {
+        ErrorResponse error = new ErrorResponse(
+            ex.getErrorCode(),
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(error);
+    }
+
     @ExceptionHandler(DomainException.class)
     public ResponseEntity<ErrorResponse> handleDomainException(
         DomainException ex,
@@ -0,0 +1,21 @@
+package com.rapidphotoupload.application.commands;
+
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+
+/**
+ * Command to retry every failed photo upload in an upload job.
+ */
+public record RetryFailedJobUploadsCommand(
+    JobId jobId,
+    UserId userId
+) implements Command {
+    public RetryFailedJobUploadsCommand {
+        if (jobId == null) {
+            throw new IllegalArgumentException("JobId cannot be null");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("UserId cannot be null");
+        }
+    }
+}
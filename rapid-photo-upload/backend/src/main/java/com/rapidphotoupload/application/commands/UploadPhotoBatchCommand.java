@@ -0,0 +1,73 @@
+package com.rapidphotoupload.application.commands;
+
+import com.rapidphotoupload.domain.valueobjects.ContentType;
+import com.rapidphotoupload.domain.valueobjects.FileSize;
+import com.rapidphotoupload.domain.valueobjects.Filename;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command to create an upload job and all of its photos in one step.
+ */
+public record UploadPhotoBatchCommand(
+    UserId userId,
+    List<BatchPhoto> photos,
+    Set<String> tags // Applied to every photo in the batch
+) implements Command {
+    public UploadPhotoBatchCommand {
+        if (userId == null) {
+            throw new IllegalArgumentException("UserId cannot be null");
+        }
+        if (photos == null || photos.isEmpty()) {
+            throw new IllegalArgumentException("Photos cannot be empty");
+        }
+        if (photos.size() > 100) {
+            throw new IllegalArgumentException("Photos cannot exceed 100");
+        }
+        photos = List.copyOf(photos);
+        if (tags == null) {
+            tags = Set.of();
+        }
+    }
+
+    public UploadPhotoBatchCommand(UserId userId, List<BatchPhoto> photos) {
+        this(userId, photos, Set.of());
+    }
+
+    /**
+     * Total bytes across all photos in the batch.
+     */
+    public long totalBytes() {
+        return photos.stream().mapToLong(photo -> photo.fileSize().getValue()).sum();
+    }
+
+    /**
+     * A single photo in the batch. The PhotoId is assigned by the caller so the
+     * file already buffered in temporary storage can be found later.
+     */
+    public record BatchPhoto(
+        PhotoId photoId,
+        Filename filename,
+        FileSize fileSize,
+        ContentType contentType,
+        String fileHash // Optional, SHA-256 hex computed during ingestion
+    ) {
+        public BatchPhoto {
+            if (photoId == null) {
+                throw new IllegalArgumentException("PhotoId cannot be null");
+            }
+            if (filename == null) {
+                throw new IllegalArgumentException("Filename cannot be null");
+            }
+            if (fileSize == null) {
+                throw new IllegalArgumentException("FileSize cannot be null");
+            }
+            if (contentType == null) {
+                throw new IllegalArgumentException("ContentType cannot be null");
+            }
+        }
+    }
+}
@@ -19,7 +19,8 @@ public record UploadPhotoCommand(
     ContentType contentType,
     UserId userId,
     JobId jobId, // Optional, null if single upload
-    Set<String> tags
+    Set<String> tags,
+    String fileHash // Optional, SHA-256 hex computed during ingestion
 ) implements Command {
     public UploadPhotoCommand {
         if (filename == null) {
@@ -38,5 +39,16 @@ public record UploadPhotoCommand(
             tags = Set.of();
         }
     }
+
+    public UploadPhotoCommand(
+            PhotoId photoId,
+            Filename filename,
+            FileSize fileSize,
+            ContentType contentType,
+            UserId userId,
+            JobId jobId,
+            Set<String> tags) {
+        this(photoId, filename, fileSize, contentType, userId, jobId, tags, null);
+    }
 }
 
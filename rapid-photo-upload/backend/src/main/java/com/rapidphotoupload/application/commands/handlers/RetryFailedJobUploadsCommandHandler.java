@@ -0,0 +1,103 @@
+package com.rapidphotoupload.application.commands.handlers;
+
+import com.rapidphotoupload.application.commands.CommandResult;
+import com.rapidphotoupload.application.commands.RetryFailedJobUploadsCommand;
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.repositories.UploadJobRepository;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
+import com.rapidphotoupload.infrastructure.exceptions.ResourceNotFoundException;
+import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
+import com.rapidphotoupload.infrastructure.storage.TemporaryFileStorage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Handler for RetryFailedJobUploadsCommand.
+ * Re-enqueues every FAILED photo of a job whose bytes are still buffered, resetting the
+ * photos and reopening the job in one transaction. Photos whose bytes have already been
+ * swept are left FAILED.
+ */
+@Component
+public class RetryFailedJobUploadsCommandHandler implements CommandHandler<RetryFailedJobUploadsCommand, List<PhotoId>> {
+    
+    private final PhotoRepository photoRepository;
+    private final UploadJobRepository uploadJobRepository;
+    private final UploadTaskQueue uploadTaskQueue;
+    private final TemporaryFileStorage temporaryFileStorage;
+    private final DomainEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    public RetryFailedJobUploadsCommandHandler(
+            PhotoRepository photoRepository,
+            UploadJobRepository uploadJobRepository,
+            UploadTaskQueue uploadTaskQueue,
+            TemporaryFileStorage temporaryFileStorage,
+            DomainEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate) {
+        this.photoRepository = photoRepository;
+        this.uploadJobRepository = uploadJobRepository;
+        this.uploadTaskQueue = uploadTaskQueue;
+        this.temporaryFileStorage = temporaryFileStorage;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    @Override
+    public CommandResult<List<PhotoId>> handle(RetryFailedJobUploadsCommand command) {
+        uploadJobRepository.findById(command.jobId())
+                .filter(job -> job.getUserId().equals(command.userId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload job", command.jobId().getValue().toString()));
+        
+        List<Photo> candidates = new ArrayList<>();
+        for (Photo photo : photoRepository.findByJobIdAndStatus(command.jobId(), UploadStatus.FAILED)) {
+            if (temporaryFileStorage.exists(photo.getId())) {
+                candidates.add(photo);
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new ValidationException("No failed uploads with available files to retry in this job");
+        }
+        
+        // Reset photos, reopen the job and queue the uploads atomically. Only photos still
+        // FAILED at the update are reset; a concurrent retry may have taken the others
+        List<Photo> retryable = transactionTemplate.execute(status -> {
+            Set<PhotoId> reset = new HashSet<>(
+                    photoRepository.resetFailedForRetry(candidates.stream().map(Photo::getId).toList()));
+            if (reset.isEmpty()) {
+                throw new ValidationException("No failed uploads with available files to retry in this job");
+            }
+            List<Photo> resetPhotos = candidates.stream()
+                    .filter(photo -> reset.contains(photo.getId()))
+                    .toList();
+            if (!uploadJobRepository.reopenFailedPhotos(command.jobId(), resetPhotos.size())) {
+                throw new IllegalStateException("Upload job has fewer failed photos than retried: " + command.jobId().getValue());
+            }
+            uploadTaskQueue.enqueueAll(resetPhotos);
+            return resetPhotos;
+        });
+        
+        // Raises PhotoUploadStarted; the rows were already reset above
+        retryable.forEach(Photo::resetForRetry);
+        
+        // Publish domain events in bulk after commit (PhotoUploadStarted wakes the upload worker)
+        List<Object> events = new ArrayList<>();
+        retryable.forEach(photo -> events.addAll(photo.getDomainEvents()));
+        eventPublisher.publishAll(events);
+        
+        return CommandResult.success(retryable.stream().map(Photo::getId).toList());
+    }
+
+    @Override
+    public Class<RetryFailedJobUploadsCommand> getCommandType() {
+        return RetryFailedJobUploadsCommand.class;
+    }
+}
@@ -2,18 +2,83 @@ package com.rapidphotoupload.application.commands.handlers;
 
 import com.rapidphotoupload.application.commands.CommandResult;
 import com.rapidphotoupload.application.commands.RetryFailedUploadCommand;
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.repositories.UploadJobRepository;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
+import com.rapidphotoupload.infrastructure.exceptions.ResourceNotFoundException;
+import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
+import com.rapidphotoupload.infrastructure.storage.TemporaryFileStorage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
 
 /**
  * Handler for RetryFailedUploadCommand.
- * Implementation will be completed in Epic 3.
+ * Resets a FAILED photo to QUEUED and re-enqueues its upload. The original bytes must
+ * still be buffered (they are kept for a retention period after a terminal failure).
  */
+@Component
 public class RetryFailedUploadCommandHandler implements CommandHandler<RetryFailedUploadCommand, PhotoId> {
+    
+    private final PhotoRepository photoRepository;
+    private final UploadJobRepository uploadJobRepository;
+    private final UploadTaskQueue uploadTaskQueue;
+    private final TemporaryFileStorage temporaryFileStorage;
+    private final DomainEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    public RetryFailedUploadCommandHandler(
+            PhotoRepository photoRepository,
+            UploadJobRepository uploadJobRepository,
+            UploadTaskQueue uploadTaskQueue,
+            TemporaryFileStorage temporaryFileStorage,
+            DomainEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate) {
+        this.photoRepository = photoRepository;
+        this.uploadJobRepository = uploadJobRepository;
+        this.uploadTaskQueue = uploadTaskQueue;
+        this.temporaryFileStorage = temporaryFileStorage;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
     @Override
     public CommandResult<PhotoId> handle(RetryFailedUploadCommand command) {
-        // TODO: Implement in Epic 3 - Upload API
-        // This will find the failed photo and retry the upload
-        throw new UnsupportedOperationException("RetryFailedUploadCommandHandler not yet implemented");
+        Photo photo = photoRepository.findById(command.photoId())
+                .filter(found -> found.getUploadedBy().getUserId().equals(command.userId().getValue()))
+                .orElseThrow(() -> new ResourceNotFoundException("Photo", command.photoId().getValue().toString()));
+        
+        if (photo.getStatus() != UploadStatus.FAILED) {
+            throw new ValidationException("Only failed uploads can be retried");
+        }
+        if (!temporaryFileStorage.exists(photo.getId())) {
+            throw new ValidationException("Original file is no longer available, please upload it again");
+        }
+        
+        // Reset photo, reopen its job and queue the upload atomically. The reset only applies
+        // while the photo is still FAILED, so of two concurrent retries just one goes through
+        transactionTemplate.executeWithoutResult(status -> {
+            if (photoRepository.resetFailedForRetry(List.of(photo.getId())).isEmpty()) {
+                throw new ValidationException("Only failed uploads can be retried");
+            }
+            if (photo.getJobId() != null && !uploadJobRepository.reopenFailedPhotos(photo.getJobId(), 1)) {
+                throw new IllegalStateException("Upload job has no failed photos to retry: " + photo.getJobId().getValue());
+            }
+            uploadTaskQueue.enqueueAll(List.of(photo));
+        });
+        
+        // Raises PhotoUploadStarted; the row was already reset above
+        photo.resetForRetry();
+        
+        // Publish domain events (PhotoUploadStarted wakes the upload worker)
+        eventPublisher.publishAll(photo.getDomainEvents());
+        
+        return CommandResult.success(photo.getId());
     }
 
     @Override
@@ -21,4 +86,3 @@ public class RetryFailedUploadCommandHandler implements CommandHandler<RetryFail
         return RetryFailedUploadCommand.class;
     }
 }
-
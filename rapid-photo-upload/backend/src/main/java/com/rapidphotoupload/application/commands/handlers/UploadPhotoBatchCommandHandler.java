@@ -0,0 +1,123 @@
+package com.rapidphotoupload.application.commands.handlers;
+
+import com.rapidphotoupload.application.commands.CommandResult;
+import com.rapidphotoupload.application.commands.UploadPhotoBatchCommand;
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.aggregates.Tag;
+import com.rapidphotoupload.domain.aggregates.UploadJob;
+import com.rapidphotoupload.domain.aggregates.User;
+import com.rapidphotoupload.domain.entities.PhotoMetadata;
+import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.repositories.TagRepository;
+import com.rapidphotoupload.domain.repositories.UploadJobRepository;
+import com.rapidphotoupload.domain.repositories.UserRepository;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.UploadedBy;
+import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
+import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Handler for UploadPhotoBatchCommand.
+ * Validates quota once, then inserts the job and all photos in a single transaction
+ * (photos go out as one JDBC batch) together with their upload tasks. Domain events are
+ * published only after commit so the upload worker never claims rows that aren't visible yet.
+ */
+@Component
+public class UploadPhotoBatchCommandHandler implements CommandHandler<UploadPhotoBatchCommand, JobId> {
+    
+    private final PhotoRepository photoRepository;
+    private final UserRepository userRepository;
+    private final UploadJobRepository uploadJobRepository;
+    private final TagRepository tagRepository;
+    private final UploadTaskQueue uploadTaskQueue;
+    private final DomainEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    public UploadPhotoBatchCommandHandler(
+            PhotoRepository photoRepository,
+            UserRepository userRepository,
+            UploadJobRepository uploadJobRepository,
+            TagRepository tagRepository,
+            UploadTaskQueue uploadTaskQueue,
+            DomainEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate) {
+        this.photoRepository = photoRepository;
+        this.userRepository = userRepository;
+        this.uploadJobRepository = uploadJobRepository;
+        this.tagRepository = tagRepository;
+        this.uploadTaskQueue = uploadTaskQueue;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    @Override
+    public CommandResult<JobId> handle(UploadPhotoBatchCommand command) {
+        // Get user and validate quota once for the whole batch
+        User user = userRepository.findById(command.userId())
+                .orElseThrow(() -> new ValidationException("User not found"));
+        
+        if (!user.canUpload(command.totalBytes())) {
+            throw new ValidationException("Storage quota exceeded");
+        }
+        
+        Set<String> tags;
+        try {
+            tags = Tag.normalizeNames(command.tags());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        
+        // Build job and photo aggregates in memory
+        JobId jobId = JobId.generate();
+        UploadJob job = UploadJob.create(jobId, command.userId(), command.photos().size());
+        UploadedBy uploadedBy = UploadedBy.from(command.userId().getValue());
+        
+        List<Photo> photos = new ArrayList<>(command.photos().size());
+        for (UploadPhotoBatchCommand.BatchPhoto batchPhoto : command.photos()) {
+            job.addPhoto(batchPhoto.photoId());
+            
+            Photo photo = Photo.create(
+                batchPhoto.photoId(),
+                batchPhoto.filename(),
+                batchPhoto.fileSize(),
+                batchPhoto.contentType(),
+                uploadedBy,
+                jobId
+            );
+            if (batchPhoto.fileHash() != null || !tags.isEmpty()) {
+                PhotoMetadata metadata = photo.getMetadata();
+                metadata.setFileHash(batchPhoto.fileHash());
+                metadata.setTags(tags);
+                photo.updateMetadata(metadata);
+            }
+            photos.add(photo);
+        }
+        
+        // Persist job + photos + tags + upload tasks atomically
+        transactionTemplate.executeWithoutResult(status -> {
+            uploadJobRepository.save(job);
+            photoRepository.insertAll(photos);
+            tagRepository.tagPhotos(photos.stream().map(Photo::getId).toList(), tags);
+            uploadTaskQueue.enqueueAll(photos);
+        });
+        
+        // Publish domain events in bulk after commit (including PhotoUploadStarted with jobId)
+        List<Object> events = new ArrayList<>(job.getDomainEvents());
+        photos.forEach(photo -> events.addAll(photo.getDomainEvents()));
+        eventPublisher.publishAll(events);
+        
+        return CommandResult.success(jobId);
+    }
+    
+    @Override
+    public Class<UploadPhotoBatchCommand> getCommandType() {
+        return UploadPhotoBatchCommand.class;
+    }
+}
@@ -4,21 +4,29 @@ import com.rapidphotoupload.application.commands.CommandResult;
 import com.rapidphotoupload.application.commands.UploadPhotoCommand;
 import com.rapidphotoupload.application.commands.handlers.CommandHandler;
 import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.aggregates.Tag;
 import com.rapidphotoupload.domain.aggregates.UploadJob;
 import com.rapidphotoupload.domain.aggregates.User;
+import com.rapidphotoupload.domain.entities.PhotoMetadata;
 import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.repositories.TagRepository;
 import com.rapidphotoupload.domain.repositories.UploadJobRepository;
 import com.rapidphotoupload.domain.repositories.UserRepository;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
 import com.rapidphotoupload.domain.valueobjects.UploadedBy;
 import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
 import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
 
 /**
  * Handler for UploadPhotoCommand.
  * Creates Photo aggregate and validates storage quota.
- * Actual file upload to cloud storage is handled asynchronously.
+ * Actual file upload to cloud storage is handled asynchronously via the upload task queue.
  */
 @Component
 public class UploadPhotoCommandHandler implements CommandHandler<UploadPhotoCommand, PhotoId> {
@@ -26,17 +34,26 @@ public class UploadPhotoCommandHandler implements CommandHandler<UploadPhotoComm
     private final PhotoRepository photoRepository;
     private final UserRepository userRepository;
     private final UploadJobRepository uploadJobRepository;
+    private final TagRepository tagRepository;
+    private final UploadTaskQueue uploadTaskQueue;
     private final DomainEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     
     public UploadPhotoCommandHandler(
             PhotoRepository photoRepository,
             UserRepository userRepository,
             UploadJobRepository uploadJobRepository,
-            DomainEventPublisher eventPublisher) {
+            TagRepository tagRepository,
+            UploadTaskQueue uploadTaskQueue,
+            DomainEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate) {
         this.photoRepository = photoRepository;
         this.userRepository = userRepository;
         this.uploadJobRepository = uploadJobRepository;
+        this.tagRepository = tagRepository;
+        this.uploadTaskQueue = uploadTaskQueue;
         this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
     
     @Override
@@ -49,6 +66,13 @@ public class UploadPhotoCommandHandler implements CommandHandler<UploadPhotoComm
             throw new ValidationException("Storage quota exceeded");
         }
         
+        Set<String> tags;
+        try {
+            tags = Tag.normalizeNames(command.tags());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        
         // Use provided PhotoId or generate new one
         PhotoId photoId = command.photoId() != null ? command.photoId() : PhotoId.generate();
         
@@ -80,11 +104,25 @@ public class UploadPhotoCommandHandler implements CommandHandler<UploadPhotoComm
             command.jobId() // Pass the jobId to the photo creation
         );
         
-        // Add tags if provided (would need TagRepository)
-        // For now, tags are handled separately
+        // Record content hash computed while streaming the upload
+        if (command.fileHash() != null) {
+            PhotoMetadata metadata = photo.getMetadata();
+            metadata.setFileHash(command.fileHash());
+            photo.updateMetadata(metadata);
+        }
+        
+        if (!tags.isEmpty()) {
+            PhotoMetadata metadata = photo.getMetadata();
+            metadata.setTags(tags);
+            photo.updateMetadata(metadata);
+        }
         
-        // Save photo
-        photoRepository.save(photo);
+        // Save photo, its tags and queue its upload atomically
+        transactionTemplate.executeWithoutResult(status -> {
+            photoRepository.save(photo);
+            tagRepository.tagPhotos(List.of(photoId), tags);
+            uploadTaskQueue.enqueueAll(List.of(photo));
+        });
         
         // Publish domain events (including PhotoUploadStarted with jobId)
         eventPublisher.publishAll(photo.getDomainEvents());
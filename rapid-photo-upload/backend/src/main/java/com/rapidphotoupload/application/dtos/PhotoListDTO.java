@@ -4,15 +4,17 @@ import java.util.List;
 
 /**
  * Data Transfer Object for paginated photo list.
+ * totalPages and totalCount are null when the total was not requested.
  */
 public record PhotoListDTO(
     List<PhotoDTO> photos,
     int page,
     int pageSize,
-    int totalPages,
-    long totalCount,
+    Integer totalPages,
+    Long totalCount,
     boolean hasNext,
-    boolean hasPrevious
+    boolean hasPrevious,
+    String nextCursor
 ) {
     public PhotoListDTO {
         if (photos == null) {
@@ -24,12 +26,16 @@ public record PhotoListDTO(
         if (pageSize <= 0) {
             throw new IllegalArgumentException("PageSize must be greater than 0");
         }
-        if (totalPages < 0) {
+        if (totalPages != null && totalPages < 0) {
             throw new IllegalArgumentException("TotalPages cannot be negative");
         }
-        if (totalCount < 0) {
+        if (totalCount != null && totalCount < 0) {
             throw new IllegalArgumentException("TotalCount cannot be negative");
         }
     }
-}
 
+    public PhotoListDTO(List<PhotoDTO> photos, int page, int pageSize, int totalPages, long totalCount,
+                        boolean hasNext, boolean hasPrevious) {
+        this(photos, page, pageSize, totalPages, totalCount, hasNext, hasPrevious, null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rapidphotoupload.application.queries;
+
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Query to get several of a user's photos by ID in one round trip.
+ * Duplicate IDs are dropped; IDs that don't exist or belong to another user are
+ * simply absent from the result.
+ */
+public record GetPhotosByIdsQuery(
+    List<PhotoId> photoIds, // In the order results should be returned
+    UserId userId // Only this user's photos are returned
+) implements Query<List<PhotoDTO>> {
+    public static final int MAX_IDS = 500;
+
+    public GetPhotosByIdsQuery {
+        if (photoIds == null || photoIds.isEmpty()) {
+            throw new IllegalArgumentException("PhotoIds cannot be empty");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("UserId cannot be null");
+        }
+        photoIds = List.copyOf(new LinkedHashSet<>(photoIds));
+        if (photoIds.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Cannot request more than " + MAX_IDS + " photos at once");
+        }
+    }
+}
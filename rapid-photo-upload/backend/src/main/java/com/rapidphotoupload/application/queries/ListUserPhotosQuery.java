@@ -1,16 +1,21 @@
 package com.rapidphotoupload.application.queries;
 
+import com.rapidphotoupload.domain.valueobjects.PhotoCursor;
 import com.rapidphotoupload.domain.valueobjects.UserId;
 
 /**
  * Query to list user's photos with pagination.
+ * When a cursor is given the page starts right after it and page is ignored.
  */
 public record ListUserPhotosQuery(
     UserId userId,
     int page,
     int pageSize,
     String sortBy, // e.g., "uploadedAt", "filename"
-    String sortOrder // "asc" or "desc"
+    String sortOrder, // "asc" or "desc"
+    PhotoFilter filter, // Tag, status and upload date criteria
+    PhotoCursor after, // Optional cursor from the previous page
+    boolean includeTotal // Whether to count all matching photos
 ) implements Query<com.rapidphotoupload.application.dtos.PhotoListDTO> {
     public ListUserPhotosQuery {
         if (userId == null) {
@@ -31,10 +36,16 @@ public record ListUserPhotosQuery(
         if (!sortOrder.equals("asc") && !sortOrder.equals("desc")) {
             throw new IllegalArgumentException("SortOrder must be 'asc' or 'desc'");
         }
+        if (filter == null) {
+            filter = PhotoFilter.none();
+        }
+    }
+
+    public ListUserPhotosQuery(UserId userId, int page, int pageSize, String sortBy, String sortOrder) {
+        this(userId, page, pageSize, sortBy, sortOrder, null, null, true);
     }
 
     public ListUserPhotosQuery(UserId userId, int page, int pageSize) {
         this(userId, page, pageSize, "uploadedAt", "desc");
     }
 }
-
@@ -0,0 +1,42 @@
+package com.rapidphotoupload.application.queries;
+
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Search criteria for listing a user's photos. All criteria are optional and combined with AND.
+ */
+public record PhotoFilter(
+    Set<String> tags, // Normalized tag names
+    boolean matchAllTags, // true: photo must carry every tag, false: any of them
+    UploadStatus status,
+    Instant uploadedFrom, // Inclusive
+    Instant uploadedTo // Exclusive
+) {
+    public PhotoFilter {
+        if (tags == null) {
+            tags = Set.of();
+        }
+        tags = Set.copyOf(tags);
+        if (uploadedFrom != null && uploadedTo != null && !uploadedFrom.isBefore(uploadedTo)) {
+            throw new IllegalArgumentException("uploadedFrom must be before uploadedTo");
+        }
+    }
+
+    /**
+     * Whether the filter uses tags or upload dates, beyond what the photos table indexes serve.
+     */
+    public boolean isSearch() {
+        return !tags.isEmpty() || uploadedFrom != null || uploadedTo != null;
+    }
+
+    public static PhotoFilter none() {
+        return new PhotoFilter(Set.of(), true, null, null, null);
+    }
+
+    public static PhotoFilter byTag(String tag) {
+        return new PhotoFilter(Set.of(tag), true, null, null, null);
+    }
+}
@@ -2,20 +2,28 @@ package com.rapidphotoupload.application.queries.handlers;
 
 import com.rapidphotoupload.application.dtos.PhotoDTO;
 import com.rapidphotoupload.application.queries.GetPhotoMetadataQuery;
-import com.rapidphotoupload.application.queries.Query;
+import com.rapidphotoupload.infrastructure.persistence.PhotoLookupRepository;
+import org.springframework.stereotype.Component;
 
 import java.util.Optional;
 
 /**
  * Handler for GetPhotoMetadataQuery.
- * Implementation will be completed in Epic 4.
+ * Reads the photo row straight into a PhotoDTO; the ownership check is part of the query,
+ * so photos of other users are reported as not found.
  */
+@Component
 public class GetPhotoMetadataQueryHandler implements QueryHandler<GetPhotoMetadataQuery, PhotoDTO> {
+    
+    private final PhotoLookupRepository photoLookupRepository;
+    
+    public GetPhotoMetadataQueryHandler(PhotoLookupRepository photoLookupRepository) {
+        this.photoLookupRepository = photoLookupRepository;
+    }
+    
     @Override
     public Optional<PhotoDTO> handle(GetPhotoMetadataQuery query) {
-        // TODO: Implement in Epic 4 - Photo Query API
-        // This will query the photo repository and return PhotoDTO
-        throw new UnsupportedOperationException("GetPhotoMetadataQueryHandler not yet implemented");
+        return photoLookupRepository.findById(query.photoId(), query.userId());
     }
 
     @Override
@@ -23,4 +31,3 @@ public class GetPhotoMetadataQueryHandler implements QueryHandler<GetPhotoMetada
         return GetPhotoMetadataQuery.class;
     }
 }
-
@@ -0,0 +1,45 @@
+package com.rapidphotoupload.application.queries.handlers;
+
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.application.queries.GetPhotosByIdsQuery;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.infrastructure.persistence.PhotoLookupRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Handler for GetPhotosByIdsQuery.
+ * Loads all requested photos, with their tags, in a single query against the live tables
+ * and returns them in request order.
+ */
+@Component
+public class GetPhotosByIdsQueryHandler implements QueryHandler<GetPhotosByIdsQuery, List<PhotoDTO>> {
+    
+    private final PhotoLookupRepository photoLookupRepository;
+    
+    public GetPhotosByIdsQueryHandler(PhotoLookupRepository photoLookupRepository) {
+        this.photoLookupRepository = photoLookupRepository;
+    }
+    
+    @Override
+    public Optional<List<PhotoDTO>> handle(GetPhotosByIdsQuery query) {
+        Map<PhotoId, PhotoDTO> found = photoLookupRepository.findByIds(query.photoIds(), query.userId())
+                .stream()
+                .collect(Collectors.toMap(PhotoDTO::photoId, Function.identity()));
+        return Optional.of(query.photoIds().stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+    
+    @Override
+    public Class<GetPhotosByIdsQuery> getQueryType() {
+        return GetPhotosByIdsQuery.class;
+    }
+}
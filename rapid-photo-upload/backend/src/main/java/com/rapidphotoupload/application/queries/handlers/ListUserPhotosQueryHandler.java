@@ -1,22 +1,83 @@
 package com.rapidphotoupload.application.queries.handlers;
 
+import com.rapidphotoupload.application.dtos.PhotoDTO;
 import com.rapidphotoupload.application.dtos.PhotoListDTO;
 import com.rapidphotoupload.application.queries.ListUserPhotosQuery;
-import com.rapidphotoupload.application.queries.Query;
+import com.rapidphotoupload.domain.valueobjects.PhotoCursor;
+import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import com.rapidphotoupload.infrastructure.persistence.PhotoLookupRepository;
+import com.rapidphotoupload.infrastructure.persistence.PhotoViewRepository;
+import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Handler for ListUserPhotosQuery.
- * Implementation will be completed in Epic 4.
- * Will use materialized view for optimized reads.
+ * Plain listings (optionally by status) read the live photos table so new uploads show up
+ * immediately. Searches by tag or upload date read the photo_view materialized view, which
+ * holds each photo with its tags already aggregated; the view is refreshed asynchronously,
+ * so very recent uploads may take a few seconds to appear there.
+ * Both map rows straight into PhotoDTO without reconstructing Photo aggregates.
  */
+@Component
 public class ListUserPhotosQueryHandler implements QueryHandler<ListUserPhotosQuery, PhotoListDTO> {
+    
+    private final PhotoLookupRepository photoLookupRepository;
+    private final PhotoViewRepository photoViewRepository;
+    
+    public ListUserPhotosQueryHandler(PhotoLookupRepository photoLookupRepository,
+                                      PhotoViewRepository photoViewRepository) {
+        this.photoLookupRepository = photoLookupRepository;
+        this.photoViewRepository = photoViewRepository;
+    }
+    
     @Override
     public Optional<PhotoListDTO> handle(ListUserPhotosQuery query) {
-        // TODO: Implement in Epic 4 - Photo Query API
-        // This will query the photo_view materialized view for optimized reads
-        throw new UnsupportedOperationException("ListUserPhotosQueryHandler not yet implemented");
+        if (!"uploadedAt".equals(query.sortBy())) {
+            // Only upload time has an index to page along
+            throw new ValidationException("Unsupported sort field: " + query.sortBy());
+        }
+        boolean ascending = "asc".equals(query.sortOrder());
+        
+        boolean search = query.filter().isSearch();
+        
+        // Fetch one extra row to learn whether another page follows without counting
+        int offset = query.page() * query.pageSize();
+        List<PhotoDTO> photos = search
+                ? photoViewRepository.findPage(query.userId(), query.filter(), query.after(),
+                        offset, query.pageSize() + 1, ascending)
+                : photoLookupRepository.findPage(query.userId(), query.filter().status(), query.after(),
+                        offset, query.pageSize() + 1, ascending);
+        boolean hasNext = photos.size() > query.pageSize();
+        if (hasNext) {
+            photos = photos.subList(0, query.pageSize());
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            PhotoDTO last = photos.get(photos.size() - 1);
+            nextCursor = PhotoCursor.of(last.uploadedAt(), last.photoId().getValue()).encode();
+        }
+        
+        Long totalCount = null;
+        Integer totalPages = null;
+        if (query.includeTotal()) {
+            totalCount = search
+                    ? photoViewRepository.count(query.userId(), query.filter())
+                    : photoLookupRepository.count(query.userId(), query.filter().status());
+            totalPages = (int) Math.ceil((double) totalCount / query.pageSize());
+        }
+        
+        return Optional.of(new PhotoListDTO(
+                photos,
+                query.page(),
+                query.pageSize(),
+                totalPages,
+                totalCount,
+                hasNext,
+                query.after() != null || query.page() > 0,
+                nextCursor));
     }
 
     @Override
@@ -24,4 +85,3 @@ public class ListUserPhotosQueryHandler implements QueryHandler<ListUserPhotosQu
         return ListUserPhotosQuery.class;
     }
 }
-
@@ -25,6 +25,7 @@ public class Photo {
     private StorageKey thumbnailStorageKey;
     private UploadedAt uploadedAt;
     private UploadedBy uploadedBy;
+    private JobId jobId;
     private PhotoMetadata metadata;
     private List<Object> domainEvents;
 
@@ -47,7 +48,8 @@ public class Photo {
         StorageKey thumbnailStorageKey,
         UploadedAt uploadedAt,
         UploadedBy uploadedBy,
-        PhotoMetadata metadata
+        PhotoMetadata metadata,
+        JobId jobId
     ) {
         Photo photo = new Photo();
         photo.id = id;
@@ -59,6 +61,7 @@ public class Photo {
         photo.thumbnailStorageKey = thumbnailStorageKey;
         photo.uploadedAt = uploadedAt;
         photo.uploadedBy = uploadedBy;
+        photo.jobId = jobId;
         photo.metadata = metadata != null ? metadata : new PhotoMetadata();
         // Don't raise domain events when reconstructing from persistence
         return photo;
@@ -83,7 +86,7 @@ public class Photo {
         FileSize fileSize,
         ContentType contentType,
         UploadedBy uploadedBy,
-        com.rapidphotoupload.domain.valueobjects.JobId jobId
+        JobId jobId
     ) {
         Photo photo = new Photo();
         photo.id = id;
@@ -93,6 +96,7 @@ public class Photo {
         photo.status = UploadStatus.QUEUED;
         photo.uploadedBy = uploadedBy;
         photo.uploadedAt = UploadedAt.now();
+        photo.jobId = jobId;
         photo.metadata = new PhotoMetadata();
 
         // Raise domain event with jobId
@@ -109,7 +113,7 @@ public class Photo {
             throw new IllegalStateException("Photo can only be marked as uploading from QUEUED status");
         }
         this.status = UploadStatus.UPLOADING;
-        raiseEvent(PhotoUploadProgressed.create(this.id, 0));
+        raiseEvent(PhotoUploadProgressed.create(this.id, this.uploadedBy, this.jobId, 0));
     }
 
     /**
@@ -122,7 +126,7 @@ public class Photo {
         if (percentage < 0 || percentage > 100) {
             throw new IllegalArgumentException("Progress percentage must be between 0 and 100");
         }
-        raiseEvent(PhotoUploadProgressed.create(this.id, percentage));
+        raiseEvent(PhotoUploadProgressed.create(this.id, this.uploadedBy, this.jobId, percentage));
     }
 
     /**
@@ -189,7 +193,7 @@ public class Photo {
         }
         this.status = UploadStatus.QUEUED;
         // Raise PhotoUploadStarted event to trigger async processing
-        raiseEvent(PhotoUploadStarted.create(this.id, this.uploadedBy, null));
+        raiseEvent(PhotoUploadStarted.create(this.id, this.uploadedBy, this.jobId));
     }
 
     /**
@@ -253,6 +257,13 @@ public class Photo {
         return uploadedBy;
     }
 
+    /**
+     * Upload job this photo was created in, or null for single uploads.
+     */
+    public JobId getJobId() {
+        return jobId;
+    }
+
     public PhotoMetadata getMetadata() {
         return metadata;
     }
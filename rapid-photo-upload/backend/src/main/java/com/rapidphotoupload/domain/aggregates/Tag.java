@@ -3,13 +3,20 @@ package com.rapidphotoupload.domain.aggregates;
 import com.rapidphotoupload.domain.valueobjects.TagId;
 import com.rapidphotoupload.domain.valueobjects.CreatedAt;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Tag aggregate root.
  * Represents a tag that can be associated with photos.
  */
 public class Tag {
+    public static final int MAX_NAME_LENGTH = 100;
+    public static final int MAX_TAGS_PER_PHOTO = 20;
+
     private TagId id;
     private String name;
     private CreatedAt createdAt;
@@ -17,20 +24,58 @@ public class Tag {
     // Private constructor for aggregate creation
     private Tag() {}
 
+    /**
+     * Factory method to reconstruct a Tag aggregate from persistence (for repository use).
+     */
+    public static Tag reconstruct(TagId id, String name, CreatedAt createdAt) {
+        Tag tag = new Tag();
+        tag.id = id;
+        tag.name = name;
+        tag.createdAt = createdAt;
+        return tag;
+    }
+
     /**
      * Factory method to create a new Tag aggregate.
      */
     public static Tag create(TagId id, String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Tag name cannot be null or empty");
-        }
         Tag tag = new Tag();
         tag.id = id;
-        tag.name = name.trim();
+        tag.name = normalizeName(name);
         tag.createdAt = CreatedAt.now();
         return tag;
     }
 
+    /**
+     * Canonical form of a tag name: trimmed and lower-case, so "Beach" and "beach " are one tag.
+     */
+    public static String normalizeName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tag name cannot be null or empty");
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        if (normalized.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Tag name cannot exceed " + MAX_NAME_LENGTH + " characters");
+        }
+        return normalized;
+    }
+
+    /**
+     * Normalize a set of tag names for one photo, dropping blanks and duplicates.
+     */
+    public static Set<String> normalizeNames(Collection<String> names) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                normalized.add(normalizeName(name));
+            }
+        }
+        if (normalized.size() > MAX_TAGS_PER_PHOTO) {
+            throw new IllegalArgumentException("A photo cannot have more than " + MAX_TAGS_PER_PHOTO + " tags");
+        }
+        return Set.copyOf(normalized);
+    }
+
     // Getters
     public TagId getId() {
         return id;
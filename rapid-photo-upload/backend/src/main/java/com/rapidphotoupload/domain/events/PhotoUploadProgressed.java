@@ -1,14 +1,19 @@
 package com.rapidphotoupload.domain.events;
 
+import com.rapidphotoupload.domain.valueobjects.JobId;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadedBy;
 
 import java.time.Instant;
 
 /**
  * Domain event fired when photo upload progress is updated.
+ * Carries the uploader and job so listeners can route it without loading the photo.
  */
 public record PhotoUploadProgressed(
     PhotoId photoId,
+    UploadedBy uploadedBy,
+    JobId jobId, // Optional - null for single photo uploads
     int progressPercentage,
     Instant occurredAt
 ) {
@@ -16,6 +21,9 @@ public record PhotoUploadProgressed(
         if (photoId == null) {
             throw new IllegalArgumentException("photoId cannot be null");
         }
+        if (uploadedBy == null) {
+            throw new IllegalArgumentException("uploadedBy cannot be null");
+        }
         if (progressPercentage < 0 || progressPercentage > 100) {
             throw new IllegalArgumentException("progressPercentage must be between 0 and 100");
         }
@@ -24,8 +32,8 @@ public record PhotoUploadProgressed(
         }
     }
 
-    public static PhotoUploadProgressed create(PhotoId photoId, int progressPercentage) {
-        return new PhotoUploadProgressed(photoId, progressPercentage, Instant.now());
+    public static PhotoUploadProgressed create(PhotoId photoId, UploadedBy uploadedBy, JobId jobId,
+                                               int progressPercentage) {
+        return new PhotoUploadProgressed(photoId, uploadedBy, jobId, progressPercentage, Instant.now());
     }
 }
-
@@ -1,10 +1,12 @@
 package com.rapidphotoupload.domain.repositories;
 
 import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.valueobjects.JobId;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
 import com.rapidphotoupload.domain.valueobjects.UploadStatus;
 import com.rapidphotoupload.domain.valueobjects.UserId;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,12 @@ public interface PhotoRepository {
      */
     void save(Photo photo);
 
+    /**
+     * Insert newly created photo aggregates in a single batch.
+     * Photos must not already exist. The rows are written before this returns.
+     */
+    void insertAll(List<Photo> photos);
+
     /**
      * Find photo by ID.
      */
@@ -33,6 +41,24 @@ public interface PhotoRepository {
      */
     List<Photo> findByUserIdAndStatus(UserId userId, UploadStatus status);
 
+    /**
+     * Find the photos of an upload job with the given status.
+     */
+    List<Photo> findByJobIdAndStatus(JobId jobId, UploadStatus status);
+
+    /**
+     * Find a completed photo of the user with the given content hash (SHA-256 hex).
+     * Used to reuse the stored object when the same file is uploaded again.
+     */
+    Optional<Photo> findCompletedByUserIdAndFileHash(UserId userId, String fileHash);
+
+    /**
+     * Reset FAILED photos to QUEUED with one conditional update.
+     * Photos that are no longer FAILED (e.g. already retried concurrently) are left as they are.
+     * @return IDs of the photos that were reset
+     */
+    List<PhotoId> resetFailedForRetry(Collection<PhotoId> photoIds);
+
     /**
      * Find photos by status.
      */
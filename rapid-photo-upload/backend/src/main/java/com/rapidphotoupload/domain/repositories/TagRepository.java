@@ -4,8 +4,10 @@ import com.rapidphotoupload.domain.aggregates.Tag;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
 import com.rapidphotoupload.domain.valueobjects.TagId;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository interface for Tag aggregate.
@@ -32,6 +34,13 @@ public interface TagRepository {
      */
     List<Tag> findByPhotoId(PhotoId photoId);
 
+    /**
+     * Attach tags to photos, creating tags that don't exist yet.
+     * Call inside the transaction that inserts the photos.
+     * @param names Normalized tag names (see Tag.normalizeName)
+     */
+    void tagPhotos(Collection<PhotoId> photoIds, Set<String> names);
+
     /**
      * Check if tag exists by name.
      */
@@ -2,6 +2,7 @@ package com.rapidphotoupload.domain.repositories;
 
 import com.rapidphotoupload.domain.aggregates.UploadJob;
 import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.JobProgress;
 import com.rapidphotoupload.domain.valueobjects.JobStatus;
 import com.rapidphotoupload.domain.valueobjects.UserId;
 
@@ -38,6 +39,26 @@ public interface UploadJobRepository {
      */
     List<UploadJob> findByStatus(JobStatus status);
 
+    /**
+     * Atomically count one photo outcome against a job and return the updated counters.
+     * Safe under concurrency: each call increments exactly once, the status moves to its
+     * terminal value on the last photo, and exactly one caller sees
+     * {@link JobProgress#justFinished()}. Empty if the job doesn't exist or has already
+     * accounted for all of its photos.
+     * @param jobId Job to update
+     * @param succeeded true to count a completed photo, false for a failed one
+     */
+    Optional<JobProgress> recordPhotoOutcome(JobId jobId, boolean succeeded);
+
+    /**
+     * Atomically move failed photos back to pending for a retry: decrements the failed
+     * count and reopens the job so their new outcomes can be counted.
+     * @param jobId Job to update
+     * @param count Number of failed photos being retried
+     * @return false if the job doesn't exist or has fewer failed photos than count
+     */
+    boolean reopenFailedPhotos(JobId jobId, int count);
+
     /**
      * Delete an upload job.
      */
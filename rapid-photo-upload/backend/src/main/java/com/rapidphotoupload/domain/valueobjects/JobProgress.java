@@ -0,0 +1,34 @@
+package com.rapidphotoupload.domain.valueobjects;
+
+/**
+ * Snapshot of an upload job's counters right after one photo outcome was recorded.
+ * Produced by an atomic increment, so {@link #justFinished()} is true for exactly one
+ * photo outcome per job: the one that brought completed + failed up to total.
+ */
+public record JobProgress(
+    JobId jobId,
+    UserId userId,
+    int completedPhotos,
+    int failedPhotos,
+    int totalPhotos,
+    JobStatus status
+) {
+    public JobProgress {
+        if (jobId == null) {
+            throw new IllegalArgumentException("JobId cannot be null");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("UserId cannot be null");
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+    }
+
+    /**
+     * True if this increment was the one that accounted for the job's last photo.
+     */
+    public boolean justFinished() {
+        return completedPhotos + failedPhotos == totalPhotos;
+    }
+}
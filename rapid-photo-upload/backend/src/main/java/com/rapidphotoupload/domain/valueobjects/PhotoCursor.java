@@ -0,0 +1,92 @@
+package com.rapidphotoupload.domain.valueobjects;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * PhotoCursor value object marking a position in a user's photo list.
+ * Photos are listed by (uploadedAt DESC, id DESC); a cursor holds the sort key of the
+ * last photo on a page and the next page starts strictly after it. Encoded as an opaque
+ * URL-safe token so clients can't depend on its contents.
+ */
+public final class PhotoCursor {
+    private static final String SEPARATOR = "|";
+
+    private final Instant uploadedAt;
+    private final UUID photoId;
+
+    private PhotoCursor(Instant uploadedAt, UUID photoId) {
+        if (uploadedAt == null) {
+            throw new IllegalArgumentException("Cursor uploadedAt cannot be null");
+        }
+        if (photoId == null) {
+            throw new IllegalArgumentException("Cursor photoId cannot be null");
+        }
+        this.uploadedAt = uploadedAt;
+        this.photoId = photoId;
+    }
+
+    public static PhotoCursor of(Instant uploadedAt, UUID photoId) {
+        return new PhotoCursor(uploadedAt, photoId);
+    }
+
+    /**
+     * Decode an opaque cursor token.
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PhotoCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Cursor cannot be empty");
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PhotoCursor(
+                Instant.parse(decoded.substring(0, separator)),
+                UUID.fromString(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encode as an opaque, URL-safe token.
+     */
+    public String encode() {
+        String raw = uploadedAt + SEPARATOR + photoId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public UUID getPhotoId() {
+        return photoId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PhotoCursor that = (PhotoCursor) o;
+        return Objects.equals(uploadedAt, that.uploadedAt) && Objects.equals(photoId, that.photoId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uploadedAt, photoId);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -1,23 +1,63 @@
 package com.rapidphotoupload.features.photoquery.controller;
 
-import com.rapidphotoupload.domain.aggregates.Photo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.application.dtos.PhotoListDTO;
+import com.rapidphotoupload.application.queries.GetPhotoMetadataQuery;
+import com.rapidphotoupload.application.queries.GetPhotosByIdsQuery;
+import com.rapidphotoupload.application.queries.ListUserPhotosQuery;
+import com.rapidphotoupload.application.queries.PhotoFilter;
+import com.rapidphotoupload.application.queries.handlers.GetPhotoMetadataQueryHandler;
+import com.rapidphotoupload.application.queries.handlers.GetPhotosByIdsQueryHandler;
+import com.rapidphotoupload.application.queries.handlers.ListUserPhotosQueryHandler;
+import com.rapidphotoupload.domain.aggregates.Tag;
 import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoCursor;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
 import com.rapidphotoupload.domain.valueobjects.UploadStatus;
 import com.rapidphotoupload.domain.valueobjects.UserId;
+import com.rapidphotoupload.infrastructure.persistence.PhotoListVersionRepository;
+import com.rapidphotoupload.infrastructure.persistence.PhotoListVersionRepository.PhotoListVersion;
+import com.rapidphotoupload.infrastructure.persistence.PhotoLookupRepository;
 import com.rapidphotoupload.infrastructure.storage.CloudStorageService;
+import com.rapidphotoupload.infrastructure.storage.PhotoArchiveWriter;
+import com.rapidphotoupload.infrastructure.storage.PresignedUrlCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,28 +70,92 @@ public class PhotoQueryController {
     
     private static final Logger logger = LoggerFactory.getLogger(PhotoQueryController.class);
     
+    // Minimum remaining lifetime of presigned URLs for gallery viewing
+    private static final int GALLERY_URL_MINUTES = 60;
+    
+    private static final String EXPORT_CONTENT_TYPE = "application/x-ndjson";
+    // Rows fetched per cursor round trip, and bytes buffered before writing to the client
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int EXPORT_BUFFER_BYTES = 64 * 1024;
+    
+    private static final String ARCHIVE_CONTENT_TYPE = "application/zip";
+    // Photos selected per query; archiving a page takes seconds, so no connection is held meanwhile
+    private static final int ARCHIVE_PAGE_SIZE = 200;
+    
     private final PhotoRepository photoRepository;
     private final CloudStorageService cloudStorageService;
+    private final PresignedUrlCache presignedUrlCache;
+    private final ListUserPhotosQueryHandler listUserPhotosQueryHandler;
+    private final GetPhotoMetadataQueryHandler getPhotoMetadataQueryHandler;
+    private final GetPhotosByIdsQueryHandler getPhotosByIdsQueryHandler;
+    private final PhotoListVersionRepository photoListVersionRepository;
+    private final PhotoLookupRepository photoLookupRepository;
+    private final ObjectMapper objectMapper;
+    private final PhotoArchiveWriter photoArchiveWriter;
+    // Flushing after every row would defeat the export buffer
+    private final ObjectWriter exportWriter;
     
-    public PhotoQueryController(PhotoRepository photoRepository, CloudStorageService cloudStorageService) {
+    public PhotoQueryController(PhotoRepository photoRepository, CloudStorageService cloudStorageService,
+                                PresignedUrlCache presignedUrlCache,
+                                ListUserPhotosQueryHandler listUserPhotosQueryHandler,
+                                GetPhotoMetadataQueryHandler getPhotoMetadataQueryHandler,
+                                GetPhotosByIdsQueryHandler getPhotosByIdsQueryHandler,
+                                PhotoListVersionRepository photoListVersionRepository,
+                                PhotoLookupRepository photoLookupRepository,
+                                ObjectMapper objectMapper,
+                                PhotoArchiveWriter photoArchiveWriter) {
         this.photoRepository = photoRepository;
         this.cloudStorageService = cloudStorageService;
+        this.presignedUrlCache = presignedUrlCache;
+        this.listUserPhotosQueryHandler = listUserPhotosQueryHandler;
+        this.getPhotoMetadataQueryHandler = getPhotoMetadataQueryHandler;
+        this.getPhotosByIdsQueryHandler = getPhotosByIdsQueryHandler;
+        this.photoListVersionRepository = photoListVersionRepository;
+        this.photoLookupRepository = photoLookupRepository;
+        this.objectMapper = objectMapper;
+        this.photoArchiveWriter = photoArchiveWriter;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
     
     /**
      * Get all photos for the authenticated user.
      * Returns photos with presigned URLs for viewing.
+     * Pages are read newest first with keyset pagination: pass the nextCursor of the
+     * previous response to get the following page. The page parameter is still accepted
+     * for offset paging but gets slower the deeper it goes; it is ignored when a cursor
+     * is given.
+     * 
+     * Searches by tag or upload date are served from the photo_view read model, which
+     * can lag new uploads by a few seconds.
+     * 
+     * Listings that aren't searches carry an ETag derived from the user's photo_list_versions
+     * counter; a matching If-None-Match is answered with 304 before any photo is read.
+     * Search results aren't validated this way because the view can change after the
+     * counter does.
      * 
      * @param status Optional filter by upload status
+     * @param tags Optional tag filter (repeat the parameter or comma-separate)
+     * @param tagMatch "all" (default) to require every tag, "any" to require at least one
+     * @param from Optional lower bound of the upload time, ISO-8601 instant (inclusive)
+     * @param to Optional upper bound of the upload time, ISO-8601 instant (exclusive)
+     * @param cursor Opaque cursor from the previous page's nextCursor (optional)
      * @param page Page number (0-indexed, default: 0)
      * @param pageSize Page size (default: 20, max: 100)
+     * @param includeTotal Whether to count all matching photos (default: false)
      */
     @GetMapping
     public ResponseEntity<?> getUserPhotos(
             @AuthenticationPrincipal String userIdStr,
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "all") String tagMatch,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int pageSize) {
+            @RequestParam(defaultValue = "20") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            ServletWebRequest webRequest) {
         
         try {
             // Get user ID from authentication principal or security context, or use anonymous for public access
@@ -87,61 +191,308 @@ public class PhotoQueryController {
                 // Fallback to anonymous user for public access
                 userId = UserId.from(UUID.fromString("00000000-0000-0000-0000-000000000000"));
             }
-            List<Photo> allPhotos;
-            
+            UploadStatus uploadStatus = null;
             if (status != null && !status.isBlank()) {
                 try {
-                    UploadStatus uploadStatus = UploadStatus.valueOf(status.toUpperCase());
-                    allPhotos = photoRepository.findByUserIdAndStatus(userId, uploadStatus);
+                    uploadStatus = UploadStatus.valueOf(status.toUpperCase());
                 } catch (IllegalArgumentException e) {
                     logger.warn("Invalid status filter: {}", status);
                     return ResponseEntity.badRequest().build();
                 }
-            } else {
-                allPhotos = photoRepository.findByUserId(userId);
             }
             
-            // Apply pagination
-            int totalCount = allPhotos.size();
-            int totalPages = (int) Math.ceil((double) totalCount / pageSize);
-            int startIndex = page * pageSize;
-            int endIndex = Math.min(startIndex + pageSize, totalCount);
+            PhotoCursor after = null;
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    after = PhotoCursor.decode(cursor);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid photo cursor: {}", cursor);
+                    return ResponseEntity.badRequest().build();
+                }
+            }
             
-            List<Photo> paginatedPhotos = startIndex < totalCount 
-                ? allPhotos.subList(startIndex, endIndex)
-                : List.of();
+            PhotoFilter filter;
+            try {
+                if (!"all".equalsIgnoreCase(tagMatch) && !"any".equalsIgnoreCase(tagMatch)) {
+                    throw new IllegalArgumentException("tagMatch must be 'all' or 'any'");
+                }
+                filter = new PhotoFilter(
+                        tags != null ? Tag.normalizeNames(tags) : null,
+                        "all".equalsIgnoreCase(tagMatch),
+                        uploadStatus,
+                        from != null && !from.isBlank() ? Instant.parse(from) : null,
+                        to != null && !to.isBlank() ? Instant.parse(to) : null);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                logger.warn("Invalid photo search: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
             
-            List<PhotoResponse> photoResponses = paginatedPhotos.stream()
-                    .map(this::toPhotoResponse)
-                    .collect(Collectors.toList());
+            if (!filter.isSearch() && checkNotModified(webRequest, userId)) {
+                return null; // 304 Not Modified, headers already written
+            }
             
-            logger.info("Found {} photos for user: {} (showing {} of {})", 
-                    photoResponses.size(), userIdStr, photoResponses.size(), totalCount);
+            PhotoListDTO result = listUserPhotosQueryHandler.handle(new ListUserPhotosQuery(
+                    userId, page, pageSize, "uploadedAt", "desc", filter, after, includeTotal))
+                    .orElseThrow();
             
-            PhotoListResponse response = new PhotoListResponse(
-                    photoResponses,
-                    page,
-                    pageSize,
-                    totalPages,
-                    totalCount,
-                    page < totalPages - 1,
-                    page > 0
-            );
+            logger.info("Found {} photos for user: {} (hasNext: {})", 
+                    result.photos().size(), userIdStr, result.hasNext());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new PhotoListResponse(
+                    toPhotoResponses(result.photos()),
+                    result.page(),
+                    result.pageSize(),
+                    result.totalPages(),
+                    result.totalCount(),
+                    result.hasNext(),
+                    result.hasPrevious(),
+                    result.nextCursor()
+            ));
         } catch (Exception e) {
             logger.error("Error fetching photos for user: {}", userIdStr != null ? userIdStr : "unknown", e);
             throw e; // Let GlobalExceptionHandler handle it
         }
     }
     
+    /**
+     * Export the metadata of every photo of the user as NDJSON (one PhotoResponse per line,
+     * newest first). Rows are streamed from a database cursor and written as they arrive,
+     * so memory stays constant however large the library is and no paging is needed.
+     * 
+     * @param includeUrls Whether to include presigned URLs (default: false). They are signed
+     *                    per photo without going through the gallery URL cache.
+     * @param expirationMinutes Lifetime of included URLs (default: 60, max: 10080)
+     */
+    @GetMapping(value = "/export", produces = EXPORT_CONTENT_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportPhotos(
+            @AuthenticationPrincipal String userIdStr,
+            @RequestParam(defaultValue = "false") boolean includeUrls,
+            @RequestParam(defaultValue = "60") int expirationMinutes) {
+        
+        // Get user ID from authentication principal or security context, or use anonymous for public access
+        if (userIdStr == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || authentication.getPrincipal() == null || 
+                authentication.getPrincipal().equals("anonymousUser")) {
+                // Public access: Use a default anonymous user ID for unauthenticated requests
+                logger.info("Public access request to export photos - using anonymous user ID");
+                userIdStr = "00000000-0000-0000-0000-000000000000"; // Anonymous user UUID
+            } else {
+                userIdStr = authentication.getPrincipal().toString();
+            }
+        }
+        
+        if (expirationMinutes <= 0 || expirationMinutes > 10080) {
+            logger.warn("Invalid export URL expiration: {}", expirationMinutes);
+            return ResponseEntity.badRequest().build();
+        }
+        UserId userId;
+        try {
+            userId = UserId.from(UUID.fromString(userIdStr));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid user ID format for export: {}", userIdStr);
+            return ResponseEntity.badRequest().build();
+        }
+        
+        logger.info("Exporting photos for user: {} (includeUrls: {})", userIdStr, includeUrls);
+        
+        StreamingResponseBody body = outputStream -> {
+            long start = System.nanoTime();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                    new BufferedOutputStream(outputStream, EXPORT_BUFFER_BYTES))) {
+                long exported = photoLookupRepository.forEachByUserId(userId, EXPORT_FETCH_SIZE, photo -> {
+                    try {
+                        exportWriter.writeValue(generator, toPhotoResponse(photo,
+                                includeUrls ? signExportUrls(photo, expirationMinutes) : Map.of()));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        // Client went away; abandon the cursor
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                logger.info("Exported {} photos for user: {} in {} ms",
+                        exported, userId.getValue(), (System.nanoTime() - start) / 1_000_000);
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(EXPORT_CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("photos-" + LocalDate.now(ZoneOffset.UTC) + ".ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+    
+    /**
+     * Download completed photos as a ZIP archive. Exactly one selection is given: an upload
+     * job, a tag, or a list of photo IDs (at most 500, archived in request order).
+     * 
+     * Objects are streamed from storage into the archive as it is sent, with the next few
+     * downloads opened ahead of time, so memory stays constant however large the archive is.
+     * Job and tag selections are read 200 photos at a time, each page by keyset on
+     * (uploadedAt, photoId) in its own short query, so no connection is held while a page
+     * is archived. Photos whose objects can't be read are skipped and listed in an
+     * errors.txt entry at the end, since the response status is already sent by then.
+     * 
+     * @param jobId Upload job whose photos to archive
+     * @param tag Tag whose photos to archive
+     * @param ids Photo IDs to archive (repeat the parameter or comma-separate)
+     */
+    @GetMapping(value = "/archive", produces = ARCHIVE_CONTENT_TYPE)
+    public ResponseEntity<StreamingResponseBody> downloadArchive(
+            @AuthenticationPrincipal String userIdStr,
+            @RequestParam(required = false) String jobId,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) List<String> ids) {
+        
+        // Get user ID from authentication principal or security context, or use anonymous for public access
+        if (userIdStr == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || authentication.getPrincipal() == null || 
+                authentication.getPrincipal().equals("anonymousUser")) {
+                // Public access: Use a default anonymous user ID for unauthenticated requests
+                logger.info("Public access request to download archive - using anonymous user ID");
+                userIdStr = "00000000-0000-0000-0000-000000000000"; // Anonymous user UUID
+            } else {
+                userIdStr = authentication.getPrincipal().toString();
+            }
+        }
+        
+        int selections = (jobId != null ? 1 : 0) + (tag != null ? 1 : 0) + (ids != null ? 1 : 0);
+        if (selections != 1) {
+            logger.warn("Archive request must select exactly one of jobId, tag or ids");
+            return ResponseEntity.badRequest().build();
+        }
+        
+        UserId userId;
+        String archiveName;
+        Consumer<Consumer<PhotoDTO>> source;
+        try {
+            userId = UserId.from(UUID.fromString(userIdStr));
+            if (jobId != null) {
+                JobId job = JobId.from(UUID.fromString(jobId));
+                archiveName = "job-" + job.getValue();
+                source = consumer -> photoLookupRepository.forEachCompletedByJobId(
+                        userId, job, ARCHIVE_PAGE_SIZE, consumer);
+            } else if (tag != null) {
+                String tagName = Tag.normalizeName(tag);
+                archiveName = "tag-" + tagName;
+                source = consumer -> photoLookupRepository.forEachCompletedByTag(
+                        userId, tagName, ARCHIVE_PAGE_SIZE, consumer);
+            } else {
+                if (ids.stream().anyMatch(Objects::isNull)) {
+                    throw new IllegalArgumentException("ids cannot contain null");
+                }
+                GetPhotosByIdsQuery query = new GetPhotosByIdsQuery(ids.stream()
+                        .map(id -> PhotoId.from(UUID.fromString(id.trim())))
+                        .collect(Collectors.toList()), userId);
+                archiveName = "photos-" + LocalDate.now(ZoneOffset.UTC);
+                // Small enough to load up front; resolved here so no connection is held while streaming
+                List<PhotoDTO> photos = getPhotosByIdsQueryHandler.handle(query).orElseThrow().stream()
+                        .filter(photo -> photo.status() == UploadStatus.COMPLETED)
+                        .collect(Collectors.toList());
+                source = photos::forEach;
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid archive request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        logger.info("Streaming archive {} for user: {}", archiveName, userIdStr);
+        
+        StreamingResponseBody body = outputStream -> {
+            long start = System.nanoTime();
+            try (PhotoArchiveWriter.Archive archive = photoArchiveWriter.open(
+                    new BufferedOutputStream(outputStream, EXPORT_BUFFER_BYTES))) {
+                source.accept(photo -> {
+                    try {
+                        archive.add(photo.storageKey(), photo.filename(), photo.contentType(), photo.uploadedAt());
+                    } catch (IOException e) {
+                        // Client went away; stop selecting further pages
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                archive.finish();
+                logger.info("Archived {} photos ({} failed) as {} for user: {} in {} ms",
+                        archive.getEntryCount(), archive.getFailures().size(), archiveName,
+                        userId.getValue(), (System.nanoTime() - start) / 1_000_000);
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ARCHIVE_CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(archiveName + ".zip", StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+    
+    /**
+     * Get several photos by ID in one request.
+     * All photos are loaded with a single query that also checks ownership, and their
+     * URLs are signed together. Photos are returned in request order; IDs that don't
+     * exist or belong to another user are listed in missingIds.
+     * 
+     * @param request Photo IDs (at most 500)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getPhotosByIds(
+            @AuthenticationPrincipal String userIdStr,
+            @RequestBody PhotoBatchRequest request) {
+        
+        // Get user ID from authentication principal or security context, or use anonymous for public access
+        if (userIdStr == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || authentication.getPrincipal() == null || 
+                authentication.getPrincipal().equals("anonymousUser")) {
+                // Public access: Use a default anonymous user ID for unauthenticated requests
+                logger.info("Public access request to get photo batch - using anonymous user ID");
+                userIdStr = "00000000-0000-0000-0000-000000000000"; // Anonymous user UUID
+            } else {
+                userIdStr = authentication.getPrincipal().toString();
+            }
+        }
+        
+        GetPhotosByIdsQuery query;
+        try {
+            if (request == null || request.ids() == null) {
+                throw new IllegalArgumentException("ids is required");
+            }
+            if (request.ids().stream().anyMatch(Objects::isNull)) {
+                throw new IllegalArgumentException("ids cannot contain null");
+            }
+            List<PhotoId> photoIds = request.ids().stream()
+                    .map(id -> PhotoId.from(UUID.fromString(id)))
+                    .collect(Collectors.toList());
+            query = new GetPhotosByIdsQuery(photoIds, UserId.from(UUID.fromString(userIdStr)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid photo batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        logger.info("Fetching {} photos for user: {}", query.photoIds().size(), userIdStr);
+        
+        List<PhotoDTO> photos = getPhotosByIdsQueryHandler.handle(query).orElseThrow();
+        Set<PhotoId> foundIds = photos.stream().map(PhotoDTO::photoId).collect(Collectors.toSet());
+        List<String> missingIds = query.photoIds().stream()
+                .filter(id -> !foundIds.contains(id))
+                .map(id -> id.getValue().toString())
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok(new PhotoBatchResponse(toPhotoResponses(photos), missingIds));
+    }
+    
     /**
      * Get a specific photo by ID.
+     * Supports conditional requests like the photo list (ETag).
      */
     @GetMapping("/{photoId}")
     public ResponseEntity<?> getPhotoById(
             @AuthenticationPrincipal String userIdStr,
-            @PathVariable String photoId) {
+            @PathVariable String photoId,
+            ServletWebRequest webRequest) {
         
         // Get user ID from authentication principal or security context, or use anonymous for public access
         if (userIdStr == null) {
@@ -163,10 +514,13 @@ public class PhotoQueryController {
         
         try {
             PhotoId id = PhotoId.from(UUID.fromString(photoId));
-            return photoRepository.findById(id)
-                    .filter(photo -> photo.getUploadedBy().getUserId().toString().equals(finalUserIdStr))
-                    .map(this::toPhotoResponse)
-                    .map(ResponseEntity::ok)
+            UserId userId = UserId.from(UUID.fromString(finalUserIdStr));
+            if (checkNotModified(webRequest, userId)) {
+                return null; // 304 Not Modified, headers already written
+            }
+            return getPhotoMetadataQueryHandler.handle(new GetPhotoMetadataQuery(id, userId))
+                    .map(photo -> toPhotoResponses(List.of(photo)).get(0))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
                     .orElseGet(() -> {
                         logger.warn("Photo not found or unauthorized: {}", photoId);
                         return ResponseEntity.notFound().build();
@@ -228,91 +582,123 @@ public class PhotoQueryController {
     }
     
     /**
-     * Convert Photo domain aggregate to PhotoResponse DTO.
+     * Answer a conditional GET from the user's photo version without reading any photos.
+     * The ETag also changes with the presigned URL signing window, so clients never keep
+     * a cached body whose URLs have been replaced. No Last-Modified is sent: it can't follow
+     * the signing window, and second-resolution dates would hide writes made within the
+     * same second as the cached response.
+     * @return true if the client's copy is current and a 304 has been prepared
      */
-    private PhotoResponse toPhotoResponse(Photo photo) {
-        try {
-            String presignedUrl = null;
-            String thumbnailPresignedUrl = null;
-            String storageKeyValue = null;
-            String thumbnailStorageKeyValue = null;
-            
-            if (photo.getStorageKey() != null) {
-                storageKeyValue = photo.getStorageKey().getValue();
-                if (photo.getStatus() == UploadStatus.COMPLETED) {
-                    try {
-                        presignedUrl = cloudStorageService.generatePresignedUrl(
-                                storageKeyValue, 
-                                60); // 60-minute expiration for gallery viewing
-                    } catch (Exception e) {
-                        logger.error("Failed to generate presigned URL for photo: {}", photo.getId().getValue(), e);
-                    }
-                }
-            }
-            
-            if (photo.getThumbnailStorageKey() != null) {
-                thumbnailStorageKeyValue = photo.getThumbnailStorageKey().getValue();
-                if (photo.getStatus() == UploadStatus.COMPLETED) {
-                    try {
-                        thumbnailPresignedUrl = cloudStorageService.generatePresignedUrl(
-                                thumbnailStorageKeyValue, 
-                                60); // 60-minute expiration for gallery viewing
-                    } catch (Exception e) {
-                        logger.error("Failed to generate presigned URL for thumbnail: {}", photo.getId().getValue(), e);
-                    }
-                }
-            }
-            
-            // Safely get metadata fields
-            Integer width = null;
-            Integer height = null;
-            String fileHash = null;
-            if (photo.getMetadata() != null) {
-                width = photo.getMetadata().getWidth();
-                height = photo.getMetadata().getHeight();
-                fileHash = photo.getMetadata().getFileHash();
+    private boolean checkNotModified(ServletWebRequest webRequest, UserId userId) {
+        Optional<PhotoListVersion> version = photoListVersionRepository.find(userId);
+        String etag = String.format("W/\"%d-%d\"",
+                version.map(PhotoListVersion::version).orElse(0L), presignedUrlCache.getSigningWindow());
+        
+        // Revalidate on every use and keep per-user responses out of shared caches
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+        return webRequest.checkNotModified(etag);
+    }
+    
+    /**
+     * Presigned URLs of one exported photo by storage key.
+     * Signed directly so a full export doesn't evict the gallery's cached URLs.
+     */
+    private Map<String, String> signExportUrls(PhotoDTO photo, int expirationMinutes) {
+        if (photo.status() != UploadStatus.COMPLETED) {
+            return Map.of();
+        }
+        Map<String, String> urls = new HashMap<>(4);
+        for (String key : new String[] {photo.storageKey(), photo.thumbnailStorageKey()}) {
+            if (key != null && !urls.containsKey(key)) {
+                urls.put(key, cloudStorageService.generatePresignedUrl(key, expirationMinutes));
             }
-            
-            // Get tags from metadata
-            List<String> tags = List.of();
-            if (photo.getMetadata() != null && photo.getMetadata().getTags() != null) {
-                tags = photo.getMetadata().getTags().stream().collect(Collectors.toList());
+        }
+        return urls;
+    }
+    
+    /**
+     * Convert read model rows to PhotoResponse DTOs, signing all their URLs in one batch.
+     */
+    private List<PhotoResponse> toPhotoResponses(List<PhotoDTO> photos) {
+        List<String> keys = new ArrayList<>();
+        for (PhotoDTO photo : photos) {
+            if (photo.status() == UploadStatus.COMPLETED) {
+                keys.add(photo.storageKey());
+                keys.add(photo.thumbnailStorageKey());
             }
-            
-            return new PhotoResponse(
-                    photo.getId().getValue().toString(),
-                    photo.getFilename().getValue(),
-                    photo.getFileSize().getBytes(),
-                    photo.getContentType().getValue(),
-                    photo.getStatus().name(),
-                    presignedUrl,
-                    storageKeyValue,
-                    thumbnailStorageKeyValue,
-                    thumbnailPresignedUrl,
-                    photo.getUploadedAt().getValue().toString(),
-                    photo.getUploadedBy().getUserId().toString(),
-                    tags,
-                    width,
-                    height,
-                    fileHash
-            );
+        }
+        Map<String, String> urls;
+        try {
+            urls = presignedUrlCache.getPresignedUrls(keys, GALLERY_URL_MINUTES);
         } catch (Exception e) {
-            logger.error("Error converting photo to response: {}", photo.getId() != null ? photo.getId().getValue() : "unknown", e);
-            throw new RuntimeException("Failed to convert photo to response", e);
+            logger.error("Failed to generate presigned URLs for {} photos", photos.size(), e);
+            urls = Map.of();
+        }
+        Map<String, String> signed = urls;
+        return photos.stream()
+                .map(photo -> toPhotoResponse(photo, signed))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Convert a read model row to PhotoResponse DTO.
+     * @param urls Presigned URLs by storage key
+     */
+    private PhotoResponse toPhotoResponse(PhotoDTO photo, Map<String, String> urls) {
+        String presignedUrl = null;
+        String thumbnailPresignedUrl = null;
+        if (photo.status() == UploadStatus.COMPLETED) {
+            presignedUrl = photo.storageKey() != null ? urls.get(photo.storageKey()) : null;
+            thumbnailPresignedUrl = photo.thumbnailStorageKey() != null ? urls.get(photo.thumbnailStorageKey()) : null;
         }
+        
+        return new PhotoResponse(
+                photo.photoId().getValue().toString(),
+                photo.filename(),
+                photo.fileSize(),
+                photo.contentType(),
+                photo.status().name(),
+                presignedUrl,
+                photo.storageKey(),
+                photo.thumbnailStorageKey(),
+                thumbnailPresignedUrl,
+                photo.uploadedAt().toString(),
+                photo.uploadedByUserId(),
+                photo.tags().stream().sorted().collect(Collectors.toList()),
+                photo.width(),
+                photo.height(),
+                photo.fileHash()
+        );
     }
     
     /**
      * DTO for photo list response with pagination.
+     * totalPages and totalCount are only filled in when includeTotal is requested.
      */
     public record PhotoListResponse(
             List<PhotoResponse> photos,
             int page,
             int pageSize,
-            int totalPages,
-            int totalCount,
+            Integer totalPages,
+            Long totalCount,
             boolean hasNext,
-            boolean hasPrevious
+            boolean hasPrevious,
+            String nextCursor // Cursor for the next page (null on the last page)
+    ) {}
+    
+    /**
+     * Request body for fetching several photos by ID.
+     */
+    public record PhotoBatchRequest(List<String> ids) {}
+    
+    /**
+     * DTO for batch photo response.
+     */
+    public record PhotoBatchResponse(
+            List<PhotoResponse> photos, // In request order
+            List<String> missingIds // Requested IDs that don't exist or belong to another user
     ) {}
     
     /**
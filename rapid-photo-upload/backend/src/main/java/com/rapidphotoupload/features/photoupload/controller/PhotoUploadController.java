@@ -2,17 +2,21 @@ package com.rapidphotoupload.features.photoupload.controller;
 
 import com.rapidphotoupload.api.dto.BatchUploadResponse;
 import com.rapidphotoupload.api.dto.ErrorResponse;
+import com.rapidphotoupload.api.dto.RetryUploadResponse;
 import com.rapidphotoupload.application.commands.CommandResult;
-import com.rapidphotoupload.application.commands.CreateUploadJobCommand;
-import com.rapidphotoupload.application.commands.UploadPhotoCommand;
+import com.rapidphotoupload.application.commands.RetryFailedUploadCommand;
+import com.rapidphotoupload.application.commands.UploadPhotoBatchCommand;
 import com.rapidphotoupload.application.commands.handlers.CommandDispatcher;
 import com.rapidphotoupload.domain.repositories.UserRepository;
 import com.rapidphotoupload.domain.valueobjects.*;
+import com.rapidphotoupload.infrastructure.exceptions.TemporaryStorageFullException;
 import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
 import com.rapidphotoupload.infrastructure.storage.TemporaryFileStorage;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -20,7 +24,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -40,26 +46,31 @@ public class PhotoUploadController {
     private final CommandDispatcher commandDispatcher;
     private final TemporaryFileStorage temporaryFileStorage;
     private final UserRepository userRepository;
+    private final UploadPerformanceMonitor performanceMonitor;
     
     public PhotoUploadController(
             CommandDispatcher commandDispatcher,
             TemporaryFileStorage temporaryFileStorage,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            UploadPerformanceMonitor performanceMonitor) {
         this.commandDispatcher = commandDispatcher;
         this.temporaryFileStorage = temporaryFileStorage;
         this.userRepository = userRepository;
+        this.performanceMonitor = performanceMonitor;
     }
     
     /**
      * Batch upload endpoint for uploading multiple photos at once.
      * 
      * @param files Array of multipart files to upload
+     * @param tags Optional tags applied to every photo in the batch
      * @param request HTTP request for error handling
      * @return BatchUploadResponse with job ID and photo IDs
      */
     @PostMapping("/upload/batch")
     public ResponseEntity<?> uploadBatch(
             @RequestParam("files") MultipartFile[] files,
+            @RequestParam(value = "tags", required = false) List<String> tags,
             HttpServletRequest request) {
         
         logger.info("Batch upload request received with {} files", files.length);
@@ -123,24 +134,22 @@ public class PhotoUploadController {
                     ));
             }
             
-            // Create upload job
-            CreateUploadJobCommand createJobCommand = new CreateUploadJobCommand(userId, files.length);
-            CommandResult<?> jobResult = commandDispatcher.dispatch(createJobCommand);
-            
-            if (jobResult instanceof CommandResult.Failure<?> failure) {
-                return ResponseEntity.badRequest()
+            // Apply backpressure before creating the job if the upload buffer cannot take this batch
+            long batchBytes = Arrays.stream(files).mapToLong(MultipartFile::getSize).sum();
+            if (!temporaryFileStorage.hasCapacityFor(batchBytes)) {
+                logger.warn("Rejecting batch of {} bytes: upload buffer full ({} bytes buffered)",
+                    batchBytes, temporaryFileStorage.getBufferedBytes());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(temporaryFileStorage.getRetryAfterSeconds()))
                     .body(new ErrorResponse(
-                        failure.errorCode(),
-                        failure.errorMessage(),
+                        "UPLOAD_BACKPRESSURE",
+                        "Server is busy processing uploads. Please retry shortly.",
                         request.getRequestURI()
                     ));
             }
             
-            JobId jobId = (JobId) ((CommandResult.Success<?>) jobResult).data();
-            logger.info("Created upload job: {}", jobId.getValue());
-            
-            // Process each file
-            List<String> photoIds = new ArrayList<>();
+            // Stream each file into temporary storage
+            List<UploadPhotoBatchCommand.BatchPhoto> batchPhotos = new ArrayList<>();
             List<String> errors = new ArrayList<>();
             
             for (int i = 0; i < files.length; i++) {
@@ -159,65 +168,90 @@ public class PhotoUploadController {
                         filename = "photo_" + (i + 1);
                     }
                     
-                    long fileSize = file.getSize();
                     String contentType = file.getContentType();
                     if (contentType == null || contentType.trim().isEmpty()) {
                         contentType = "image/jpeg"; // Default
                     }
                     
+                    // Create value objects before buffering so invalid files are rejected cheaply
+                    Filename filenameVO = Filename.from(filename);
+                    ContentType contentTypeVO = ContentType.from(contentType);
+                    
                     // Generate PhotoId first so we can store the file
                     PhotoId photoId = PhotoId.generate();
                     
-                    // Store file in temporary storage before creating Photo entity
+                    // Stream file into temporary storage before creating Photo entity
+                    TemporaryFileStorage.StoredFileInfo stored;
                     try {
-                        temporaryFileStorage.store(photoId, file);
+                        long storeStart = System.nanoTime();
+                        stored = temporaryFileStorage.store(photoId, file);
+                        performanceMonitor.recordTempWrite(stored.size(),
+                            Duration.ofNanos(System.nanoTime() - storeStart));
                         logger.debug("Stored file temporarily for photo: {}", photoId.getValue());
+                    } catch (TemporaryStorageFullException e) {
+                        logger.warn("Upload buffer full while storing file {}: {}", filename, e.getMessage());
+                        errors.add(String.format("File %d (%s): Server busy, retry later", i + 1, filename));
+                        continue;
                     } catch (IOException e) {
                         logger.error("Failed to store file temporarily: {}", e.getMessage(), e);
                         errors.add(String.format("File %d (%s): Failed to store file", i + 1, filename));
                         continue;
                     }
                     
-                    // Create value objects
-                    Filename filenameVO = Filename.from(filename);
-                    FileSize fileSizeVO = FileSize.from(fileSize);
-                    ContentType contentTypeVO = ContentType.from(contentType);
-                    
-                    // Create upload photo command with PhotoId
-                    UploadPhotoCommand uploadCommand = new UploadPhotoCommand(
+                    batchPhotos.add(new UploadPhotoBatchCommand.BatchPhoto(
                         photoId, // Pass PhotoId so file can be retrieved later
                         filenameVO,
-                        fileSizeVO,
+                        FileSize.from(stored.size()),
                         contentTypeVO,
-                        userId,
-                        jobId, // Associate with job
-                        Set.of() // No tags for now
-                    );
-                    
-                    // Dispatch command
-                    CommandResult<?> uploadResult = commandDispatcher.dispatch(uploadCommand);
-                    
-                    if (uploadResult instanceof CommandResult.Success<?> success) {
-                        PhotoId resultPhotoId = (PhotoId) success.data();
-                        photoIds.add(resultPhotoId.getValue().toString());
-                        logger.debug("Created photo {} for job {}", resultPhotoId.getValue(), jobId.getValue());
-                    } else if (uploadResult instanceof CommandResult.Failure<?> failure) {
-                        // Clean up temporary storage on failure
-                        temporaryFileStorage.remove(photoId);
-                        errors.add(String.format("File %d (%s): %s", i + 1, filename, failure.errorMessage()));
-                        logger.warn("Failed to upload file {}: {}", filename, failure.errorMessage());
-                    }
+                        stored.sha256()
+                    ));
                     
                 } catch (Exception e) {
                     String errorMsg = String.format("File %d (%s): %s", i + 1, 
                         file.getOriginalFilename(), e.getMessage());
                     errors.add(errorMsg);
                     logger.error("Error processing file {}: {}", i + 1, e.getMessage(), e);
-                    // Clean up temporary storage on error (if PhotoId was generated)
-                    // Note: PhotoId might not exist if error occurred before generation
                 }
             }
             
+            if (batchPhotos.isEmpty()) {
+                logger.warn("Batch upload rejected, no valid files: {}", errors);
+                return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(
+                        "VALIDATION_ERROR",
+                        "No valid files in batch: " + String.join("; ", errors),
+                        request.getRequestURI()
+                    ));
+            }
+            
+            // Create job and all photos in one transaction
+            CommandResult<?> batchResult;
+            try {
+                batchResult = commandDispatcher.dispatch(new UploadPhotoBatchCommand(
+                        userId, batchPhotos, tags != null ? Set.copyOf(tags) : Set.of()));
+            } catch (RuntimeException e) {
+                batchPhotos.forEach(photo -> temporaryFileStorage.remove(photo.photoId()));
+                throw e;
+            }
+            
+            if (batchResult instanceof CommandResult.Failure<?> failure) {
+                // Clean up temporary storage on failure
+                batchPhotos.forEach(photo -> temporaryFileStorage.remove(photo.photoId()));
+                return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(
+                        failure.errorCode(),
+                        failure.errorMessage(),
+                        request.getRequestURI()
+                    ));
+            }
+            
+            JobId jobId = (JobId) ((CommandResult.Success<?>) batchResult).data();
+            logger.info("Created upload job {} with {} photos", jobId.getValue(), batchPhotos.size());
+            
+            List<String> photoIds = batchPhotos.stream()
+                .map(photo -> photo.photoId().getValue().toString())
+                .toList();
+            
             // Build response
             BatchUploadResponse response = new BatchUploadResponse(
                 jobId.getValue().toString(),
@@ -253,5 +287,48 @@ public class PhotoUploadController {
                 ));
         }
     }
+    
+    /**
+     * Retry a failed photo upload.
+     * The photo is re-enqueued if its original bytes are still buffered.
+     * 
+     * @param photoId ID of the FAILED photo
+     * @return 202 with the re-enqueued photo ID
+     */
+    @PostMapping("/{photoId}/retry")
+    public ResponseEntity<RetryUploadResponse> retryUpload(@PathVariable String photoId) {
+        PhotoId id;
+        try {
+            id = PhotoId.from(UUID.fromString(photoId));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid photo ID format: " + photoId);
+        }
+        
+        CommandResult<PhotoId> result = commandDispatcher.dispatch(new RetryFailedUploadCommand(id, currentUserId()));
+        if (result instanceof CommandResult.Failure<PhotoId> failure) {
+            throw new ValidationException(failure.errorMessage());
+        }
+        
+        PhotoId retried = ((CommandResult.Success<PhotoId>) result).data();
+        logger.info("Retry requested for photo {}", retried.getValue());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(new RetryUploadResponse(List.of(retried.getValue().toString())));
+    }
+    
+    /**
+     * Resolve the authenticated user, falling back to the anonymous user for public access.
+     */
+    private UserId currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getPrincipal() == null || 
+            authentication.getPrincipal().equals("anonymousUser")) {
+            return UserId.from(ANONYMOUS_USER_ID);
+        }
+        try {
+            return UserId.from(UUID.fromString(authentication.getPrincipal().toString()));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid user ID format: {}", authentication.getPrincipal());
+            return UserId.from(ANONYMOUS_USER_ID);
+        }
+    }
 }
-
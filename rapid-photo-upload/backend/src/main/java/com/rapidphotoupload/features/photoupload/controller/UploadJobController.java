@@ -0,0 +1,84 @@
+package com.rapidphotoupload.features.photoupload.controller;
+
+import com.rapidphotoupload.api.dto.RetryUploadResponse;
+import com.rapidphotoupload.application.commands.CommandResult;
+import com.rapidphotoupload.application.commands.RetryFailedJobUploadsCommand;
+import com.rapidphotoupload.application.commands.handlers.CommandDispatcher;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller for upload job operations in the photo upload feature slice.
+ */
+@RestController
+@RequestMapping("/api/v1/jobs")
+@CrossOrigin(origins = "*")
+public class UploadJobController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UploadJobController.class);
+    private static final UUID ANONYMOUS_USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000000");
+    
+    private final CommandDispatcher commandDispatcher;
+    
+    public UploadJobController(CommandDispatcher commandDispatcher) {
+        this.commandDispatcher = commandDispatcher;
+    }
+    
+    /**
+     * Bulk retry: re-enqueue every FAILED photo in a job in one call.
+     * Photos whose original bytes are no longer buffered are left FAILED.
+     * 
+     * @param jobId ID of the upload job
+     * @return 202 with the IDs of the re-enqueued photos
+     */
+    @PostMapping("/{jobId}/retry")
+    public ResponseEntity<RetryUploadResponse> retryFailedUploads(@PathVariable String jobId) {
+        JobId id;
+        try {
+            id = JobId.from(UUID.fromString(jobId));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid job ID format: " + jobId);
+        }
+        
+        CommandResult<List<PhotoId>> result = commandDispatcher.dispatch(
+            new RetryFailedJobUploadsCommand(id, currentUserId()));
+        if (result instanceof CommandResult.Failure<List<PhotoId>> failure) {
+            throw new ValidationException(failure.errorMessage());
+        }
+        
+        List<String> photoIds = ((CommandResult.Success<List<PhotoId>>) result).data().stream()
+            .map(photoId -> photoId.getValue().toString())
+            .toList();
+        logger.info("Retry requested for {} failed photos in job {}", photoIds.size(), jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new RetryUploadResponse(photoIds));
+    }
+    
+    /**
+     * Resolve the authenticated user, falling back to the anonymous user for public access.
+     */
+    private UserId currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getPrincipal() == null || 
+            authentication.getPrincipal().equals("anonymousUser")) {
+            return UserId.from(ANONYMOUS_USER_ID);
+        }
+        try {
+            return UserId.from(UUID.fromString(authentication.getPrincipal().toString()));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid user ID format: {}", authentication.getPrincipal());
+            return UserId.from(ANONYMOUS_USER_ID);
+        }
+    }
+}
@@ -1,27 +1,47 @@
 package com.rapidphotoupload.infrastructure.config;
 
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
 import com.rapidphotoupload.infrastructure.storage.CloudStorageService;
 import com.rapidphotoupload.infrastructure.storage.LocalFileStorageService;
+import com.rapidphotoupload.infrastructure.storage.S3AsyncPhotoStorageService;
 import com.rapidphotoupload.infrastructure.storage.S3PhotoStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration for async processing and storage services.
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
     
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+    
     /**
      * Task executor configured for high-concurrency photo uploads.
      * 
@@ -29,40 +49,52 @@ public class AsyncConfig {
      * - Must handle 100 concurrent photo uploads per user session
      * - Target: 100 photos (2MB each) uploaded in < 90 seconds
      * 
-     * CONFIGURATION RATIONALE:
-     * - CorePoolSize: 20 threads for immediate processing
-     * - MaxPoolSize: 50 threads to handle burst loads
-     * - QueueCapacity: 500 to buffer uploads during extreme load
-     * - ThreadNamePrefix: For easy identification in logs/profiling
+     * MODES (upload.executor.mode):
+     * - platform (default): ThreadPoolTaskExecutor with upload.executor.threads (50) threads.
+     *   Core and max size are equal: with an unbounded queue the pool never grows past its
+     *   core size, so the core size is the real limit. Idle threads time out after 60s.
+     * - virtual: one virtual thread per task (requires a Java 21 runtime). Blocking S3,
+     *   JDBC and WebSocket calls park the virtual thread instead of holding a platform
+     *   thread, so in-flight uploads are bounded by StorageConcurrencyLimiter rather than
+     *   pool size.
      * 
-     * With 50 threads and 2MB average file size:
-     * - Theoretical throughput: ~50 files in parallel
-     * - With 10Mbps upload: ~1.25MB/s per file = ~2 seconds per 2MB file
-     * - 100 files / 50 threads = 2 batches * 2s = ~4-6 seconds ideal
-     * - Real-world with overhead: 10-20 seconds well under 90s requirement
+     * REJECTION:
+     * Rejected tasks are never run on the caller (no CallerRunsPolicy), so HTTP request
+     * threads are never drafted to run uploads. Memory is bounded upstream by
+     * TemporaryFileStorage's buffered-bytes ceiling, so the platform queue defaults to
+     * unbounded; each queued task only holds a photo ID.
      */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    public Executor taskExecutor(
+            @Value("${upload.executor.mode:platform}") String mode,
+            @Value("${upload.executor.threads:50}") int threads,
+            @Value("${upload.executor.queue-capacity:2147483647}") int queueCapacity) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            if (Runtime.version().feature() >= 21) {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("photo-upload-");
+                executor.setVirtualThreads(true);
+                // Graceful shutdown: Wait up to 30 seconds for uploads to complete
+                executor.setTaskTerminationTimeout(30_000);
+                logger.info("Photo upload executor: virtual threads");
+                return executor;
+            }
+            logger.warn("upload.executor.mode=virtual requires Java 21+ (running {}); falling back to platform threads",
+                    Runtime.version());
+        }
         
-        // Core pool: Always active threads for immediate processing
-        executor.setCorePoolSize(20);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         
-        // Max pool: Peak concurrent upload threads
-        // Supports 100 concurrent uploads by processing in 2-3 batches
-        executor.setMaxPoolSize(50);
+        // Core = max: extra threads are only added once the queue is full, which an
+        // unbounded queue never is. Supports 100 concurrent uploads in 2-3 batches
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
         
         // Queue capacity: Buffer for uploads waiting for thread availability
-        // Holds 500 uploads = 5 concurrent users with 100 photos each
-        executor.setQueueCapacity(500);
+        executor.setQueueCapacity(queueCapacity);
         
         // Thread naming for monitoring and debugging
         executor.setThreadNamePrefix("photo-upload-");
         
-        // Rejection policy: Caller-runs ensures no uploads are dropped
-        // If queue is full, the HTTP request thread processes the upload
-        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
-        
         // Thread lifecycle: Keep idle threads alive for 60 seconds
         executor.setKeepAliveSeconds(60);
         executor.setAllowCoreThreadTimeOut(true);
@@ -71,10 +103,100 @@ public class AsyncConfig {
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         
+        executor.initialize();
+        logger.info("Photo upload executor: platform threads ({} threads, queue {})", threads, queueCapacity);
+        return executor;
+    }
+    
+    /**
+     * Executor for S3 multipart part uploads.
+     * Kept separate from taskExecutor so part uploads never queue behind whole-photo
+     * tasks that are themselves waiting on those parts. Queue growth is bounded by the
+     * per-object in-flight part limit.
+     */
+    @Bean(name = "s3PartUploadExecutor")
+    public ThreadPoolTaskExecutor s3PartUploadExecutor(
+            @Value("${cloud.storage.s3.multipart.part-upload-threads:16}") int partUploadThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(partUploadThreads);
+        executor.setMaxPoolSize(partUploadThreads);
+        executor.setThreadNamePrefix("s3-part-");
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
         executor.initialize();
         return executor;
     }
     
+    /**
+     * Executor for thumbnail generation.
+     * Image decoding and scaling are CPU-bound, so the pool defaults to half the cores and
+     * is kept apart from taskExecutor so resizing never holds threads that upload I/O needs.
+     * The queue is bounded; tasks beyond it are rejected and those photos keep serving
+     * their originals.
+     */
+    @Bean(name = "thumbnailExecutor")
+    public ThreadPoolTaskExecutor thumbnailExecutor(
+            @Value("${thumbnail.executor.threads:0}") int threads,
+            @Value("${thumbnail.executor.queue-capacity:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        logger.info("Thumbnail executor: {} threads, queue {}", poolSize, queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Executor that opens the downloads of upcoming ZIP archive entries while the current
+     * one is being written. Downloads only wait on storage latency, so a small pool serves
+     * several concurrent archives. When saturated the archive thread opens the download
+     * itself (CallerRunsPolicy): the archive slows down instead of failing mid-stream.
+     */
+    @Bean(name = "archivePrefetchExecutor")
+    public ThreadPoolTaskExecutor archivePrefetchExecutor(
+            @Value("${archive.prefetch.executor.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix("archive-prefetch-");
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        logger.info("Archive prefetch executor: {} threads", threads);
+        return executor;
+    }
+
+    /**
+     * Executor that writes progress updates to WebSocket sessions.
+     * Keeps socket writes off upload workers; each session is written by at most one of
+     * these threads at a time, for no longer than the session's send-time limit. Updates
+     * beyond the queue are rejected and dropped, as newer ones supersede them.
+     */
+    @Bean(name = "progressSendExecutor")
+    public ThreadPoolTaskExecutor progressSendExecutor(
+            @Value("${websocket.progress.send-executor.threads:4}") int threads,
+            @Value("${websocket.progress.send-executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ws-send-");
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        logger.info("Progress send executor: {} threads, queue {}", threads, queueCapacity);
+        return executor;
+    }
+    
     /**
      * Configure AWS S3 Client bean.
      * Uses DefaultCredentialsProvider which checks for credentials in this order:
@@ -82,29 +204,94 @@ public class AsyncConfig {
      * 2. System properties
      * 3. AWS credentials file (~/.aws/credentials)
      * 4. EC2 instance profile credentials
+     * 
+     * Setting cloud.storage.s3.endpoint (with path-style access) points the client at
+     * an S3-compatible stand-in such as MinIO or LocalStack for local testing.
+     */
+    @Bean
+    public S3Client s3Client(
+            @Value("${cloud.storage.s3.region:us-west-1}") String region,
+            @Value("${cloud.storage.s3.endpoint:}") String endpoint,
+            @Value("${cloud.storage.s3.path-style-access:false}") boolean pathStyleAccess) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyleAccess)
+                        .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Configure non-blocking AWS S3 client bean, used when cloud.storage.s3.async=true.
+     * Netty multiplexes in-flight uploads over a small event-loop group, so concurrency
+     * is bounded by max-concurrency connections rather than by upload threads.
      */
     @Bean
-    public S3Client s3Client(@Value("${cloud.storage.s3.region:us-west-1}") String region) {
-        return S3Client.builder()
+    @ConditionalOnProperty(name = "cloud.storage.s3.async", havingValue = "true")
+    public S3AsyncClient s3AsyncClient(
+            @Value("${cloud.storage.s3.region:us-west-1}") String region,
+            @Value("${cloud.storage.s3.endpoint:}") String endpoint,
+            @Value("${cloud.storage.s3.path-style-access:false}") boolean pathStyleAccess,
+            @Value("${cloud.storage.s3.async.max-concurrency:1000}") int maxConcurrency) {
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
                 .region(Region.of(region))
                 .credentialsProvider(DefaultCredentialsProvider.create())
-                .build();
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(60)))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyleAccess)
+                        .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Executor that pumps large non-spooled streams into async S3 request bodies.
+     */
+    @Bean(name = "s3StreamReaderExecutor")
+    public ThreadPoolTaskExecutor s3StreamReaderExecutor(
+            @Value("${cloud.storage.s3.async.stream-reader-threads:8}") int readerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(readerThreads);
+        executor.setMaxPoolSize(readerThreads);
+        executor.setThreadNamePrefix("s3-stream-");
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return executor;
     }
     
     /**
      * Configure AWS S3 Presigner bean for generating presigned URLs.
      */
     @Bean
-    public S3Presigner s3Presigner(@Value("${cloud.storage.s3.region:us-west-1}") String region) {
-        return S3Presigner.builder()
+    public S3Presigner s3Presigner(
+            @Value("${cloud.storage.s3.region:us-west-1}") String region,
+            @Value("${cloud.storage.s3.endpoint:}") String endpoint,
+            @Value("${cloud.storage.s3.path-style-access:false}") boolean pathStyleAccess) {
+        S3Presigner.Builder builder = S3Presigner.builder()
                 .region(Region.of(region))
                 .credentialsProvider(DefaultCredentialsProvider.create())
-                .build();
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyleAccess)
+                        .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
     }
     
     /**
      * Configure CloudStorageService bean.
-     * Uses S3PhotoStorageService for production with S3, 
+     * Uses S3PhotoStorageService for production with S3 (wrapped in the non-blocking
+     * S3AsyncPhotoStorageService when cloud.storage.s3.async=true),
      * or LocalFileStorageService for local development.
      */
     @Bean
@@ -113,14 +300,29 @@ public class AsyncConfig {
             @Value("${cloud.storage.local.directory:./uploads}") String localDirectory,
             @Value("${cloud.storage.s3.bucket-name:}") String s3BucketName,
             @Value("${cloud.storage.s3.presigned-url-expiration-minutes:60}") int presignedUrlExpiration,
+            @Value("${cloud.storage.s3.multipart.threshold-bytes:8388608}") long multipartThreshold,
+            @Value("${cloud.storage.s3.multipart.part-size-bytes:8388608}") long partSize,
+            @Value("${cloud.storage.s3.multipart.max-parallel-parts:4}") int maxParallelParts,
+            @Value("${cloud.storage.s3.async:false}") boolean s3Async,
+            @Qualifier("s3PartUploadExecutor") Executor s3PartUploadExecutor,
+            @Qualifier("s3StreamReaderExecutor") ThreadPoolTaskExecutor s3StreamReaderExecutor,
+            UploadPerformanceMonitor performanceMonitor,
             S3Client s3Client,
+            ObjectProvider<S3AsyncClient> s3AsyncClient,
             S3Presigner s3Presigner) {
         
         if ("s3".equalsIgnoreCase(storageType)) {
             if (s3BucketName == null || s3BucketName.isBlank()) {
                 throw new IllegalArgumentException("S3 bucket name must be configured when using S3 storage type");
             }
-            return new S3PhotoStorageService(s3Client, s3Presigner, s3BucketName, presignedUrlExpiration);
+            S3PhotoStorageService s3Storage = new S3PhotoStorageService(s3Client, s3Presigner, s3BucketName,
+                    presignedUrlExpiration, multipartThreshold, partSize, maxParallelParts,
+                    s3PartUploadExecutor, performanceMonitor);
+            if (s3Async) {
+                return new S3AsyncPhotoStorageService(s3AsyncClient.getObject(), s3Storage, s3BucketName,
+                        s3StreamReaderExecutor.getThreadPoolExecutor(), performanceMonitor);
+            }
+            return s3Storage;
         } else {
             // Default to local file storage for development
             return new LocalFileStorageService(localDirectory);
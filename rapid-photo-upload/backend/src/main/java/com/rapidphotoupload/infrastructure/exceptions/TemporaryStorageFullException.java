@@ -0,0 +1,19 @@
+package com.rapidphotoupload.infrastructure.exceptions;
+
+/**
+ * Exception thrown when temporary upload storage has reached its buffered-bytes ceiling.
+ */
+public class TemporaryStorageFullException extends DomainException {
+    private final int retryAfterSeconds;
+
+    public TemporaryStorageFullException(long buffered, long ceiling, int retryAfterSeconds) {
+        super("UPLOAD_BACKPRESSURE",
+            String.format("Upload buffer is full. Buffered: %d bytes, Ceiling: %d bytes. Retry after %d seconds",
+                buffered, ceiling, retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,158 +1,314 @@
 package com.rapidphotoupload.infrastructure.monitoring;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Performance monitoring for photo uploads.
  * Tracks metrics to ensure compliance with performance requirements:
  * - 100 concurrent uploads must complete within 90 seconds
  * - UI must remain responsive (no blocking)
+ *
+ * Every stage a photo passes through has a Micrometer timer publishing p50/p95/p99 and a
+ * percentile histogram, tagged with the storage backend, so the 90 seconds of a job can be
+ * broken down: upload.temp.write (buffering the request body), upload.queue.wait (claimable
+ * until a worker picks it up), upload.storage.put (the object write), upload.db.update
+ * (the transaction finishing the task), upload.photo.duration (received to completed) and
+ * upload.job.duration (job created to last photo counted). The job timer also counts jobs
+ * within the SLA. Metrics are scraped from /actuator/prometheus.
+ *
+ * Durations are measured by the callers from timestamps they already hold, so nothing is
+ * kept per in-flight photo here.
  */
 @Component
 public class UploadPerformanceMonitor {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(UploadPerformanceMonitor.class);
-    
-    // Track upload start times by photoId
-    private final ConcurrentHashMap<String, Instant> uploadStartTimes = new ConcurrentHashMap<>();
-    
-    // Track job start times by jobId
-    private final ConcurrentHashMap<String, Instant> jobStartTimes = new ConcurrentHashMap<>();
-    
-    // Metrics
+
+    static final Duration JOB_SLA = Duration.ofSeconds(90);
+
+    // Alert thresholds for a single object or part write
+    private static final Duration SLOW_PUT = Duration.ofSeconds(10);
+    private static final Duration SLOW_PART = Duration.ofSeconds(5);
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final String storage;
+
+    private final Timer queueWait;
+    private final Timer tempWrite;
+    private final Timer storagePut;
+    private final Timer storagePutFailed;
+    private final Timer partUpload;
+    private final Timer dbUpdate;
+    private final Timer photoDuration;
+    private final DistributionSummary partSize;
+    private final Counter completedUploads;
+    private final Counter failedUploads;
+    private final Counter retriedAttempts;
+    private final Counter deferredAttempts;
+    private final Counter deduplicatedUploads;
     private final AtomicInteger activeUploads = new AtomicInteger(0);
-    private final AtomicInteger completedUploads = new AtomicInteger(0);
-    private final AtomicInteger failedUploads = new AtomicInteger(0);
-    private final AtomicLong totalUploadTimeMs = new AtomicLong(0);
-    
+
+    @Autowired
+    public UploadPerformanceMonitor(
+            MeterRegistry registry,
+            @Value("${cloud.storage.type:local}") String storageType) {
+        this.registry = registry;
+        this.storage = storageType.toLowerCase(Locale.ROOT);
+
+        this.queueWait = timer("upload.queue.wait", "Time a task was claimable before a worker started it")
+            .register(registry);
+        this.tempWrite = timer("upload.temp.write", "Time to buffer an uploaded file to temporary storage")
+            .register(registry);
+        this.storagePut = timer("upload.storage.put", "Time to write a photo object to storage")
+            .tag("outcome", "success")
+            .register(registry);
+        this.storagePutFailed = timer("upload.storage.put", "Time to write a photo object to storage")
+            .tag("outcome", "failure")
+            .register(registry);
+        this.partUpload = timer("upload.storage.part", "Time to write a single object part (or single-shot PUT)")
+            .register(registry);
+        this.dbUpdate = timer("upload.db.update", "Time of the transaction finishing an upload task")
+            .register(registry);
+        this.photoDuration = timer("upload.photo.duration", "Time from receiving a photo to it being stored")
+            .register(registry);
+        this.partSize = DistributionSummary.builder("upload.storage.part.size")
+            .description("Bytes written per object part")
+            .baseUnit("bytes")
+            .tag("storage", storage)
+            .register(registry);
+        this.completedUploads = counter("upload.photos.completed", "Photos stored, including deduplicated ones");
+        this.failedUploads = counter("upload.photos.failed", "Photos whose upload failed for good");
+        this.retriedAttempts = counter("upload.attempts.retried", "Failed attempts rescheduled with backoff");
+        this.deferredAttempts = counter("upload.attempts.deferred",
+            "Claimed tasks handed back untried while their storage circuit was open");
+        this.deduplicatedUploads = counter("upload.photos.deduplicated", "Photos that reused an existing object");
+        Gauge.builder("upload.active", activeUploads, AtomicInteger::get)
+            .description("Uploads currently being processed")
+            .tag("storage", storage)
+            .register(registry);
+    }
+
     /**
-     * Record the start of a photo upload.
+     * Record a worker starting on a photo upload.
+     * @param claimableSince When the task became claimable, or null if unknown
      */
-    public void recordUploadStart(String photoId, String jobId) {
-        Instant now = Instant.now();
-        uploadStartTimes.put(photoId, now);
+    public void recordUploadStart(String photoId, String jobId, Instant claimableSince) {
         activeUploads.incrementAndGet();
-        
-        // Record job start time if not already tracked
-        if (jobId != null) {
-            jobStartTimes.putIfAbsent(jobId, now);
+        if (claimableSince != null) {
+            queueWait.record(nonNegative(Duration.between(claimableSince, Instant.now())));
         }
-        
-        logger.debug("Upload started - PhotoId: {}, JobId: {}, Active uploads: {}", 
+
+        logger.debug("Upload started - PhotoId: {}, JobId: {}, Active uploads: {}",
             photoId, jobId, activeUploads.get());
     }
-    
+
     /**
-     * Record the completion of a photo upload.
+     * Record a worker being done with a photo upload, whatever the outcome.
      */
-    public void recordUploadComplete(String photoId) {
-        Instant startTime = uploadStartTimes.remove(photoId);
-        if (startTime == null) {
-            logger.warn("Upload completion recorded without start time: {}", photoId);
-            return;
-        }
-        
-        Duration duration = Duration.between(startTime, Instant.now());
-        long durationMs = duration.toMillis();
-        
+    public void recordUploadFinished() {
         activeUploads.decrementAndGet();
-        completedUploads.incrementAndGet();
-        totalUploadTimeMs.addAndGet(durationMs);
-        
-        logger.info("Upload completed - PhotoId: {}, Duration: {}ms, Active: {}, Completed: {}", 
-            photoId, durationMs, activeUploads.get(), completedUploads.get());
-        
+    }
+
+    /**
+     * Record an uploaded file being buffered to temporary storage.
+     */
+    public void recordTempWrite(long bytes, Duration duration) {
+        tempWrite.record(duration);
+        logger.debug("Buffered {} bytes in {}ms", bytes, duration.toMillis());
+    }
+
+    /**
+     * Record a photo object write to storage, single-shot or multipart.
+     */
+    public void recordStoragePut(String storageKey, long bytes, Duration duration, boolean succeeded) {
+        (succeeded ? storagePut : storagePutFailed).record(duration);
+
         // Alert if upload took longer than expected (>10 seconds for 2MB file)
-        if (durationMs > 10_000) {
-            logger.warn("SLOW UPLOAD DETECTED - PhotoId: {}, Duration: {}ms", photoId, durationMs);
+        if (succeeded && duration.compareTo(SLOW_PUT) > 0) {
+            logger.warn("SLOW UPLOAD DETECTED - Key: {}, Bytes: {}, Duration: {}ms",
+                storageKey, bytes, duration.toMillis());
         }
     }
-    
+
+    /**
+     * Record the transaction that finished an upload task.
+     */
+    public void recordDbUpdate(Duration duration) {
+        dbUpdate.record(duration);
+    }
+
+    /**
+     * Record the completion of a photo upload.
+     * @param receivedAt When the photo was received by the upload endpoint
+     */
+    public void recordUploadComplete(String photoId, Instant receivedAt) {
+        completedUploads.increment();
+        Duration duration = nonNegative(Duration.between(receivedAt, Instant.now()));
+        photoDuration.record(duration);
+
+        logger.info("Upload completed - PhotoId: {}, Duration: {}ms, Active: {}, Completed: {}",
+            photoId, duration.toMillis(), activeUploads.get(), getCompletedUploadCount());
+    }
+
     /**
-     * Record the failure of a photo upload.
+     * Record a photo whose upload failed for good (attempts exhausted or bytes lost).
      */
     public void recordUploadFailed(String photoId, String errorMessage) {
-        uploadStartTimes.remove(photoId);
-        activeUploads.decrementAndGet();
-        failedUploads.incrementAndGet();
-        
-        logger.error("Upload failed - PhotoId: {}, Error: {}, Active: {}, Failed: {}", 
-            photoId, errorMessage, activeUploads.get(), failedUploads.get());
+        failedUploads.increment();
+
+        logger.error("Upload failed - PhotoId: {}, Error: {}, Active: {}, Failed: {}",
+            photoId, errorMessage, activeUploads.get(), getFailedUploadCount());
     }
-    
+
     /**
-     * Record the completion of an entire upload job.
+     * Record a failed attempt that was rescheduled; the queue logs the attempt and backoff.
+     */
+    public void recordUploadRetried(String photoId, int attempt, String errorMessage) {
+        retriedAttempts.increment();
+        logger.debug("Upload retried - PhotoId: {}, Attempt: {}, Error: {}", photoId, attempt, errorMessage);
+    }
+
+    /**
+     * Record a claimed task handed back without an attempt because its storage backend
+     * was unavailable.
      */
-    public void recordJobComplete(String jobId, int totalPhotos) {
-        Instant startTime = jobStartTimes.remove(jobId);
-        if (startTime == null) {
-            logger.warn("Job completion recorded without start time: {}", jobId);
-            return;
+    public void recordUploadDeferred(String photoId, Duration delay) {
+        deferredAttempts.increment();
+        logger.debug("Upload deferred - PhotoId: {}, Delay: {}ms", photoId, delay.toMillis());
+    }
+
+    /**
+     * Record an upload that reused an existing stored object instead of writing to storage.
+     * The upload itself is still recorded as completed via recordUploadComplete.
+     */
+    public void recordUploadDeduplicated(String photoId, String storageKey) {
+        deduplicatedUploads.increment();
+        logger.debug("Upload deduplicated - PhotoId: {}, Reused key: {}", photoId, storageKey);
+    }
+
+    /**
+     * Record a single object part (or single-shot PUT) reaching storage.
+     */
+    public void recordPartUploaded(String storageKey, int partNumber, long bytes, long durationMs) {
+        partUpload.record(durationMs, TimeUnit.MILLISECONDS);
+        partSize.record(bytes);
+
+        logger.debug("Part uploaded - Key: {}, Part: {}, Bytes: {}, Duration: {}ms",
+            storageKey, partNumber, bytes, durationMs);
+
+        // Alert if a single part took longer than expected (>5 seconds)
+        if (durationMs > SLOW_PART.toMillis()) {
+            logger.warn("SLOW PART UPLOAD DETECTED - Key: {}, Part: {}, Bytes: {}, Duration: {}ms",
+                storageKey, partNumber, bytes, durationMs);
         }
-        
-        Duration duration = Duration.between(startTime, Instant.now());
+    }
+
+    /**
+     * Record the completion of an entire upload job.
+     * @param createdAt When the job was created
+     * @param status Final job status
+     */
+    public void recordJobComplete(String jobId, int totalPhotos, Instant createdAt, String status) {
+        Duration duration = nonNegative(Duration.between(createdAt, Instant.now()));
+        jobTimer(status).record(duration);
         long durationSeconds = duration.getSeconds();
-        
-        logger.info("Job completed - JobId: {}, Photos: {}, Duration: {}s", 
+
+        logger.info("Job completed - JobId: {}, Photos: {}, Duration: {}s",
             jobId, totalPhotos, durationSeconds);
-        
+
         // CRITICAL: Alert if job took longer than 90 seconds
-        if (durationSeconds > 90) {
-            logger.error("PERFORMANCE REQUIREMENT VIOLATED - JobId: {}, Duration: {}s (> 90s threshold)", 
+        if (duration.compareTo(JOB_SLA) > 0) {
+            logger.error("PERFORMANCE REQUIREMENT VIOLATED - JobId: {}, Duration: {}s (> 90s threshold)",
                 jobId, durationSeconds);
         } else if (totalPhotos >= 100) {
-            logger.info("PERFORMANCE REQUIREMENT MET - 100 photos uploaded in {}s (< 90s threshold)", 
+            logger.info("PERFORMANCE REQUIREMENT MET - 100 photos uploaded in {}s (< 90s threshold)",
                 durationSeconds);
         }
     }
-    
+
     /**
      * Get current active upload count.
      */
     public int getActiveUploadCount() {
         return activeUploads.get();
     }
-    
+
     /**
      * Get total completed upload count.
      */
-    public int getCompletedUploadCount() {
-        return completedUploads.get();
+    public long getCompletedUploadCount() {
+        return (long) completedUploads.count();
+    }
+
+    /**
+     * Get number of photos whose upload failed for good.
+     */
+    public long getFailedUploadCount() {
+        return (long) failedUploads.count();
+    }
+
+    /**
+     * Get number of failed attempts that were rescheduled.
+     */
+    public long getRetriedAttemptCount() {
+        return (long) retriedAttempts.count();
     }
-    
+
     /**
-     * Get total failed upload count.
+     * Get number of claimed tasks deferred while their storage circuit was open.
      */
-    public int getFailedUploadCount() {
-        return failedUploads.get();
+    public long getDeferredAttemptCount() {
+        return (long) deferredAttempts.count();
     }
-    
+
     /**
-     * Get average upload time in milliseconds.
+     * Get number of uploads served by reusing an existing stored object.
      */
-    public long getAverageUploadTimeMs() {
-        int completed = completedUploads.get();
-        if (completed == 0) return 0;
-        return totalUploadTimeMs.get() / completed;
+    public long getDeduplicatedUploadCount() {
+        return (long) deduplicatedUploads.count();
     }
-    
+
+    /**
+     * Get total uploaded part count.
+     */
+    public long getUploadedPartCount() {
+        return partSize.count();
+    }
+
+    /**
+     * Get total bytes sent in uploaded parts.
+     */
+    public long getUploadedPartBytes() {
+        return (long) partSize.totalAmount();
+    }
+
     /**
      * Get upload success rate as percentage.
      */
     public double getSuccessRate() {
-        int total = completedUploads.get() + failedUploads.get();
+        long completed = getCompletedUploadCount();
+        long total = completed + getFailedUploadCount();
         if (total == 0) return 100.0;
-        return (completedUploads.get() * 100.0) / total;
+        return (completed * 100.0) / total;
     }
-    
+
     /**
      * Log current performance metrics.
      */
@@ -161,22 +317,48 @@ public class UploadPerformanceMonitor {
         logger.info("Active uploads: {}", getActiveUploadCount());
         logger.info("Completed uploads: {}", getCompletedUploadCount());
         logger.info("Failed uploads: {}", getFailedUploadCount());
-        logger.info("Average upload time: {}ms", getAverageUploadTimeMs());
-        logger.info("Success rate: {:.2f}%", getSuccessRate());
+        logger.info("Retried attempts: {}, deferred attempts: {}", getRetriedAttemptCount(), getDeferredAttemptCount());
+        logger.info("Deduplicated uploads: {}", getDeduplicatedUploadCount());
+        logger.info("Queue wait: avg {}ms, max {}ms", mean(queueWait), max(queueWait));
+        logger.info("Storage PUT: avg {}ms, max {}ms", mean(storagePut), max(storagePut));
+        logger.info("Photo duration: avg {}ms, max {}ms", mean(photoDuration), max(photoDuration));
+        logger.info("Uploaded parts: {} (avg {}ms)", getUploadedPartCount(), mean(partUpload));
+        logger.info("Success rate: {}%", String.format(Locale.ROOT, "%.2f", getSuccessRate()));
         logger.info("==================================");
     }
-    
-    /**
-     * Reset all metrics (useful for testing).
-     */
-    public void reset() {
-        uploadStartTimes.clear();
-        jobStartTimes.clear();
-        activeUploads.set(0);
-        completedUploads.set(0);
-        failedUploads.set(0);
-        totalUploadTimeMs.set(0);
-        logger.info("Performance metrics reset");
+
+    private Timer jobTimer(String status) {
+        // Registry returns the existing timer for a known status
+        return timer("upload.job.duration", "Time from creating a job to its last photo outcome")
+            .tag("status", status)
+            .serviceLevelObjectives(JOB_SLA)
+            .register(registry);
+    }
+
+    private Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .tag("storage", storage)
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram();
     }
-}
 
+    private Counter counter(String name, String description) {
+        return Counter.builder(name)
+            .description(description)
+            .tag("storage", storage)
+            .register(registry);
+    }
+
+    private static long mean(Timer timer) {
+        return (long) timer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    private static long max(Timer timer) {
+        return (long) timer.max(TimeUnit.MILLISECONDS);
+    }
+
+    private static Duration nonNegative(Duration duration) {
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+}
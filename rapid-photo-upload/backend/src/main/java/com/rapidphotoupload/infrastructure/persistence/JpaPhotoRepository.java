@@ -6,10 +6,13 @@ import com.rapidphotoupload.domain.repositories.PhotoRepository;
 import com.rapidphotoupload.domain.valueobjects.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -20,20 +23,44 @@ public class JpaPhotoRepository implements PhotoRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(JpaPhotoRepository.class);
     
+    // The status check is the guard: concurrent retries of a photo can't both reset it
+    private static final String RESET_FAILED_FOR_RETRY_SQL = """
+        UPDATE photos
+        SET status = 'QUEUED'
+        WHERE id = ANY(?::UUID[]) AND status = 'FAILED'
+        RETURNING id
+        """;
+    
     private final PhotoJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
     
-    public JpaPhotoRepository(PhotoJpaRepository jpaRepository) {
+    public JpaPhotoRepository(PhotoJpaRepository jpaRepository, JdbcTemplate jdbcTemplate) {
         this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
     
     @Override
     public void save(Photo photo) {
         logger.debug("Saving photo: {}", photo.getId().getValue());
         PhotoEntity entity = toEntity(photo);
-        jpaRepository.save(entity);
+        // Flush so rows written over plain JDBC in the same transaction can reference the photo
+        jpaRepository.saveAndFlush(entity);
         logger.debug("Photo saved successfully: {}", photo.getId().getValue());
     }
     
+    @Override
+    public void insertAll(List<Photo> photos) {
+        logger.debug("Inserting {} photos", photos.size());
+        List<PhotoEntity> entities = photos.stream()
+            .map(this::toEntity)
+            .peek(PhotoEntity::markNew)
+            .collect(Collectors.toList());
+        // Flush so rows written over plain JDBC in the same transaction (tags, upload tasks)
+        // can reference the photos
+        jpaRepository.saveAllAndFlush(entities);
+        logger.debug("Inserted {} photos", entities.size());
+    }
+    
     @Override
     public Optional<Photo> findById(PhotoId photoId) {
         logger.debug("Finding photo by ID: {}", photoId.getValue());
@@ -59,6 +86,36 @@ public class JpaPhotoRepository implements PhotoRepository {
             .collect(Collectors.toList());
     }
     
+    @Override
+    public List<Photo> findByJobIdAndStatus(JobId jobId, UploadStatus status) {
+        logger.debug("Finding photos by job ID: {} and status: {}", jobId.getValue(), status);
+        return jpaRepository.findByJobIdAndStatus(jobId.getValue(), status.name())
+            .stream()
+            .map(this::toDomain)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Optional<Photo> findCompletedByUserIdAndFileHash(UserId userId, String fileHash) {
+        logger.debug("Finding completed photo by user ID: {} and file hash: {}", userId.getValue(), fileHash);
+        return jpaRepository.findFirstByUserIdAndFileHashAndStatusAndStorageKeyIsNotNull(
+                userId.getValue(), fileHash, UploadStatus.COMPLETED.name())
+            .map(this::toDomain);
+    }
+    
+    @Override
+    public List<PhotoId> resetFailedForRetry(Collection<PhotoId> photoIds) {
+        if (photoIds.isEmpty()) {
+            return List.of();
+        }
+        Object[] ids = photoIds.stream().map(PhotoId::getValue).toArray();
+        List<PhotoId> reset = jdbcTemplate.query(RESET_FAILED_FOR_RETRY_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)),
+            (rs, rowNum) -> PhotoId.from(rs.getObject("id", UUID.class)));
+        logger.debug("Reset {} of {} failed photos for retry", reset.size(), ids.length);
+        return reset;
+    }
+    
     @Override
     public List<Photo> findByStatus(UploadStatus status) {
         logger.debug("Finding photos by status: {}", status);
@@ -90,6 +147,9 @@ public class JpaPhotoRepository implements PhotoRepository {
             entity.setThumbnailStorageKey(photo.getThumbnailStorageKey().getValue());
         }
         entity.setUploadedAt(photo.getUploadedAt().getValue());
+        if (photo.getJobId() != null) {
+            entity.setJobId(photo.getJobId().getValue());
+        }
         
         // Set metadata fields
         PhotoMetadata metadata = photo.getMetadata();
@@ -117,6 +177,7 @@ public class JpaPhotoRepository implements PhotoRepository {
             : null;
         UploadedAt uploadedAt = UploadedAt.from(entity.getUploadedAt());
         UploadedBy uploadedBy = UploadedBy.from(entity.getUserId());
+        JobId jobId = entity.getJobId() != null ? JobId.from(entity.getJobId()) : null;
         
         // Reconstruct metadata
         PhotoMetadata metadata = new PhotoMetadata();
@@ -140,7 +201,8 @@ public class JpaPhotoRepository implements PhotoRepository {
             thumbnailStorageKey,
             uploadedAt,
             uploadedBy,
-            metadata
+            metadata,
+            jobId
         );
     }
 }
@@ -0,0 +1,119 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import com.rapidphotoupload.domain.aggregates.Tag;
+import com.rapidphotoupload.domain.repositories.TagRepository;
+import com.rapidphotoupload.domain.valueobjects.CreatedAt;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.TagId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Infrastructure implementation of TagRepository using JPA.
+ * Tag assignment goes through JdbcTemplate so a whole batch is tagged in two statements.
+ */
+@Component
+public class JpaTagRepository implements TagRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JpaTagRepository.class);
+    
+    private static final String UPSERT_TAGS_SQL = """
+        INSERT INTO tags (name)
+        SELECT unnest(?::TEXT[])
+        ON CONFLICT (name) DO NOTHING
+        """;
+    
+    private static final String ASSIGN_TAGS_SQL = """
+        INSERT INTO photo_tags (photo_id, tag_id)
+        SELECT p.photo_id, t.id
+        FROM unnest(?::UUID[]) AS p(photo_id)
+        JOIN tags t ON t.name = ANY(?::TEXT[])
+        ON CONFLICT DO NOTHING
+        """;
+    
+    private final TagJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public JpaTagRepository(TagJpaRepository jpaRepository, JdbcTemplate jdbcTemplate) {
+        this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void save(Tag tag) {
+        logger.debug("Saving tag: {}", tag.getName());
+        jpaRepository.save(toEntity(tag));
+    }
+    
+    @Override
+    public Optional<Tag> findById(TagId tagId) {
+        return jpaRepository.findById(tagId.getValue())
+            .map(this::toDomain);
+    }
+    
+    @Override
+    public Optional<Tag> findByName(String name) {
+        return jpaRepository.findByName(Tag.normalizeName(name))
+            .map(this::toDomain);
+    }
+    
+    @Override
+    public List<Tag> findByPhotoId(PhotoId photoId) {
+        return jpaRepository.findByPhotoId(photoId.getValue())
+            .stream()
+            .map(this::toDomain)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public void tagPhotos(Collection<PhotoId> photoIds, Set<String> names) {
+        if (photoIds.isEmpty() || names.isEmpty()) {
+            return;
+        }
+        // Sorted so concurrent batches insert shared tags in the same order and can't deadlock
+        String[] tagNames = names.stream().sorted().toArray(String[]::new);
+        Object[] ids = photoIds.stream().map(PhotoId::getValue).toArray();
+        
+        jdbcTemplate.update(UPSERT_TAGS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", tagNames)));
+        int assigned = jdbcTemplate.update(ASSIGN_TAGS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", tagNames));
+        });
+        logger.debug("Assigned {} tags to {} photos ({} links)", tagNames.length, photoIds.size(), assigned);
+    }
+    
+    @Override
+    public boolean existsByName(String name) {
+        return jpaRepository.existsByName(Tag.normalizeName(name));
+    }
+    
+    @Override
+    public void delete(TagId tagId) {
+        logger.debug("Deleting tag: {}", tagId.getValue());
+        jpaRepository.deleteById(tagId.getValue());
+    }
+    
+    private TagEntity toEntity(Tag tag) {
+        TagEntity entity = new TagEntity();
+        entity.setId(tag.getId().getValue());
+        entity.setName(tag.getName());
+        entity.setCreatedAt(tag.getCreatedAt().getValue());
+        return entity;
+    }
+    
+    private Tag toDomain(TagEntity entity) {
+        return Tag.reconstruct(
+            TagId.from(entity.getId()),
+            entity.getName(),
+            CreatedAt.from(entity.getCreatedAt())
+        );
+    }
+}
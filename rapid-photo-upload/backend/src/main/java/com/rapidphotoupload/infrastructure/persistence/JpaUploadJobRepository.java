@@ -5,10 +5,12 @@ import com.rapidphotoupload.domain.repositories.UploadJobRepository;
 import com.rapidphotoupload.domain.valueobjects.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -19,10 +21,48 @@ public class JpaUploadJobRepository implements UploadJobRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(JpaUploadJobRepository.class);
     
+    /**
+     * Single-statement increment: the row lock serializes concurrent updates, SET
+     * expressions see the pre-update row and RETURNING the post-update one. The WHERE
+     * guard stops counting once every photo is accounted for.
+     */
+    private static final String RECORD_PHOTO_OUTCOME_SQL = """
+        UPDATE upload_jobs
+        SET completed_photos = completed_photos + ?,
+            failed_photos = failed_photos + ?,
+            status = CASE
+                WHEN completed_photos + failed_photos + 1 < total_photos THEN 'IN_PROGRESS'
+                WHEN failed_photos + ? = 0 THEN 'COMPLETED'
+                WHEN completed_photos + ? = 0 THEN 'FAILED'
+                ELSE 'PARTIALLY_FAILED'
+            END,
+            completed_at = CASE
+                WHEN completed_photos + failed_photos + 1 >= total_photos THEN CURRENT_TIMESTAMP
+                ELSE completed_at
+            END
+        WHERE id = ? AND completed_photos + failed_photos < total_photos
+        RETURNING user_id, completed_photos, failed_photos, total_photos, status
+        """;
+    
+    private static final String REOPEN_FAILED_PHOTOS_SQL = """
+        UPDATE upload_jobs
+        SET failed_photos = failed_photos - ?,
+            status = 'IN_PROGRESS',
+            completed_at = NULL
+        WHERE id = ? AND failed_photos >= ?
+        """;
+    
     private final UploadJobJpaRepository jpaRepository;
+    private final PhotoJpaRepository photoJpaRepository;
+    private final JdbcTemplate jdbcTemplate;
     
-    public JpaUploadJobRepository(UploadJobJpaRepository jpaRepository) {
+    public JpaUploadJobRepository(
+            UploadJobJpaRepository jpaRepository,
+            PhotoJpaRepository photoJpaRepository,
+            JdbcTemplate jdbcTemplate) {
         this.jpaRepository = jpaRepository;
+        this.photoJpaRepository = photoJpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
     
     @Override
@@ -69,6 +109,33 @@ public class JpaUploadJobRepository implements UploadJobRepository {
             .collect(Collectors.toList());
     }
     
+    @Override
+    public Optional<JobProgress> recordPhotoOutcome(JobId jobId, boolean succeeded) {
+        int completedDelta = succeeded ? 1 : 0;
+        int failedDelta = succeeded ? 0 : 1;
+        List<JobProgress> rows = jdbcTemplate.query(
+            RECORD_PHOTO_OUTCOME_SQL,
+            (rs, rowNum) -> new JobProgress(
+                jobId,
+                UserId.from(rs.getObject("user_id", UUID.class)),
+                rs.getInt("completed_photos"),
+                rs.getInt("failed_photos"),
+                rs.getInt("total_photos"),
+                JobStatus.valueOf(rs.getString("status"))
+            ),
+            completedDelta, failedDelta, failedDelta, completedDelta, jobId.getValue());
+        if (rows.isEmpty()) {
+            logger.warn("Photo outcome not recorded for job {}: job missing or already complete", jobId.getValue());
+            return Optional.empty();
+        }
+        return Optional.of(rows.get(0));
+    }
+    
+    @Override
+    public boolean reopenFailedPhotos(JobId jobId, int count) {
+        return jdbcTemplate.update(REOPEN_FAILED_PHOTOS_SQL, count, jobId.getValue(), count) > 0;
+    }
+    
     @Override
     public void delete(JobId jobId) {
         logger.debug("Deleting upload job: {}", jobId.getValue());
@@ -105,10 +172,11 @@ public class JpaUploadJobRepository implements UploadJobRepository {
             ? CompletedAt.from(entity.getCompletedAt()) 
             : CompletedAt.empty();
         
-        // Note: Photos list is not persisted in the current schema
-        // This will be empty when reconstructing from database
-        // TODO: Add photos persistence (JSON column or separate table)
-        List<PhotoId> photos = List.of();
+        // Job membership is stored as photos.job_id
+        List<PhotoId> photos = photoJpaRepository.findIdsByJobId(entity.getId())
+            .stream()
+            .map(PhotoId::from)
+            .collect(Collectors.toList());
         
         return UploadJob.reconstruct(
             jobId,
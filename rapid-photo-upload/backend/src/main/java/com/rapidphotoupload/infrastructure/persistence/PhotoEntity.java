@@ -1,16 +1,20 @@
 package com.rapidphotoupload.infrastructure.persistence;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 import java.util.UUID;
 
 /**
  * JPA entity for Photo aggregate.
  * Maps to the photos table in the database.
+ * Implements Persistable so newly created photos are inserted directly instead of
+ * merged (which would SELECT each assigned UUID first and defeat JDBC batching).
  */
 @Entity
 @Table(name = "photos")
-public class PhotoEntity {
+public class PhotoEntity implements Persistable<UUID> {
     @Id
     @Column(name = "id", columnDefinition = "UUID")
     private UUID id;
@@ -48,11 +52,36 @@ public class PhotoEntity {
     @Column(name = "file_hash", length = 64)
     private String fileHash;
 
+    @Column(name = "job_id", columnDefinition = "UUID")
+    private UUID jobId;
+
+    @Transient
+    private boolean isNew;
+
     // Default constructor for JPA
     public PhotoEntity() {
     }
 
+    /**
+     * Mark this entity as not yet persisted so save() inserts without a prior SELECT.
+     */
+    public void markNew() {
+        this.isNew = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     // Getters and setters
+    @Override
     public UUID getId() {
         return id;
     }
@@ -148,5 +177,12 @@ public class PhotoEntity {
     public void setFileHash(String fileHash) {
         this.fileHash = fileHash;
     }
-}
 
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+}
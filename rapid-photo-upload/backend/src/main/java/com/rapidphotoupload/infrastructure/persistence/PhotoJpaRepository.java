@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -19,7 +20,16 @@ public interface PhotoJpaRepository extends JpaRepository<PhotoEntity, UUID> {
     @Query("SELECT p FROM PhotoEntity p WHERE p.userId = :userId AND p.status = :status ORDER BY p.uploadedAt DESC")
     List<PhotoEntity> findByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") String status);
     
+    @Query("SELECT p FROM PhotoEntity p WHERE p.jobId = :jobId AND p.status = :status")
+    List<PhotoEntity> findByJobIdAndStatus(@Param("jobId") UUID jobId, @Param("status") String status);
+    
+    Optional<PhotoEntity> findFirstByUserIdAndFileHashAndStatusAndStorageKeyIsNotNull(
+        UUID userId, String fileHash, String status);
+    
     @Query("SELECT p FROM PhotoEntity p WHERE p.status = :status ORDER BY p.uploadedAt DESC")
     List<PhotoEntity> findByStatus(@Param("status") String status);
+    
+    @Query("SELECT p.id FROM PhotoEntity p WHERE p.jobId = :jobId")
+    List<UUID> findIdsByJobId(@Param("jobId") UUID jobId);
 }
 
@@ -0,0 +1,39 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Read access to photo_list_versions, the per-user change counter of the photos table.
+ * The counter is maintained by database triggers (see V15), so reading it is a single
+ * primary-key lookup that never touches photo rows.
+ */
+@Component
+public class PhotoListVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PhotoListVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Current version of a user's photos, or empty if the user has never had any.
+     */
+    public Optional<PhotoListVersion> find(UserId userId) {
+        return jdbcTemplate.query(
+            "SELECT version, updated_at FROM photo_list_versions WHERE user_id = ?",
+            (rs, rowNum) -> new PhotoListVersion(rs.getLong("version"), rs.getTimestamp("updated_at").toInstant()),
+            userId.getValue()
+        ).stream().findFirst();
+    }
+
+    /**
+     * Change counter of a user's photos and the time of the last change.
+     */
+    public record PhotoListVersion(long version, Instant updatedAt) {}
+}
@@ -0,0 +1,226 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoCursor;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read-side queries against the live photos table.
+ * Unlike PhotoViewRepository this sees writes immediately, so clients can fetch photos
+ * they have just uploaded. Rows are mapped straight into PhotoDTO, skipping PhotoEntity
+ * and Photo aggregate reconstruction; a listed photo costs one DTO instead of an entity,
+ * an aggregate with its value objects and metadata.
+ */
+@Component
+public class PhotoLookupRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoLookupRepository.class);
+
+    // Same columns as photo_view, with tags aggregated per photo
+    private static final String SELECT_COLUMNS = """
+        SELECT p.id AS photo_id, p.user_id, p.filename, p.file_size, p.content_type, p.status,
+               p.storage_key, p.thumbnail_storage_key, p.uploaded_at, p.width, p.height, p.file_hash,
+               ARRAY(SELECT t.name FROM photo_tags pt JOIN tags t ON t.id = pt.tag_id
+                     WHERE pt.photo_id = p.id) AS tags
+        FROM photos p
+        """;
+
+    // Ownership is part of the predicate, so other users' photos are never read
+    private static final String FIND_BY_IDS_SQL = SELECT_COLUMNS + "WHERE p.id = ANY(?::UUID[]) AND p.user_id = ?";
+
+    private static final String FIND_BY_ID_SQL = SELECT_COLUMNS + "WHERE p.id = ? AND p.user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PhotoLookupRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Find one of the user's photos.
+     * @return empty if the photo doesn't exist or belongs to another user
+     */
+    public Optional<PhotoDTO> findById(PhotoId photoId, UserId userId) {
+        return jdbcTemplate.query(FIND_BY_ID_SQL, PhotoViewRepository.PHOTO_ROW_MAPPER,
+            photoId.getValue(), userId.getValue()).stream().findFirst();
+    }
+
+    /**
+     * Find the user's photos among the given IDs, with their tags, in one query.
+     * IDs that don't exist or belong to another user are omitted; order is unspecified.
+     */
+    public List<PhotoDTO> findByIds(Collection<PhotoId> photoIds, UserId userId) {
+        if (photoIds.isEmpty()) {
+            return List.of();
+        }
+        Object[] ids = photoIds.stream().map(PhotoId::getValue).toArray();
+        List<PhotoDTO> photos = jdbcTemplate.query(FIND_BY_IDS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setObject(2, userId.getValue());
+        }, PhotoViewRepository.PHOTO_ROW_MAPPER);
+        logger.debug("Found {} of {} requested photos for user: {}", photos.size(), ids.length, userId.getValue());
+        return photos;
+    }
+
+    /**
+     * Find one page of a user's photos ordered by (uploadedAt, photoId).
+     * The keyset comparison is served directly by idx_photos_user_uploaded_at_id.
+     * @param status Optional status filter, null for all photos
+     * @param after Cursor of the last photo on the previous page; when null, offset is applied instead
+     * @param offset Rows to skip when no cursor is given; cost grows with the offset
+     * @param ascending Oldest first instead of newest first
+     */
+    public List<PhotoDTO> findPage(UserId userId, UploadStatus status, PhotoCursor after, int offset, int limit,
+                                   boolean ascending) {
+        logger.debug("Finding photo page for user: {} (status: {}, after: {}, offset: {}, limit: {})",
+            userId.getValue(), status, after, offset, limit);
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(where(userId, status, args));
+        if (after != null) {
+            sql.append(ascending ? " AND (p.uploaded_at, p.id) > (?, ?)" : " AND (p.uploaded_at, p.id) < (?, ?)");
+            args.add(Timestamp.from(after.getUploadedAt()));
+            args.add(after.getPhotoId());
+        }
+        sql.append(ascending
+            ? " ORDER BY p.uploaded_at ASC, p.id ASC"
+            : " ORDER BY p.uploaded_at DESC, p.id DESC");
+        sql.append(" LIMIT ?");
+        args.add(limit);
+        if (after == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            args.add(offset);
+        }
+        return jdbcTemplate.query(sql.toString(), PhotoViewRepository.PHOTO_ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Pass every photo of a user, newest first, to the consumer without loading them all.
+     * Rows are read through a server-side cursor fetchSize rows at a time; PostgreSQL only
+     * uses a cursor with autocommit off, so this runs in its own read-only transaction and
+     * holds a connection until the consumer has seen the last row.
+     * @return number of photos passed to the consumer
+     */
+    public long forEachByUserId(UserId userId, int fetchSize, Consumer<PhotoDTO> consumer) {
+        long count = forEach(SELECT_COLUMNS + "WHERE p.user_id = ? ORDER BY p.uploaded_at DESC, p.id DESC",
+            fetchSize, consumer, userId.getValue());
+        logger.debug("Streamed {} photos for user: {}", count, userId.getValue());
+        return count;
+    }
+
+    /**
+     * Pass the user's completed photos of one upload job, oldest first, to the consumer.
+     * Unlike {@link #forEachByUserId} no cursor is held: rows are read in keyset pages of
+     * pageSize on (uploadedAt, photoId), each page its own short statement, and the consumer
+     * only sees a page once its connection is back in the pool. Served by idx_photos_job_id.
+     * @return number of photos passed to the consumer
+     */
+    public long forEachCompletedByJobId(UserId userId, JobId jobId, int pageSize, Consumer<PhotoDTO> consumer) {
+        long count = forEachPage("WHERE p.job_id = ? AND p.user_id = ? AND p.status = ?",
+            pageSize, consumer, jobId.getValue(), userId.getValue(), UploadStatus.COMPLETED.name());
+        logger.debug("Streamed {} completed photos of job: {}", count, jobId.getValue());
+        return count;
+    }
+
+    /**
+     * Pass the user's completed photos carrying a tag, oldest first, to the consumer.
+     * Paged like {@link #forEachCompletedByJobId}. Reads photo_tags directly rather than
+     * photo_view, so just-tagged photos are included.
+     * @param tag Normalized tag name
+     * @return number of photos passed to the consumer
+     */
+    public long forEachCompletedByTag(UserId userId, String tag, int pageSize, Consumer<PhotoDTO> consumer) {
+        long count = forEachPage("""
+                WHERE p.user_id = ? AND p.status = ?
+                  AND EXISTS (SELECT 1 FROM photo_tags pt JOIN tags t ON t.id = pt.tag_id
+                              WHERE pt.photo_id = p.id AND t.name = ?)""",
+            pageSize, consumer, userId.getValue(), UploadStatus.COMPLETED.name(), tag);
+        logger.debug("Streamed {} completed photos tagged '{}' for user: {}", count, tag, userId.getValue());
+        return count;
+    }
+
+    // Oldest first; each page resumes after the last row of the previous one, so a slow
+    // consumer never pins a connection or a snapshot
+    private long forEachPage(String where, int pageSize, Consumer<PhotoDTO> consumer, Object... args) {
+        String firstPage = SELECT_COLUMNS + where + " ORDER BY p.uploaded_at ASC, p.id ASC LIMIT ?";
+        String nextPage = SELECT_COLUMNS + where
+            + " AND (p.uploaded_at, p.id) > (?, ?) ORDER BY p.uploaded_at ASC, p.id ASC LIMIT ?";
+        long count = 0;
+        PhotoDTO last = null;
+        while (true) {
+            List<Object> pageArgs = new ArrayList<>(List.of(args));
+            if (last != null) {
+                pageArgs.add(Timestamp.from(last.uploadedAt()));
+                pageArgs.add(last.photoId().getValue());
+            }
+            pageArgs.add(pageSize);
+            List<PhotoDTO> page = jdbcTemplate.query(last == null ? firstPage : nextPage,
+                PhotoViewRepository.PHOTO_ROW_MAPPER, pageArgs.toArray());
+            page.forEach(consumer);
+            count += page.size();
+            if (page.size() < pageSize) {
+                return count;
+            }
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    // PostgreSQL only reads through a cursor with autocommit off, hence the transaction
+    private long forEach(String sql, int fetchSize, Consumer<PhotoDTO> consumer, Object... args) {
+        return readOnlyTransaction.execute(status -> {
+            long[] count = {0};
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setObject(i + 1, args[i]);
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                consumer.accept(PhotoViewRepository.PHOTO_ROW_MAPPER.mapRow(rs, (int) count[0]));
+                count[0]++;
+            });
+            return count[0];
+        });
+    }
+
+    /**
+     * Count a user's photos.
+     * @param status Optional status filter, null for all photos
+     */
+    public long count(UserId userId, UploadStatus status) {
+        List<Object> args = new ArrayList<>();
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM photos p" + where(userId, status, args), Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    private static String where(UserId userId, UploadStatus status, List<Object> args) {
+        args.add(userId.getValue());
+        if (status == null) {
+            return " WHERE p.user_id = ?";
+        }
+        args.add(status.name());
+        return " WHERE p.user_id = ? AND p.status = ?";
+    }
+}
@@ -0,0 +1,136 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps the photo_view materialized view up to date.
+ *
+ * Refreshing re-runs the whole view query, so it is debounced by write volume: the number
+ * of rows written to the underlying tables is read from pg_stat_user_tables, which also
+ * counts writes made by other instances. A refresh runs once writes have gone quiet for the
+ * quiet period, once max-pending-writes have piled up, or at the latest after max-staleness
+ * during sustained writes. REFRESH ... CONCURRENTLY keeps the view readable meanwhile, and
+ * an advisory lock keeps instances from refreshing at the same time.
+ */
+@Component
+public class PhotoViewRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoViewRefresher.class);
+
+    private static final String WRITE_COUNT_SQL = """
+        SELECT COALESCE(SUM(n_tup_ins + n_tup_upd + n_tup_del), 0)
+        FROM pg_stat_user_tables
+        WHERE relname IN ('photos', 'photo_tags', 'tags')
+        """;
+
+    // Arbitrary application-wide key for pg_try_advisory_lock
+    private static final long REFRESH_LOCK_KEY = 0x70686f746f5f7669L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxPendingWrites;
+    private final Duration quietPeriod;
+    private final Duration maxStaleness;
+
+    private long refreshedAtWriteCount = -1;
+    private long lastSeenWriteCount = -1;
+    private long lastWriteSeenAtNanos;
+    private long firstPendingAtNanos;
+
+    public PhotoViewRefresher(
+            JdbcTemplate jdbcTemplate,
+            @Value("${photo-view.refresh.max-pending-writes:500}") long maxPendingWrites,
+            @Value("${photo-view.refresh.quiet-period-ms:2000}") long quietPeriodMs,
+            @Value("${photo-view.refresh.max-staleness-ms:30000}") long maxStalenessMs) {
+        if (maxPendingWrites <= 0) {
+            throw new IllegalArgumentException("Max pending writes must be greater than 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPendingWrites = maxPendingWrites;
+        this.quietPeriod = Duration.ofMillis(quietPeriodMs);
+        this.maxStaleness = Duration.ofMillis(maxStalenessMs);
+    }
+
+    /**
+     * Check the write counters and refresh the view if a refresh is due.
+     */
+    @Scheduled(fixedDelayString = "${photo-view.refresh.check-interval-ms:1000}")
+    public synchronized void refreshIfDue() {
+        try {
+            Long count = jdbcTemplate.queryForObject(WRITE_COUNT_SQL, Long.class);
+            long writeCount = count != null ? count : 0;
+            long now = System.nanoTime();
+
+            if (refreshedAtWriteCount < 0) {
+                // First check after startup: the view may be behind writes made while we were down
+                refreshedAtWriteCount = writeCount - 1;
+                firstPendingAtNanos = now;
+            } else if (writeCount < refreshedAtWriteCount) {
+                // Statistics were reset; we can no longer tell what the view has seen
+                refreshedAtWriteCount = writeCount - 1;
+            }
+            if (writeCount != lastSeenWriteCount) {
+                if (lastSeenWriteCount <= refreshedAtWriteCount) {
+                    firstPendingAtNanos = now;
+                }
+                lastSeenWriteCount = writeCount;
+                lastWriteSeenAtNanos = now;
+            }
+
+            long pendingWrites = writeCount - refreshedAtWriteCount;
+            if (pendingWrites > 0 && isRefreshDue(pendingWrites,
+                    Duration.ofNanos(now - lastWriteSeenAtNanos), Duration.ofNanos(now - firstPendingAtNanos))) {
+                if (refresh()) {
+                    refreshedAtWriteCount = writeCount;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to refresh photo_view", e);
+        }
+    }
+
+    /**
+     * Whether pending writes warrant a refresh now.
+     * @param pendingWrites Rows written since the last refresh
+     * @param sinceLastWrite Time since the write count last changed
+     * @param sinceFirstPending Time since the first write the view hasn't seen
+     */
+    boolean isRefreshDue(long pendingWrites, Duration sinceLastWrite, Duration sinceFirstPending) {
+        return pendingWrites >= maxPendingWrites
+            || sinceLastWrite.compareTo(quietPeriod) >= 0
+            || sinceFirstPending.compareTo(maxStaleness) >= 0;
+    }
+
+    private boolean refresh() {
+        // Session-level lock: taken and released on the same pooled connection
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (var lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                lock.setLong(1, REFRESH_LOCK_KEY);
+                try (var rs = lock.executeQuery()) {
+                    if (!rs.next() || !rs.getBoolean(1)) {
+                        logger.debug("photo_view refresh already running on another instance");
+                        return false;
+                    }
+                }
+            }
+            long start = System.nanoTime();
+            try (var refresh = connection.createStatement()) {
+                refresh.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY photo_view");
+            } finally {
+                try (var unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    unlock.setLong(1, REFRESH_LOCK_KEY);
+                    unlock.execute();
+                }
+            }
+            logger.debug("Refreshed photo_view in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return true;
+        }));
+    }
+}
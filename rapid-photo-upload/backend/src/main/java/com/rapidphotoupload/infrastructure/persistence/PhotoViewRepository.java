@@ -0,0 +1,131 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.application.queries.PhotoFilter;
+import com.rapidphotoupload.domain.valueobjects.PhotoCursor;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Read-side access to the photo_view materialized view.
+ * Rows carry their tags pre-aggregated, so a gallery page is a single scan of
+ * idx_photo_view_user_uploaded_at_id, or of the (user_id, tags) GIN index when filtering
+ * by tag.
+ * The view is refreshed asynchronously by PhotoViewRefresher and may lag recent writes.
+ */
+@Component
+public class PhotoViewRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoViewRepository.class);
+
+    private static final String SELECT_COLUMNS = """
+        SELECT photo_id, user_id, filename, file_size, content_type, status, storage_key,
+               thumbnail_storage_key, uploaded_at, width, height, file_hash, tags
+        FROM photo_view
+        """;
+
+    // Shared with PhotoLookupRepository, which selects the same columns from the live tables
+    static final RowMapper<PhotoDTO> PHOTO_ROW_MAPPER = (rs, rowNum) -> {
+        Array tagArray = rs.getArray("tags");
+        Set<String> tags = tagArray != null ? Set.of((String[]) tagArray.getArray()) : Set.of();
+        return new PhotoDTO(
+            PhotoId.from(rs.getObject("photo_id", UUID.class)),
+            rs.getString("filename"),
+            rs.getLong("file_size"),
+            rs.getString("content_type"),
+            UploadStatus.valueOf(rs.getString("status")),
+            rs.getString("storage_key"),
+            rs.getString("thumbnail_storage_key"),
+            rs.getTimestamp("uploaded_at").toInstant(),
+            rs.getObject("user_id", UUID.class).toString(),
+            tags,
+            (Integer) rs.getObject("width"),
+            (Integer) rs.getObject("height"),
+            rs.getString("file_hash")
+        );
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PhotoViewRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Find one page of a user's photos ordered by (uploadedAt, photoId).
+     * @param filter Tag, status and upload date criteria
+     * @param after Cursor of the last photo on the previous page; when null, offset is applied instead
+     * @param ascending Oldest first instead of newest first
+     */
+    public List<PhotoDTO> findPage(UserId userId, PhotoFilter filter, PhotoCursor after, int offset, int limit,
+                                   boolean ascending) {
+        logger.debug("Finding photo_view page for user: {} (filter: {}, after: {}, offset: {}, limit: {})",
+            userId.getValue(), filter, after, offset, limit);
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(where(userId, filter, args));
+        if (after != null) {
+            sql.append(ascending ? " AND (uploaded_at, photo_id) > (?, ?)" : " AND (uploaded_at, photo_id) < (?, ?)");
+            args.add(Timestamp.from(after.getUploadedAt()));
+            args.add(after.getPhotoId());
+        }
+        sql.append(ascending
+            ? " ORDER BY uploaded_at ASC, photo_id ASC"
+            : " ORDER BY uploaded_at DESC, photo_id DESC");
+        sql.append(" LIMIT ?");
+        args.add(limit);
+        if (after == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            args.add(offset);
+        }
+        return jdbcTemplate.query(sql.toString(), PHOTO_ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Count a user's photos matching the filter.
+     */
+    public long count(UserId userId, PhotoFilter filter) {
+        List<Object> args = new ArrayList<>();
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM photo_view" + where(userId, filter, args), Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * WHERE clause for the filter; appends its bind values to args.
+     * Tag predicates use the array operators (@> all-of, && any-of) served by idx_photo_view_user_tags.
+     */
+    private static String where(UserId userId, PhotoFilter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder(" WHERE user_id = ?");
+        args.add(userId.getValue());
+        if (!filter.tags().isEmpty()) {
+            where.append(filter.matchAllTags() ? " AND tags @> ?::TEXT[]" : " AND tags && ?::TEXT[]");
+            args.add(filter.tags().stream().sorted().toArray(String[]::new));
+        }
+        if (filter.status() != null) {
+            where.append(" AND status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.uploadedFrom() != null) {
+            where.append(" AND uploaded_at >= ?");
+            args.add(Timestamp.from(filter.uploadedFrom()));
+        }
+        if (filter.uploadedTo() != null) {
+            where.append(" AND uploaded_at < ?");
+            args.add(Timestamp.from(filter.uploadedTo()));
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Spring Data JPA repository for TagEntity.
+ */
+@Repository
+public interface TagJpaRepository extends JpaRepository<TagEntity, UUID> {
+    Optional<TagEntity> findByName(String name);
+    
+    boolean existsByName(String name);
+    
+    @Query(value = """
+        SELECT t.* FROM tags t
+        JOIN photo_tags pt ON pt.tag_id = t.id
+        WHERE pt.photo_id = :photoId
+        ORDER BY t.name
+        """, nativeQuery = true)
+    List<TagEntity> findByPhotoId(@Param("photoId") UUID photoId);
+}
@@ -0,0 +1,39 @@
+package com.rapidphotoupload.infrastructure.queue;
+
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+
+import java.time.Instant;
+
+/**
+ * A claimed entry from the upload work queue.
+ * The attempt number doubles as a fencing token: completing or rescheduling the task
+ * only succeeds while no other worker has re-claimed it since.
+ * @param photoId Photo to transfer to cloud storage
+ * @param jobId Upload job the photo belongs to, or null for single uploads
+ * @param attempts Number of times the task has been claimed, including this one
+ * @param deferrals Number of earlier claims handed back without an attempt
+ * @param claimableSince When the task became claimable (queued, backoff elapsed or claim
+ *                       expired), in local time; null if unknown
+ */
+public record UploadTask(PhotoId photoId, JobId jobId, int attempts, int deferrals, Instant claimableSince) {
+
+    public UploadTask {
+        if (photoId == null) {
+            throw new IllegalArgumentException("PhotoId cannot be null");
+        }
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Attempts must be at least 1");
+        }
+        if (deferrals < 0 || deferrals >= attempts) {
+            throw new IllegalArgumentException("Deferrals must be between 0 and attempts - 1");
+        }
+    }
+
+    /**
+     * Claims that count against the retry budget, including this one.
+     */
+    public int countedAttempts() {
+        return attempts - deferrals;
+    }
+}
@@ -0,0 +1,225 @@
+package com.rapidphotoupload.infrastructure.queue;
+
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable, Postgres-backed work queue of photos waiting to be transferred to cloud storage.
+ *
+ * Tasks are inserted in the same transaction as their photos, so a committed upload is
+ * never lost to a restart. Workers claim visible tasks with FOR UPDATE SKIP LOCKED, which
+ * lets several instances share the backlog without blocking each other. A claim hides the
+ * task for the visibility timeout; if the worker dies, the task becomes claimable again.
+ * Failed attempts are rescheduled with jittered exponential backoff until max-attempts
+ * is reached, so a burst of throttled uploads doesn't come back in lockstep.
+ */
+@Component
+public class UploadTaskQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadTaskQueue.class);
+
+    private static final String ENQUEUE_SQL = """
+        INSERT INTO upload_tasks (photo_id, job_id)
+        VALUES (?, ?)
+        ON CONFLICT (photo_id) DO NOTHING
+        """;
+
+    /**
+     * Claims up to N visible tasks: bumping attempts fences out any previous holder and
+     * pushing visible_at forward hides the task until the visibility timeout elapses.
+     * waited_ms is how long each task was claimable before this claim, measured on the
+     * database clock so it is unaffected by clock skew between instances.
+     */
+    private static final String CLAIM_SQL = """
+        UPDATE upload_tasks t
+        SET attempts = t.attempts + 1,
+            visible_at = CURRENT_TIMESTAMP + make_interval(secs => ?),
+            locked_by = ?
+        FROM (
+            SELECT photo_id, visible_at FROM upload_tasks
+            WHERE visible_at <= CURRENT_TIMESTAMP
+            ORDER BY visible_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        ) claimable
+        WHERE t.photo_id = claimable.photo_id
+        RETURNING t.photo_id, t.job_id, t.attempts, t.deferrals,
+            EXTRACT(EPOCH FROM CURRENT_TIMESTAMP - claimable.visible_at) * 1000 AS waited_ms
+        """;
+
+    private static final String COMPLETE_SQL = """
+        DELETE FROM upload_tasks WHERE photo_id = ? AND attempts = ?
+        """;
+
+    private static final String RESCHEDULE_SQL = """
+        UPDATE upload_tasks
+        SET visible_at = CURRENT_TIMESTAMP + make_interval(secs => ?),
+            locked_by = NULL,
+            last_error = ?
+        WHERE photo_id = ? AND attempts = ?
+        """;
+
+    /**
+     * Hands the claim back without counting it as an attempt. attempts is left alone so a
+     * stale holder of an earlier claim can never match the fencing token again.
+     */
+    private static final String DEFER_SQL = """
+        UPDATE upload_tasks
+        SET deferrals = deferrals + 1,
+            visible_at = CURRENT_TIMESTAMP + make_interval(secs => ?),
+            locked_by = NULL
+        WHERE photo_id = ? AND attempts = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration visibilityTimeout;
+    private final int maxAttempts;
+    private final Duration retryBaseDelay;
+    private final Duration retryMaxDelay;
+    private final String workerId;
+
+    public UploadTaskQueue(
+            JdbcTemplate jdbcTemplate,
+            @Value("${upload.queue.visibility-timeout-seconds:600}") long visibilityTimeoutSeconds,
+            @Value("${upload.queue.max-attempts:5}") int maxAttempts,
+            @Value("${upload.queue.retry-base-delay-ms:2000}") long retryBaseDelayMs,
+            @Value("${upload.queue.retry-max-delay-ms:60000}") long retryMaxDelayMs,
+            @Value("${upload.queue.worker-id:}") String workerId) {
+        if (visibilityTimeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Visibility timeout must be greater than 0");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.visibilityTimeout = Duration.ofSeconds(visibilityTimeoutSeconds);
+        this.maxAttempts = maxAttempts;
+        this.retryBaseDelay = Duration.ofMillis(retryBaseDelayMs);
+        this.retryMaxDelay = Duration.ofMillis(retryMaxDelayMs);
+        this.workerId = workerId == null || workerId.isBlank()
+            ? ManagementFactory.getRuntimeMXBean().getName()
+            : workerId;
+        logger.info("Upload task queue initialized (worker: {}, visibility timeout: {}s, max attempts: {})",
+            this.workerId, visibilityTimeoutSeconds, maxAttempts);
+    }
+
+    /**
+     * Queue photos for transfer. Call inside the transaction that inserts the photos.
+     * @param photos Photos to queue; already-queued photos are ignored
+     */
+    public void enqueueAll(Collection<Photo> photos) {
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, photos.stream()
+            .map(photo -> new Object[] {
+                photo.getId().getValue(),
+                photo.getJobId() != null ? photo.getJobId().getValue() : null
+            })
+            .toList());
+        logger.debug("Queued {} upload tasks", photos.size());
+    }
+
+    /**
+     * Claim up to {@code limit} visible tasks for this worker.
+     * @return claimed tasks, possibly empty
+     */
+    public List<UploadTask> claim(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Instant claimedAt = Instant.now();
+        return jdbcTemplate.query(
+            CLAIM_SQL,
+            (rs, rowNum) -> {
+                UUID jobId = rs.getObject("job_id", UUID.class);
+                return new UploadTask(
+                    PhotoId.from(rs.getObject("photo_id", UUID.class)),
+                    jobId != null ? JobId.from(jobId) : null,
+                    rs.getInt("attempts"),
+                    rs.getInt("deferrals"),
+                    claimedAt.minusMillis(Math.max(rs.getLong("waited_ms"), 0))
+                );
+            },
+            visibilityTimeout.toSeconds(), workerId, limit);
+    }
+
+    /**
+     * Remove a finished task (succeeded or permanently failed).
+     * @return false if the task was re-claimed by another worker in the meantime
+     */
+    public boolean complete(UploadTask task) {
+        return jdbcTemplate.update(COMPLETE_SQL, task.photoId().getValue(), task.attempts()) > 0;
+    }
+
+    /**
+     * Whether a failed attempt should be rescheduled rather than failing the photo.
+     */
+    public boolean canRetry(UploadTask task) {
+        return task.countedAttempts() < maxAttempts;
+    }
+
+    /**
+     * Release a failed task back to the queue, hidden for the backoff delay.
+     * @return false if the task was re-claimed by another worker in the meantime
+     */
+    public boolean retryLater(UploadTask task, String error) {
+        Duration delay = withJitter(backoffDelay(task.countedAttempts(), retryBaseDelay, retryMaxDelay),
+            ThreadLocalRandom.current().nextDouble());
+        boolean rescheduled = jdbcTemplate.update(RESCHEDULE_SQL,
+            delay.toMillis() / 1000.0, error, task.photoId().getValue(), task.attempts()) > 0;
+        if (rescheduled) {
+            logger.warn("Upload attempt {}/{} failed for photo {}, retrying in {} ms: {}",
+                task.countedAttempts(), maxAttempts, task.photoId().getValue(), delay.toMillis(), error);
+        }
+        return rescheduled;
+    }
+
+    /**
+     * Release a claimed task without attempting it (e.g. its storage backend is
+     * unavailable), hidden for the given delay. The claim does not count as an attempt.
+     * @return false if the task was re-claimed by another worker in the meantime
+     */
+    public boolean defer(UploadTask task, Duration delay) {
+        return jdbcTemplate.update(DEFER_SQL,
+            delay.toMillis() / 1000.0, task.photoId().getValue(), task.attempts()) > 0;
+    }
+
+    /**
+     * Whether a photo still has a pending task.
+     */
+    public boolean isPending(PhotoId photoId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM upload_tasks WHERE photo_id = ?", Integer.class, photoId.getValue());
+        return count != null && count > 0;
+    }
+
+    /**
+     * Exponential backoff: base * 2^(attempts - 1), capped at max.
+     */
+    static Duration backoffDelay(int attempts, Duration base, Duration max) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = base.multipliedBy(1L << exponent);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    /**
+     * Equal jitter: half the delay plus a random share of the other half.
+     * @param random Uniform value in [0, 1)
+     */
+    static Duration withJitter(Duration delay, double random) {
+        long half = delay.toMillis() / 2;
+        return Duration.ofMillis(half + (long) (random * (delay.toMillis() - half)));
+    }
+}
@@ -0,0 +1,168 @@
+package com.rapidphotoupload.infrastructure.queue;
+
+import com.rapidphotoupload.domain.events.PhotoUploadStarted;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.infrastructure.storage.PhotoUploadProcessor;
+import com.rapidphotoupload.infrastructure.storage.TemporaryFileStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the upload work queue into PhotoUploadProcessor.
+ *
+ * Polls on a fixed delay and is also woken by PhotoUploadStarted so fresh uploads start
+ * immediately. Only as many tasks are claimed as there are free in-flight slots, so
+ * claimed tasks never sit idle while their visibility timeout runs down and other
+ * instances can pick up the rest of the backlog.
+ */
+@Component
+public class UploadTaskWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadTaskWorker.class);
+
+    private final UploadTaskQueue uploadTaskQueue;
+    private final PhotoUploadProcessor photoUploadProcessor;
+    private final TemporaryFileStorage temporaryFileStorage;
+    private final Executor taskExecutor;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final Duration failedFileRetention;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile boolean stopped;
+
+    public UploadTaskWorker(
+            UploadTaskQueue uploadTaskQueue,
+            PhotoUploadProcessor photoUploadProcessor,
+            TemporaryFileStorage temporaryFileStorage,
+            @Qualifier("taskExecutor") Executor taskExecutor,
+            @Value("${upload.queue.max-in-flight:64}") int maxInFlight,
+            @Value("${upload.queue.batch-size:16}") int batchSize,
+            @Value("${upload.queue.failed-file-retention-minutes:60}") long failedFileRetentionMinutes) {
+        if (maxInFlight <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Max in-flight and batch size must be greater than 0");
+        }
+        this.uploadTaskQueue = uploadTaskQueue;
+        this.photoUploadProcessor = photoUploadProcessor;
+        this.temporaryFileStorage = temporaryFileStorage;
+        this.taskExecutor = taskExecutor;
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+        this.failedFileRetention = Duration.ofMinutes(failedFileRetentionMinutes);
+    }
+
+    /**
+     * Drop buffered files whose upload is no longer queued once they are older than the
+     * retention period. Files of terminally failed uploads are kept that long so the
+     * photo can still be retried manually; this also clears spool files recovered at
+     * startup for uploads that finished elsewhere.
+     */
+    @Scheduled(initialDelayString = "${upload.queue.sweep-interval-ms:300000}",
+               fixedDelayString = "${upload.queue.sweep-interval-ms:300000}")
+    public void sweepBufferedFiles() {
+        int discarded = 0;
+        Instant cutoff = Instant.now().minus(failedFileRetention);
+        for (PhotoId photoId : temporaryFileStorage.storedBefore(cutoff)) {
+            if (!uploadTaskQueue.isPending(photoId)) {
+                temporaryFileStorage.remove(photoId);
+                discarded++;
+            }
+        }
+        if (discarded > 0) {
+            logger.info("Discarded {} buffered files with no pending upload task", discarded);
+        }
+    }
+
+    /**
+     * Wake the worker as soon as new uploads are committed.
+     */
+    @EventListener
+    public void onPhotoUploadStarted(PhotoUploadStarted event) {
+        requestDrain();
+    }
+
+    /**
+     * Periodic poll: picks up retries whose backoff elapsed, tasks abandoned by dead
+     * workers, and work enqueued by other instances.
+     */
+    @Scheduled(fixedDelayString = "${upload.queue.poll-interval-ms:1000}")
+    public void poll() {
+        requestDrain();
+    }
+
+    /**
+     * Number of tasks currently being processed by this instance.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        logger.info("Upload task worker stopping with {} tasks in flight", inFlight.get());
+    }
+
+    private void requestDrain() {
+        if (stopped || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::drain);
+        } catch (RuntimeException e) {
+            draining.set(false);
+            logger.warn("Could not schedule upload queue drain: {}", e.getMessage());
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!stopped) {
+                int free = maxInFlight - inFlight.get();
+                if (free <= 0) {
+                    return;
+                }
+                List<UploadTask> tasks = uploadTaskQueue.claim(Math.min(free, batchSize));
+                if (tasks.isEmpty()) {
+                    return;
+                }
+                logger.debug("Claimed {} upload tasks ({} in flight)", tasks.size(), inFlight.get());
+                tasks.forEach(this::dispatch);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to claim upload tasks", e);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void dispatch(UploadTask task) {
+        inFlight.incrementAndGet();
+        CompletableFuture.supplyAsync(() -> photoUploadProcessor.process(task), taskExecutor)
+            .thenCompose(outcome -> outcome)
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    logger.error("Upload task for photo {} ended unexpectedly", task.photoId().getValue(), error);
+                }
+                // A slot opened up; keep the pipeline full without waiting for the next poll
+                if (inFlight.decrementAndGet() < maxInFlight) {
+                    requestDrain();
+                }
+            });
+    }
+}
@@ -15,6 +15,11 @@ public class AzureBlobPhotoStorageService implements CloudStorageService {
         throw new UnsupportedOperationException("AzureBlobPhotoStorageService not yet implemented");
     }
 
+    @Override
+    public String getBackendName() {
+        return "azure";
+    }
+    
     @Override
     public InputStream download(String key) {
         throw new UnsupportedOperationException("AzureBlobPhotoStorageService not yet implemented");
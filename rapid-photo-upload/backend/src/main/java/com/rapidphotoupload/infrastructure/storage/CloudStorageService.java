@@ -1,6 +1,11 @@
 package com.rapidphotoupload.infrastructure.storage;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for cloud storage operations.
@@ -17,6 +22,88 @@ public interface CloudStorageService {
      */
     String upload(String key, InputStream inputStream, String contentType);
 
+    /**
+     * Upload a file of known length to cloud storage.
+     * Implementations that can stream with a declared length (e.g. S3) should override this
+     * to avoid buffering the whole object.
+     * @param key Storage key/path
+     * @param inputStream File content
+     * @param contentLength Content length in bytes, or -1 if unknown
+     * @param contentType MIME type
+     * @return Storage key
+     */
+    default String upload(String key, InputStream inputStream, long contentLength, String contentType) {
+        return upload(key, inputStream, contentType);
+    }
+
+    /**
+     * Upload a file without blocking the caller for the duration of the transfer.
+     * The default implementation uploads synchronously and returns a completed future;
+     * non-blocking clients override it. The stream must stay open until the future completes.
+     * @param key Storage key/path
+     * @param inputStream File content
+     * @param contentLength Content length in bytes, or -1 if unknown
+     * @param contentType MIME type
+     * @return Future completing with the storage key
+     */
+    default CompletableFuture<String> uploadAsync(String key, InputStream inputStream, long contentLength, String contentType) {
+        try {
+            return CompletableFuture.completedFuture(upload(key, inputStream, contentLength, contentType));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Upload a local file without blocking the caller for the duration of the transfer.
+     * Lets non-blocking clients read the file asynchronously instead of through a stream.
+     * @param key Storage key/path
+     * @param file Local file to upload; must not be removed until the future completes
+     * @param contentType MIME type
+     * @return Future completing with the storage key
+     */
+    default CompletableFuture<String> uploadAsync(String key, Path file, String contentType) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return CompletableFuture.completedFuture(upload(key, in, Files.size(file), contentType));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException("Failed to read file for upload", e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Upload a local file without blocking the caller, reporting bytes sent as it goes.
+     * The default implementation uploads through a stream that counts the bytes read;
+     * non-blocking clients override it to count bytes as they are sent.
+     * @param key Storage key/path
+     * @param file Local file to upload; must not be removed until the future completes
+     * @param contentType MIME type
+     * @param listener Progress listener (optional)
+     * @return Future completing with the storage key
+     */
+    default CompletableFuture<String> uploadAsync(String key, Path file, String contentType,
+                                                  UploadProgressListener listener) {
+        if (listener == null) {
+            return uploadAsync(key, file, contentType);
+        }
+        try (InputStream in = new ProgressReportingInputStream(Files.newInputStream(file), listener)) {
+            return CompletableFuture.completedFuture(upload(key, in, Files.size(file), contentType));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException("Failed to read file for upload", e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Short backend name used for per-backend limits and logging (e.g. "s3", "local").
+     * @return Backend name
+     */
+    default String getBackendName() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * Download a file from cloud storage.
      * @param key Storage key/path
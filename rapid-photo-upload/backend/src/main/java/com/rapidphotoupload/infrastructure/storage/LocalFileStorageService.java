@@ -48,6 +48,11 @@ public class LocalFileStorageService implements CloudStorageService {
         }
     }
     
+    @Override
+    public String getBackendName() {
+        return "local";
+    }
+    
     @Override
     public InputStream download(String key) {
         try {
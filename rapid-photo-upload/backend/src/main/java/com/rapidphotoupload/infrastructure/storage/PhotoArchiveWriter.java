@@ -0,0 +1,245 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes stored photos into a ZIP archive as they are downloaded.
+ *
+ * Each object is copied from its download stream straight into the archive, so memory use
+ * is a copy buffer plus a few open streams however large the archive gets. While one entry
+ * is being copied the downloads of the next prefetchDepth entries are already being opened
+ * on archivePrefetchExecutor, hiding the per-object latency of the storage backend.
+ *
+ * Already-compressed formats are written without compression. java.util.zip only allows
+ * STORED entries whose size and CRC are known before the data is written, which would mean
+ * reading every object twice, so they are written as DEFLATED entries at NO_COMPRESSION
+ * instead: the bytes pass through as stored blocks at a few bytes of overhead per 64 KB.
+ */
+@Component
+public class PhotoArchiveWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoArchiveWriter.class);
+
+    // Formats that gain nothing from deflating again
+    private static final Set<String> COMPRESSED_CONTENT_TYPES = Set.of(
+        "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp", "image/heic", "image/heif", "image/avif");
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    // Lists entries whose objects couldn't be read, appended when there are any
+    static final String ERRORS_ENTRY = "errors.txt";
+
+    private final CloudStorageService cloudStorageService;
+    private final Executor prefetchExecutor;
+    private final int prefetchDepth;
+
+    @Autowired
+    public PhotoArchiveWriter(
+            CloudStorageService cloudStorageService,
+            @Qualifier("archivePrefetchExecutor") Executor prefetchExecutor,
+            @Value("${archive.prefetch-depth:4}") int prefetchDepth) {
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth must not be negative");
+        }
+        this.cloudStorageService = cloudStorageService;
+        this.prefetchExecutor = prefetchExecutor;
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    /**
+     * Start an archive on the given stream.
+     * Call {@link Archive#finish()} after the last entry; closing an unfinished archive
+     * abandons it and releases any prefetched downloads.
+     */
+    public Archive open(OutputStream out) {
+        return new Archive(out);
+    }
+
+    /**
+     * One archive being written. Not thread-safe.
+     */
+    public final class Archive implements Closeable {
+
+        private final ZipOutputStream zip;
+        private final Deque<PendingEntry> pending = new ArrayDeque<>();
+        private final Set<String> names = new HashSet<>();
+        private final List<String> failures = new ArrayList<>();
+        private final byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        private int entries;
+        private long bytes;
+        private boolean finished;
+
+        private Archive(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Queue a stored object as the next entry. Its download starts immediately; the
+         * entry is written once it reaches the head of the prefetch window.
+         * @param storageKey Storage key/path of the object
+         * @param filename Entry name; made unique within the archive if already used
+         * @param contentType MIME type, decides whether the entry is compressed
+         * @param lastModified Modification time recorded for the entry (optional)
+         */
+        public void add(String storageKey, String filename, String contentType, Instant lastModified)
+                throws IOException {
+            CompletableFuture<InputStream> download =
+                CompletableFuture.supplyAsync(() -> cloudStorageService.download(storageKey), prefetchExecutor);
+            pending.addLast(new PendingEntry(entryName(filename, names), storageKey, contentType, lastModified,
+                download));
+            while (pending.size() > prefetchDepth) {
+                writeNext();
+            }
+        }
+
+        /**
+         * Write all queued entries and the archive's central directory.
+         */
+        public void finish() throws IOException {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            if (!failures.isEmpty()) {
+                zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+                zip.putNextEntry(new ZipEntry(entryName(ERRORS_ENTRY, names)));
+                zip.write((String.join("\n", failures) + "\n").getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            finished = true;
+            logger.debug("Archive finished: {} entries, {} bytes, {} failed", entries, bytes, failures.size());
+        }
+
+        /**
+         * Number of entries written so far, excluding the errors entry.
+         */
+        public int getEntryCount() {
+            return entries;
+        }
+
+        /**
+         * Names of the entries whose objects couldn't be read.
+         */
+        public List<String> getFailures() {
+            return List.copyOf(failures);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Downloads still in flight are closed as soon as they open
+            for (PendingEntry entry : pending) {
+                entry.download().thenAccept(PhotoArchiveWriter::closeQuietly);
+            }
+            pending.clear();
+            if (finished) {
+                zip.close();
+            }
+        }
+
+        private void writeNext() throws IOException {
+            PendingEntry entry = pending.removeFirst();
+            InputStream in;
+            try {
+                in = entry.download().join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.warn("Skipping archive entry {} ({}): {}", entry.name(), entry.storageKey(), cause.getMessage());
+                failures.add(entry.name() + ": " + cause.getMessage());
+                return;
+            }
+            if (in == null) {
+                logger.warn("Skipping archive entry {}: object not found ({})", entry.name(), entry.storageKey());
+                failures.add(entry.name() + ": not found");
+                return;
+            }
+
+            try (in) {
+                ZipEntry zipEntry = new ZipEntry(entry.name());
+                if (entry.lastModified() != null) {
+                    zipEntry.setLastModifiedTime(FileTime.from(entry.lastModified()));
+                }
+                zip.setLevel(isCompressed(entry.contentType()) ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+                zip.putNextEntry(zipEntry);
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    zip.write(buffer, 0, read);
+                    bytes += read;
+                }
+                zip.closeEntry();
+                entries++;
+            }
+        }
+    }
+
+    /**
+     * Whether content of this type is already compressed.
+     */
+    static boolean isCompressed(String contentType) {
+        return contentType != null && COMPRESSED_CONTENT_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Make a filename safe and unique as an archive entry name.
+     * Path separators are replaced so entries can't escape the extraction directory, and
+     * repeated names get a counter before the extension: photo.jpg, photo (2).jpg, ...
+     * @param used Names already taken; the returned name is added to it
+     */
+    static String entryName(String filename, Set<String> used) {
+        String name = filename == null ? "" : filename.replaceAll("[/\\\\\\x00-\\x1f]", "_").trim();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            name = "photo";
+        }
+        if (used.add(name.toLowerCase(Locale.ROOT))) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int counter = 2; ; counter++) {
+            String candidate = base + " (" + counter + ")" + extension;
+            if (used.add(candidate.toLowerCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close abandoned download", e);
+        }
+    }
+
+    private record PendingEntry(String name, String storageKey, String contentType, Instant lastModified,
+                                CompletableFuture<InputStream> download) {}
+}
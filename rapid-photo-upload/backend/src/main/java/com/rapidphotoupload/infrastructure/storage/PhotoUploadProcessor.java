@@ -1,214 +1,470 @@
 package com.rapidphotoupload.infrastructure.storage;
 
 import com.rapidphotoupload.domain.aggregates.Photo;
-import com.rapidphotoupload.domain.aggregates.UploadJob;
-import com.rapidphotoupload.domain.events.PhotoUploadStarted;
+import com.rapidphotoupload.domain.events.PhotoUploadProgressed;
+import com.rapidphotoupload.domain.events.UploadJobCompleted;
+import com.rapidphotoupload.domain.events.UploadJobFailed;
 import com.rapidphotoupload.domain.repositories.PhotoRepository;
 import com.rapidphotoupload.domain.repositories.UploadJobRepository;
+import com.rapidphotoupload.domain.valueobjects.JobProgress;
+import com.rapidphotoupload.domain.valueobjects.JobStatus;
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
 import com.rapidphotoupload.domain.valueobjects.StorageKey;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
 import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
-import com.rapidphotoupload.infrastructure.websocket.ProgressWebSocketHandler;
+import com.rapidphotoupload.infrastructure.queue.UploadTask;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
+import com.rapidphotoupload.infrastructure.websocket.JobProgressAggregator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
- * Async processor for photo uploads.
- * Listens to PhotoUploadStarted events and processes file uploads to storage.
+ * Processor for photo uploads claimed from the durable upload queue.
+ * The storage transfer runs asynchronously; completion handling is chained onto
+ * the returned future instead of blocking a pool thread for the whole upload.
+ *
+ * Finishing a task (deleting it from the queue, updating the photo and counting the job
+ * outcome) happens in one transaction fenced by the task's attempt number, so a worker
+ * whose claim expired and was taken over never double-counts. Failed attempts are
+ * rescheduled with backoff; while a backend's circuit breaker is open, tasks are deferred
+ * without spending an attempt. The buffered file is kept after a terminal failure so the
+ * photo can be retried manually (the worker sweeps it after the retention period).
+ *
+ * Uploads whose SHA-256 matches one of the user's completed photos skip the storage write
+ * and reuse that photo's storage key. No code path deletes stored objects today; a future
+ * delete must only remove an object once no photo references its storage_key.
+ *
+ * Completed photos are handed to ThumbnailGenerator, which renders gallery thumbnails
+ * on its own executor. Progress is reported to JobProgressAggregator, which coalesces the
+ * updates of a job into periodic WebSocket frames.
  */
 @Component
 public class PhotoUploadProcessor {
     
     private static final Logger logger = LoggerFactory.getLogger(PhotoUploadProcessor.class);
     
+    /**
+     * Minimum delay before a deferred task is claimed again, so a half-open circuit's
+     * pending trial isn't raced by tight claim/defer loops.
+     */
+    private static final Duration MIN_DEFER_DELAY = Duration.ofSeconds(1);
+    
+    // Byte-level progress is published at most every 5 points or 250 ms
+    private static final int PROGRESS_STEP_PERCENT = 5;
+    private static final Duration PROGRESS_INTERVAL = Duration.ofMillis(250);
+    
     private final TemporaryFileStorage temporaryFileStorage;
     private final CloudStorageService storageService;
     private final PhotoRepository photoRepository;
     private final UploadJobRepository uploadJobRepository;
-    private final ProgressWebSocketHandler webSocketHandler;
+    private final UploadTaskQueue uploadTaskQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final DomainEventPublisher eventPublisher;
+    private final JobProgressAggregator progressAggregator;
     private final UploadPerformanceMonitor performanceMonitor;
+    private final StorageConcurrencyLimiter concurrencyLimiter;
+    private final StorageCircuitBreaker circuitBreaker;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final Executor completionExecutor;
     
     public PhotoUploadProcessor(
             TemporaryFileStorage temporaryFileStorage,
             CloudStorageService storageService,
             PhotoRepository photoRepository,
             UploadJobRepository uploadJobRepository,
-            ProgressWebSocketHandler webSocketHandler,
-            UploadPerformanceMonitor performanceMonitor) {
+            UploadTaskQueue uploadTaskQueue,
+            TransactionTemplate transactionTemplate,
+            DomainEventPublisher eventPublisher,
+            JobProgressAggregator progressAggregator,
+            UploadPerformanceMonitor performanceMonitor,
+            StorageConcurrencyLimiter concurrencyLimiter,
+            StorageCircuitBreaker circuitBreaker,
+            ThumbnailGenerator thumbnailGenerator,
+            @Qualifier("taskExecutor") Executor completionExecutor) {
         this.temporaryFileStorage = temporaryFileStorage;
         this.storageService = storageService;
         this.photoRepository = photoRepository;
         this.uploadJobRepository = uploadJobRepository;
-        this.webSocketHandler = webSocketHandler;
+        this.uploadTaskQueue = uploadTaskQueue;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.progressAggregator = progressAggregator;
         this.performanceMonitor = performanceMonitor;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.completionExecutor = completionExecutor;
     }
     
     /**
-     * Process photo upload asynchronously when PhotoUploadStarted event is fired.
+     * Process a claimed upload task.
+     * @return future completing once the task is finished or rescheduled
      */
-    @Async("taskExecutor")
-    @EventListener
-    public void handlePhotoUploadStarted(PhotoUploadStarted event) {
-        PhotoId photoId = event.photoId();
-        String photoIdString = photoId.getValue().toString();
-        
-        // Extract jobId from the event if available
-        String jobIdString = event.jobId() != null ? event.jobId().getValue().toString() : null;
+    public CompletableFuture<Void> process(UploadTask task) {
+        String photoIdString = task.photoId().getValue().toString();
+        String jobIdString = jobIdString(task);
         
         // Record upload start for performance monitoring
-        performanceMonitor.recordUploadStart(photoIdString, jobIdString);
+        performanceMonitor.recordUploadStart(photoIdString, jobIdString, task.claimableSince());
         
-        logger.info("Processing photo upload: {} (Job: {}), Active uploads: {}", 
-            photoIdString, jobIdString, performanceMonitor.getActiveUploadCount());
+        logger.info("Processing photo upload: {} (Job: {}, attempt {}), Active uploads: {}", 
+            photoIdString, jobIdString, task.countedAttempts(), performanceMonitor.getActiveUploadCount());
         
+        return upload(task).whenComplete((ignored, error) -> performanceMonitor.recordUploadFinished());
+    }
+    
+    private CompletableFuture<Void> upload(UploadTask task) {
+        PhotoId photoId = task.photoId();
+        String photoIdString = photoId.getValue().toString();
+        String jobIdString = jobIdString(task);
+        Photo photo = null;
         try {
             // Retrieve photo aggregate
-            Photo photo = photoRepository.findById(photoId)
-                    .orElseThrow(() -> new RuntimeException("Photo not found: " + photoId.getValue()));
+            Optional<Photo> found = photoRepository.findById(photoId);
+            if (found.isEmpty() || !isPending(found.get())) {
+                // Deleted, cancelled or already finished by an earlier attempt
+                logger.info("Photo {} no longer pending, dropping upload task", photoIdString);
+                if (uploadTaskQueue.complete(task)) {
+                    temporaryFileStorage.remove(photoId);
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+            photo = found.get();
             
-            // Mark as uploading
-            photo.markAsUploading();
-            photoRepository.save(photo);
+            // Mark as uploading (already UPLOADING when an earlier attempt was interrupted)
+            if (photo.getStatus() == UploadStatus.QUEUED) {
+                photo.markAsUploading();
+                photoRepository.save(photo);
+            }
             
             // Send progress update: uploading started
             sendPhotoProgressUpdate(photo, 0, "UPLOADING", jobIdString);
             
-            // Retrieve file from temporary storage
-            InputStream fileStream = temporaryFileStorage.retrieve(photoId);
-            if (fileStream == null) {
+            // Same bytes already stored for this user: reuse the object instead of writing it again
+            Optional<Photo> duplicate = findStoredDuplicate(photo);
+            if (duplicate.isPresent()) {
+                Photo original = duplicate.get();
+                logger.info("Photo {} has the same content as {}, reusing storage key", 
+                    photoIdString, original.getId().getValue());
+                if (original.getThumbnailStorageKey() != null) {
+                    photo.setThumbnailStorageKey(original.getThumbnailStorageKey());
+                    if (photo.getMetadata() != null && original.getMetadata() != null) {
+                        photo.getMetadata().setWidth(original.getMetadata().getWidth());
+                        photo.getMetadata().setHeight(original.getMetadata().getHeight());
+                    }
+                }
+                performanceMonitor.recordUploadDeduplicated(photoIdString, original.getStorageKey().getValue());
+                onUploadCompleted(task, photo, original.getStorageKey().getValue());
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            // Queued bytes live in the spool directory (shared between instances), so a
+            // missing file was lost, e.g. held on heap across a restart; retrying can't help
+            if (!temporaryFileStorage.exists(photoId)) {
                 logger.error("File not found in temporary storage for photo: {}", photoId.getValue());
-                photo.markAsFailed("File not found in temporary storage");
-                photoRepository.save(photo);
-                performanceMonitor.recordUploadFailed(photoIdString, "File not found in temporary storage");
-                sendPhotoProgressUpdate(photo, 0, "FAILED", jobIdString);
-                updateJobProgress(jobIdString);
-                return;
+                failPhoto(task, photo, "Upload bytes lost, please upload the photo again",
+                    new IllegalStateException("File not found in temporary storage"));
+                return CompletableFuture.completedFuture(null);
             }
             
             // Generate storage key
             String storageKey = generateStorageKey(photoId, photo.getFilename().getValue());
             
-            // Upload to storage
+            // Start upload to storage; status updates are chained on completion so this
+            // pool thread is released while bytes are in flight
+            String backend = storageService.getBackendName();
+            concurrencyLimiter.acquire(backend);
+            if (!circuitBreaker.tryAcquire(backend)) {
+                concurrencyLimiter.release(backend);
+                Duration delay = circuitBreaker.remainingOpenTime(backend);
+                delay = delay.compareTo(MIN_DEFER_DELAY) < 0 ? MIN_DEFER_DELAY : delay;
+                logger.info("Storage backend {} unavailable, deferring photo {} for {} ms",
+                    backend, photoIdString, delay.toMillis());
+                uploadTaskQueue.defer(task, delay);
+                performanceMonitor.recordUploadDeferred(photoIdString, delay);
+                return CompletableFuture.completedFuture(null);
+            }
+            InputStream fileStream = null;
+            CompletableFuture<String> upload;
+            long putStart = System.nanoTime();
             try {
-                String uploadedKey = storageService.upload(
-                    storageKey,
-                    fileStream,
-                    photo.getContentType().getValue()
-                );
-                
-                // Mark as completed
+                UploadProgressListener progress = progressListener(photo, task);
+                Optional<Path> spoolFile = temporaryFileStorage.spoolFile(photoId);
+                if (spoolFile.isPresent()) {
+                    upload = storageService.uploadAsync(storageKey, spoolFile.get(), photo.getContentType().getValue(),
+                        progress);
+                } else {
+                    fileStream = new ProgressReportingInputStream(temporaryFileStorage.retrieve(photoId), progress);
+                    upload = storageService.uploadAsync(
+                        storageKey,
+                        fileStream,
+                        photo.getFileSize().getValue(),
+                        photo.getContentType().getValue()
+                    );
+                }
+            } catch (RuntimeException e) {
+                upload = CompletableFuture.failedFuture(e);
+            }
+            
+            Photo uploadingPhoto = photo;
+            InputStream openedStream = fileStream;
+            long bytes = photo.getFileSize().getValue();
+            return upload.whenComplete((uploadedKey, error) -> {
+                    performanceMonitor.recordStoragePut(storageKey, bytes,
+                        Duration.ofNanos(System.nanoTime() - putStart), error == null);
+                    concurrencyLimiter.release(backend);
+                    if (error == null) {
+                        circuitBreaker.recordSuccess(backend);
+                    } else {
+                        circuitBreaker.recordFailure(backend);
+                    }
+                })
+                .handleAsync((uploadedKey, error) -> {
+                    closeQuietly(openedStream);
+                    if (error == null) {
+                        onUploadCompleted(task, uploadingPhoto, uploadedKey);
+                    } else {
+                        onUploadFailed(task, uploadingPhoto, error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                    }
+                    return null;
+                }, completionExecutor);
+            
+        } catch (Exception e) {
+            logger.error("Error processing photo upload: {}", photoId.getValue(), e);
+            onUploadFailed(task, photo, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+    
+    /**
+     * Finish a successful upload: persist the storage key and notify listeners.
+     */
+    private void onUploadCompleted(UploadTask task, Photo photo, String uploadedKey) {
+        PhotoId photoId = photo.getId();
+        String photoIdString = photoId.getValue().toString();
+        // Taken before markAsCompleted moves uploadedAt to the completion time
+        Instant receivedAt = photo.getUploadedAt().getValue();
+        try {
+            // Mark as completed and count the job outcome together with removing the task
+            Optional<FinishedTask> finished = finishTask(task, () -> {
                 photo.markAsCompleted(StorageKey.from(uploadedKey));
                 photoRepository.save(photo);
-                
-                // Clean up temporary storage
-                temporaryFileStorage.remove(photoId);
-                
-                // Record completion for performance monitoring
-                performanceMonitor.recordUploadComplete(photoIdString);
-                
-                // Send progress update: completed
-                sendPhotoProgressUpdate(photo, 100, "COMPLETED", jobIdString);
-                
-                // Update job progress and check if job is complete
-                updateJobProgress(jobIdString);
-                
-                logger.info("Photo upload completed successfully: {}", photoId.getValue());
-                
-            } catch (Exception e) {
-                logger.error("Failed to upload photo to storage: {}", photoId.getValue(), e);
-                photo.markAsFailed("Storage upload failed: " + e.getMessage());
-                photoRepository.save(photo);
-                temporaryFileStorage.remove(photoId);
-                performanceMonitor.recordUploadFailed(photoIdString, e.getMessage());
-                sendPhotoProgressUpdate(photo, 0, "FAILED", jobIdString);
-                updateJobProgress(jobIdString);
+                return true;
+            });
+            if (finished.isEmpty()) {
+                return;
+            }
+            
+            // Clean up temporary storage
+            temporaryFileStorage.remove(photoId);
+            
+            // Thumbnails are generated off the upload path; reused objects may already have them
+            if (photo.getThumbnailStorageKey() == null) {
+                thumbnailGenerator.submit(photoId, uploadedKey);
             }
             
+            // Record completion for performance monitoring
+            performanceMonitor.recordUploadComplete(photoIdString, receivedAt);
+            
+            // Send progress update: completed
+            sendPhotoProgressUpdate(photo, 100, "COMPLETED", jobIdString(task));
+            
+            // Notify job progress and check if job is complete
+            if (finished.get().jobProgress() != null) {
+                publishJobProgress(finished.get().jobProgress());
+            }
+            
+            logger.info("Photo upload completed successfully: {}", photoId.getValue());
         } catch (Exception e) {
-            logger.error("Error processing photo upload: {}", photoId.getValue(), e);
-            // Try to mark photo as failed if we can retrieve it
-            try {
-                Photo photo = photoRepository.findById(photoId).orElse(null);
-                if (photo != null) {
-                    photo.markAsFailed("Processing failed: " + e.getMessage());
-                    photoRepository.save(photo);
+            onUploadFailed(task, photo, e);
+        }
+    }
+    
+    /**
+     * Handle a failed attempt: reschedule it with backoff, or once attempts are
+     * exhausted mark the photo failed and notify listeners.
+     */
+    private void onUploadFailed(UploadTask task, Photo photo, Throwable error) {
+        PhotoId photoId = task.photoId();
+        String photoIdString = photoId.getValue().toString();
+        try {
+            if (uploadTaskQueue.canRetry(task)) {
+                if (uploadTaskQueue.retryLater(task, error.getMessage())) {
+                    performanceMonitor.recordUploadRetried(photoIdString, task.countedAttempts(), error.getMessage());
                 }
-            } catch (Exception ex) {
-                logger.error("Failed to mark photo as failed: {}", photoId.getValue(), ex);
+                return;
             }
-            temporaryFileStorage.remove(photoId);
+        } catch (Exception e) {
+            // Task stays claimed; it becomes visible again once the visibility timeout expires
+            logger.error("Failed to record upload failure for photo: {}", photoId.getValue(), e);
+            return;
+        }
+        failPhoto(task, photo, "Storage upload failed: " + error.getMessage(), error);
+    }
+    
+    /**
+     * Terminal failure: remove the task, mark the photo failed and notify listeners,
+     * whatever attempts are left.
+     * @param reason Failure reason stored on the photo
+     */
+    private void failPhoto(UploadTask task, Photo photo, String reason, Throwable error) {
+        PhotoId photoId = task.photoId();
+        String photoIdString = photoId.getValue().toString();
+        try {
+            logger.error("Failed to upload photo to storage: {}", photoId.getValue(), error);
+            Optional<FinishedTask> finished = finishTask(task, () -> {
+                Photo failed = photo != null ? photo : photoRepository.findById(photoId).orElse(null);
+                if (failed == null) {
+                    return false;
+                }
+                failed.markAsFailed(reason);
+                photoRepository.save(failed);
+                return false;
+            });
+            if (finished.isEmpty()) {
+                return;
+            }
+            
+            // Buffered file is kept for a manual retry until the retention sweep removes it
+            performanceMonitor.recordUploadFailed(photoIdString, error.getMessage());
+            if (photo != null) {
+                sendPhotoProgressUpdate(photo, 0, "FAILED", jobIdString(task));
+            }
+            if (finished.get().jobProgress() != null) {
+                publishJobProgress(finished.get().jobProgress());
+            }
+        } catch (Exception e) {
+            // Task stays claimed; it becomes visible again once the visibility timeout expires
+            logger.error("Failed to record upload failure for photo: {}", photoId.getValue(), e);
+        }
+    }
+    
+    /**
+     * Remove the task, apply the photo update and count the job outcome in one transaction.
+     * @param updatePhoto Applies the photo update and returns whether the upload succeeded
+     * @return empty if the task was re-claimed by another worker (nothing was changed)
+     */
+    private Optional<FinishedTask> finishTask(UploadTask task, Supplier<Boolean> updatePhoto) {
+        long start = System.nanoTime();
+        Optional<FinishedTask> finished = transactionTemplate.execute(status -> {
+            if (!uploadTaskQueue.complete(task)) {
+                logger.warn("Upload task for photo {} was re-claimed by another worker, discarding attempt {}",
+                    task.photoId().getValue(), task.attempts());
+                return Optional.empty();
+            }
+            boolean succeeded = updatePhoto.get();
+            JobProgress progress = task.jobId() != null
+                ? uploadJobRepository.recordPhotoOutcome(task.jobId(), succeeded).orElse(null)
+                : null;
+            return Optional.of(new FinishedTask(progress));
+        });
+        performanceMonitor.recordDbUpdate(Duration.ofNanos(System.nanoTime() - start));
+        return finished;
+    }
+    
+    /**
+     * A task removed from the queue, with the job's counters after counting it
+     * (null for single uploads).
+     */
+    private record FinishedTask(JobProgress jobProgress) {}
+    
+    /**
+     * Listener publishing PhotoUploadProgressed as the photo's bytes are sent. Events carry
+     * the uploader and job, so handlers need no lookup; they may run on storage I/O threads.
+     */
+    private UploadProgressListener progressListener(Photo photo, UploadTask task) {
+        return new ThrottledUploadProgress(photo.getFileSize().getValue(), PROGRESS_STEP_PERCENT, PROGRESS_INTERVAL,
+            percentage -> eventPublisher.publish(
+                PhotoUploadProgressed.create(photo.getId(), photo.getUploadedBy(), task.jobId(), percentage)));
+    }
+    
+    private Optional<Photo> findStoredDuplicate(Photo photo) {
+        String fileHash = photo.getMetadata() != null ? photo.getMetadata().getFileHash() : null;
+        if (fileHash == null) {
+            return Optional.empty();
+        }
+        return photoRepository.findCompletedByUserIdAndFileHash(
+            UserId.from(photo.getUploadedBy().getUserId()), fileHash);
+    }
+    
+    private static boolean isPending(Photo photo) {
+        return photo.getStatus() == UploadStatus.QUEUED || photo.getStatus() == UploadStatus.UPLOADING;
+    }
+    
+    private static String jobIdString(UploadTask task) {
+        return task.jobId() != null ? task.jobId().getValue().toString() : null;
+    }
+    
+    private static void closeQuietly(InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close temporary file stream", e);
         }
     }
     
     /**
-     * Send progress update for a photo via WebSocket.
+     * Record a photo's progress; job photos are coalesced into the job's next frame.
      */
     private void sendPhotoProgressUpdate(Photo photo, int percentage, String status, String jobId) {
         try {
-            String userId = photo.getUploadedBy().getUserId().toString();
-            
-            ProgressWebSocketHandler.ProgressMessage message = new ProgressWebSocketHandler.ProgressMessage(
-                "photo_progress",
-                photo.getId().getValue().toString(),
-                jobId,
-                percentage,
-                100,
-                status
-            );
-            webSocketHandler.sendProgressUpdate(userId, message);
-            logger.debug("Sent progress update for photo {}: {}% - {} (jobId: {})", 
-                photo.getId().getValue(), percentage, status, jobId);
+            progressAggregator.photoProgress(photo.getUploadedBy().getUserId().toString(), jobId,
+                photo.getId().getValue().toString(), percentage, status);
         } catch (Exception e) {
             logger.error("Failed to send progress update for photo: {}", photo.getId().getValue(), e);
         }
     }
     
     /**
-     * Update job progress after photo completion/failure.
-     * Find the job this photo belongs to and update its progress.
-     * If job is complete, record performance metrics.
+     * Record the job's counters after a photo outcome was counted and - exactly once
+     * per job - publish the completion event and record metrics.
      */
-    private void updateJobProgress(String jobIdString) {
+    private void publishJobProgress(JobProgress progress) {
+        String jobIdString = progress.jobId().getValue().toString();
         try {
-            if (jobIdString == null) {
-                logger.debug("No jobId provided, skipping job progress update");
-                return;
-            }
+            progressAggregator.jobProgress(progress);
             
-            // Find the job and send progress update
-            uploadJobRepository.findById(com.rapidphotoupload.domain.valueobjects.JobId.from(java.util.UUID.fromString(jobIdString)))
-                .ifPresent(job -> {
-                    String userId = job.getUserId().getValue().toString();
-                    int completedPhotos = job.getCompletedPhotos().getValue();
-                    int failedPhotos = job.getFailedPhotos().getValue();
-                    int totalPhotos = job.getTotalPhotos().getValue();
-                    
-                    ProgressWebSocketHandler.ProgressMessage message = new ProgressWebSocketHandler.ProgressMessage(
-                        "job_progress",
-                        null,
-                        jobIdString,
-                        completedPhotos,
-                        totalPhotos,
-                        job.getStatus().name()
-                    );
-                    webSocketHandler.sendProgressUpdate(userId, message);
-                    logger.debug("Sent job progress update: {}/{} photos completed for job {}", 
-                        completedPhotos, totalPhotos, jobIdString);
-                    
-                    // Check if job is complete and record metrics
-                    if (job.isComplete()) {
-                        performanceMonitor.recordJobComplete(jobIdString, totalPhotos);
-                        logger.info("Job {} complete: {} completed, {} failed, {} total", 
-                            jobIdString, completedPhotos, failedPhotos, totalPhotos);
-                    }
-                });
+            // Only the increment that accounted for the last photo gets here
+            if (progress.justFinished()) {
+                onJobFinished(progress);
+            }
         } catch (Exception e) {
-            logger.error("Failed to update job progress for jobId {}: {}", jobIdString, e.getMessage(), e);
+            logger.error("Failed to publish job progress for jobId {}: {}", jobIdString, e.getMessage(), e);
+        }
+    }
+    
+    private void onJobFinished(JobProgress progress) {
+        String jobIdString = progress.jobId().getValue().toString();
+        uploadJobRepository.findById(progress.jobId()).ifPresent(job -> performanceMonitor.recordJobComplete(
+            jobIdString, progress.totalPhotos(), job.getCreatedAt().getValue(), progress.status().name()));
+        logger.info("Job {} complete: {} completed, {} failed, {} total", 
+            jobIdString, progress.completedPhotos(), progress.failedPhotos(), progress.totalPhotos());
+        
+        if (progress.status() == JobStatus.COMPLETED) {
+            eventPublisher.publish(UploadJobCompleted.create(progress.jobId(), progress.totalPhotos()));
+        } else if (progress.status() == JobStatus.FAILED) {
+            eventPublisher.publish(UploadJobFailed.create(progress.jobId(),
+                String.format("All %d photos failed to upload", progress.totalPhotos())));
         }
     }
     
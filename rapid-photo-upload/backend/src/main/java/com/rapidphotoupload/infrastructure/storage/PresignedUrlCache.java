@@ -0,0 +1,205 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of presigned download URLs.
+ *
+ * Time is divided into fixed signing windows. The first request for a key in a window
+ * signs a URL valid for the requested lifetime plus one window, and every later request
+ * in the same window gets that same URL back. Callers therefore always receive a URL with
+ * at least the requested lifetime left, list pages stop paying a signature per photo, and
+ * the URL of an image stays stable for a whole window so browsers and CDNs can cache it.
+ */
+@Component
+public class PresignedUrlCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresignedUrlCache.class);
+
+    private final CloudStorageService cloudStorageService;
+    private final Duration window;
+    private final int windowMinutes;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<CacheKey, String> urls;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    @Autowired
+    public PresignedUrlCache(
+            CloudStorageService cloudStorageService,
+            @Value("${cloud.storage.presigned-url-cache.window-minutes:15}") int windowMinutes,
+            @Value("${cloud.storage.presigned-url-cache.max-entries:10000}") int maxEntries,
+            MeterRegistry registry) {
+        this(cloudStorageService, Duration.ofMinutes(windowMinutes), maxEntries, Clock.systemUTC());
+        registerMetrics(registry);
+    }
+
+    PresignedUrlCache(CloudStorageService cloudStorageService, Duration window, int maxEntries, Clock clock) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Signing window must be greater than 0");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be greater than 0");
+        }
+        this.cloudStorageService = cloudStorageService;
+        this.window = window;
+        this.windowMinutes = (int) Math.ceil(window.toSeconds() / 60.0);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // Access-ordered, so the least recently served URL is evicted first
+        this.urls = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+                return size() > PresignedUrlCache.this.maxEntries;
+            }
+        };
+        logger.info("Presigned URL cache initialized (window: {} min, max entries: {})",
+            windowMinutes, maxEntries);
+    }
+
+    /**
+     * Expose hits and misses as presigned.url.cache{result=hit|miss} and the number of
+     * cached URLs as presigned.url.cache.size.
+     */
+    void registerMetrics(MeterRegistry registry) {
+        String storage = cloudStorageService.getBackendName();
+        FunctionCounter.builder("presigned.url.cache", hits, AtomicLong::get)
+            .description("Presigned URL requests by cache result")
+            .tag("result", "hit")
+            .tag("storage", storage)
+            .register(registry);
+        FunctionCounter.builder("presigned.url.cache", misses, AtomicLong::get)
+            .description("Presigned URL requests by cache result")
+            .tag("result", "miss")
+            .tag("storage", storage)
+            .register(registry);
+        Gauge.builder("presigned.url.cache.size", this, PresignedUrlCache::size)
+            .description("Presigned URLs currently cached")
+            .tag("storage", storage)
+            .register(registry);
+    }
+
+    /**
+     * Get a presigned URL for the key that stays valid for at least {@code expirationMinutes}.
+     * @param key Storage key/path
+     * @param expirationMinutes Minimum remaining lifetime of the returned URL
+     * @return Presigned URL, possibly shared with earlier callers in the same signing window
+     */
+    public String getPresignedUrl(String key, int expirationMinutes) {
+        CacheKey cacheKey = new CacheKey(key, expirationMinutes, currentWindow());
+        String url;
+        synchronized (urls) {
+            url = urls.get(cacheKey);
+        }
+        if (url != null) {
+            hits.incrementAndGet();
+            return url;
+        }
+
+        misses.incrementAndGet();
+        // Signed outside the lock; two concurrent misses just sign twice and keep the last
+        url = cloudStorageService.generatePresignedUrl(key, expirationMinutes + windowMinutes);
+        synchronized (urls) {
+            urls.put(cacheKey, url);
+        }
+        return url;
+    }
+
+    /**
+     * Get presigned URLs for many keys at once.
+     * Cached URLs are looked up under one lock acquisition and only the misses are signed,
+     * so a page of N photos costs two lock round trips instead of N.
+     * @param keys Storage keys/paths (null entries are ignored)
+     * @param expirationMinutes Minimum remaining lifetime of the returned URLs
+     * @return URL per distinct key
+     */
+    public Map<String, String> getPresignedUrls(Collection<String> keys, int expirationMinutes) {
+        long signingWindow = currentWindow();
+        Map<String, String> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (urls) {
+            for (String key : keys) {
+                if (key == null || result.containsKey(key)) {
+                    continue;
+                }
+                String url = urls.get(new CacheKey(key, expirationMinutes, signingWindow));
+                if (url != null) {
+                    result.put(key, url);
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        hits.addAndGet(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        misses.addAndGet(missing.size());
+        Map<String, String> signed = new HashMap<>();
+        for (String key : missing) {
+            signed.put(key, cloudStorageService.generatePresignedUrl(key, expirationMinutes + windowMinutes));
+        }
+        synchronized (urls) {
+            signed.forEach((key, url) -> urls.put(new CacheKey(key, expirationMinutes, signingWindow), url));
+        }
+        result.putAll(signed);
+        return result;
+    }
+
+    /**
+     * Number of requests served from the cache.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Number of requests that had to sign a new URL.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Index of the current signing window. URLs handed out change when it does, so
+     * anything caching responses that embed them must be invalidated with it.
+     */
+    public long getSigningWindow() {
+        return currentWindow();
+    }
+
+    /**
+     * Number of URLs currently cached.
+     */
+    public int size() {
+        synchronized (urls) {
+            return urls.size();
+        }
+    }
+
+    private long currentWindow() {
+        return clock.millis() / window.toMillis();
+    }
+
+    private record CacheKey(String storageKey, int expirationMinutes, long window) {}
+}
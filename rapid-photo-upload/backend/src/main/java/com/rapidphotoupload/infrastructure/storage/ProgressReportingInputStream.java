@@ -0,0 +1,66 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream that reports the number of bytes read to an UploadProgressListener.
+ * Storage backends read upload streams as they send them, so bytes read track bytes sent.
+ */
+public class ProgressReportingInputStream extends FilterInputStream {
+
+    private final UploadProgressListener listener;
+    private long bytesRead;
+    private long mark;
+
+    public ProgressReportingInputStream(InputStream in, UploadProgressListener listener) {
+        super(in);
+        this.listener = listener;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            advance(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        super.mark(readLimit);
+        mark = bytesRead;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        super.reset();
+        // Re-read bytes are reported again as they are read
+        bytesRead = mark;
+    }
+
+    private void advance(long bytes) {
+        bytesRead += bytes;
+        listener.onProgress(bytesRead);
+    }
+}
@@ -0,0 +1,219 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Non-blocking AWS S3 implementation of CloudStorageService.
+ * Uploads go through S3AsyncClient so no pool thread is held while bytes are in flight;
+ * spooled files are read with async file I/O and small in-memory files are sent from a buffer.
+ * Spooled file bodies report the bytes sent to an optional UploadProgressListener.
+ * Downloads, deletes and presigned URLs are delegated to the blocking S3PhotoStorageService.
+ */
+public class S3AsyncPhotoStorageService implements CloudStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3AsyncPhotoStorageService.class);
+
+    /**
+     * Streams up to this size are read into a buffer up front; larger ones are pumped
+     * by a reader thread for the duration of the transfer.
+     */
+    private static final long BUFFERED_BODY_LIMIT_BYTES = 1024 * 1024;
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3PhotoStorageService blockingDelegate;
+    private final String bucketName;
+    private final ExecutorService streamReaderExecutor;
+    private final UploadPerformanceMonitor performanceMonitor;
+
+    public S3AsyncPhotoStorageService(
+            S3AsyncClient s3AsyncClient,
+            S3PhotoStorageService blockingDelegate,
+            String bucketName,
+            ExecutorService streamReaderExecutor,
+            UploadPerformanceMonitor performanceMonitor) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.blockingDelegate = blockingDelegate;
+        this.bucketName = bucketName;
+        this.streamReaderExecutor = streamReaderExecutor;
+        this.performanceMonitor = performanceMonitor;
+        logger.info("S3AsyncPhotoStorageService initialized with bucket: {}", bucketName);
+    }
+
+    @Override
+    public String upload(String key, InputStream inputStream, String contentType) {
+        return blockingDelegate.upload(key, inputStream, contentType);
+    }
+
+    @Override
+    public String upload(String key, InputStream inputStream, long contentLength, String contentType) {
+        return blockingDelegate.upload(key, inputStream, contentLength, contentType);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadAsync(String key, InputStream inputStream, long contentLength, String contentType) {
+        if (contentLength < 0) {
+            // Async PUT needs a declared length; fall back to the streaming multipart path
+            return CloudStorageService.super.uploadAsync(key, inputStream, contentLength, contentType);
+        }
+        try {
+            AsyncRequestBody body = contentLength <= BUFFERED_BODY_LIMIT_BYTES
+                    ? AsyncRequestBody.fromBytes(inputStream.readNBytes((int) contentLength))
+                    : AsyncRequestBody.fromInputStream(inputStream, contentLength, streamReaderExecutor);
+            return putObject(key, body, contentLength, contentType);
+        } catch (IOException e) {
+            logger.error("Failed to read input stream for S3 upload: {}", key, e);
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to read file for upload", e));
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> uploadAsync(String key, Path file, String contentType) {
+        return uploadAsync(key, file, contentType, null);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadAsync(String key, Path file, String contentType,
+                                                UploadProgressListener listener) {
+        try {
+            AsyncRequestBody body = AsyncRequestBody.fromFile(file);
+            if (listener != null) {
+                body = new ProgressReportingRequestBody(body, listener);
+            }
+            return putObject(key, body, file.toFile().length(), contentType);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<String> putObject(String key, AsyncRequestBody body, long contentLength, String contentType) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+
+        long start = System.nanoTime();
+        CompletableFuture<PutObjectResponse> put;
+        try {
+            put = s3AsyncClient.putObject(putObjectRequest, body);
+        } catch (RuntimeException e) {
+            // Failures raised before the request is sent are reported through the future too
+            put = CompletableFuture.failedFuture(e);
+        }
+        return put
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        String message = cause instanceof S3Exception s3Exception && s3Exception.awsErrorDetails() != null
+                                ? s3Exception.awsErrorDetails().errorMessage() : cause.getMessage();
+                        logger.error("Failed to upload file to S3: {} - Error: {}", key, message, cause);
+                        throw new CompletionException(new RuntimeException("Failed to upload file to S3: " + message, cause));
+                    }
+                    performanceMonitor.recordPartUploaded(key, 1, contentLength,
+                            Duration.ofNanos(System.nanoTime() - start).toMillis());
+                    logger.info("Successfully uploaded file to S3: s3://{}/{}", bucketName, key);
+                    return key;
+                });
+    }
+
+    @Override
+    public String getBackendName() {
+        return "s3";
+    }
+
+    @Override
+    public InputStream download(String key) {
+        return blockingDelegate.download(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        blockingDelegate.delete(key);
+    }
+
+    @Override
+    public String getPublicUrl(String key) {
+        return blockingDelegate.getPublicUrl(key);
+    }
+
+    @Override
+    public String generatePresignedUrl(String key, int expirationMinutes) {
+        return blockingDelegate.generatePresignedUrl(key, expirationMinutes);
+    }
+
+    /**
+     * Request body that reports the bytes handed to the HTTP client as they are emitted.
+     * Each subscription counts from zero, so a retried request reports from the start again.
+     */
+    private static final class ProgressReportingRequestBody implements AsyncRequestBody {
+
+        private final AsyncRequestBody delegate;
+        private final UploadProgressListener listener;
+
+        ProgressReportingRequestBody(AsyncRequestBody delegate, UploadProgressListener listener) {
+            this.delegate = delegate;
+            this.listener = listener;
+        }
+
+        @Override
+        public Optional<Long> contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public String contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+            delegate.subscribe(new Subscriber<ByteBuffer>() {
+                // Reactive Streams signals are serial, so a plain field is enough
+                private long bytesSent;
+
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer buffer) {
+                    bytesSent += buffer.remaining();
+                    subscriber.onNext(buffer);
+                    listener.onProgress(bytesSent);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    subscriber.onError(error);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.rapidphotoupload.infrastructure.storage;
 
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.sync.RequestBody;
@@ -9,51 +10,102 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * AWS S3 implementation of CloudStorageService.
  * Uploads photos to configured S3 bucket and generates presigned URLs for secure access.
+ * Uploads are streamed: small objects in a single PUT, large ones via parallel multipart upload.
  */
 public class S3PhotoStorageService implements CloudStorageService {
     
     private static final Logger logger = LoggerFactory.getLogger(S3PhotoStorageService.class);
     
+    /**
+     * S3 rejects multipart parts smaller than 5 MiB (except the last one).
+     */
+    public static final long MIN_PART_SIZE_BYTES = 5L * 1024 * 1024;
+    
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
     private final String bucketName;
     private final int presignedUrlExpirationMinutes;
+    private final long multipartThresholdBytes;
+    private final int partSizeBytes;
+    private final int maxParallelParts;
+    private final Executor partUploadExecutor;
+    private final UploadPerformanceMonitor performanceMonitor;
     
+    /**
+     * @param multipartThresholdBytes Objects of known length below this go up in a single PUT
+     * @param partSizeBytes Multipart part size; also the per-part heap buffer
+     * @param maxParallelParts Maximum parts of one object in flight at once
+     * @param partUploadExecutor Executor that runs individual part uploads
+     */
     public S3PhotoStorageService(
             S3Client s3Client,
             S3Presigner s3Presigner,
             String bucketName,
-            int presignedUrlExpirationMinutes) {
+            int presignedUrlExpirationMinutes,
+            long multipartThresholdBytes,
+            long partSizeBytes,
+            int maxParallelParts,
+            Executor partUploadExecutor,
+            UploadPerformanceMonitor performanceMonitor) {
+        if (partSizeBytes < MIN_PART_SIZE_BYTES || partSizeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Multipart part size must be between 5 MiB and 2 GiB");
+        }
+        if (maxParallelParts <= 0) {
+            throw new IllegalArgumentException("Max parallel parts must be greater than 0");
+        }
         this.s3Client = s3Client;
         this.s3Presigner = s3Presigner;
         this.bucketName = bucketName;
         this.presignedUrlExpirationMinutes = presignedUrlExpirationMinutes;
-        logger.info("S3PhotoStorageService initialized with bucket: {}", bucketName);
+        this.multipartThresholdBytes = multipartThresholdBytes;
+        this.partSizeBytes = (int) partSizeBytes;
+        this.maxParallelParts = maxParallelParts;
+        this.partUploadExecutor = partUploadExecutor;
+        this.performanceMonitor = performanceMonitor;
+        logger.info("S3PhotoStorageService initialized with bucket: {} (multipart threshold: {} bytes, part size: {} bytes, parallel parts: {})",
+                bucketName, multipartThresholdBytes, partSizeBytes, maxParallelParts);
     }
     
     @Override
     public String upload(String key, InputStream inputStream, String contentType) {
+        return upload(key, inputStream, -1, contentType);
+    }
+    
+    /**
+     * Stream an object to S3 without buffering it whole.
+     * Objects of known length below the multipart threshold are sent in one PUT straight
+     * from the stream; everything else goes through a multipart upload whose parts are
+     * read one buffer at a time and uploaded in parallel, bounded by maxParallelParts.
+     */
+    @Override
+    public String upload(String key, InputStream inputStream, long contentLength, String contentType) {
         try {
-            // Read all bytes from input stream
-            byte[] fileBytes = inputStream.readAllBytes();
-            
-            // Build the put object request
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType(contentType)
-                    .contentLength((long) fileBytes.length)
-                    .build();
-            
-            // Upload the file
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileBytes));
+            if (contentLength >= 0 && contentLength < multipartThresholdBytes) {
+                putObject(key, RequestBody.fromInputStream(inputStream, contentLength), contentLength, contentType);
+            } else {
+                byte[] firstPart = inputStream.readNBytes(partSizeBytes);
+                if (firstPart.length < partSizeBytes) {
+                    // Whole object fits in a single part
+                    putObject(key, bytesBody(firstPart), firstPart.length, contentType);
+                } else {
+                    uploadMultipart(key, inputStream, firstPart, contentType);
+                }
+            }
             
             logger.info("Successfully uploaded file to S3: s3://{}/{}", bucketName, key);
             return key;
@@ -67,6 +119,138 @@ public class S3PhotoStorageService implements CloudStorageService {
         }
     }
     
+    private void putObject(String key, RequestBody body, long contentLength, String contentType) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+        
+        long start = System.nanoTime();
+        s3Client.putObject(putObjectRequest, body);
+        performanceMonitor.recordPartUploaded(key, 1, contentLength, elapsedMs(start));
+    }
+    
+    private void uploadMultipart(String key, InputStream inputStream, byte[] firstPart, String contentType)
+            throws IOException {
+        CreateMultipartUploadRequest createRequest = CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build();
+        String uploadId = s3Client.createMultipartUpload(createRequest).uploadId();
+        logger.debug("Started multipart upload for s3://{}/{} (uploadId: {})", bucketName, key, uploadId);
+        
+        Semaphore inFlight = new Semaphore(maxParallelParts);
+        AtomicBoolean partFailed = new AtomicBoolean(false);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            byte[] part = firstPart;
+            int partNumber = 1;
+            while (part.length > 0 && !partFailed.get()) {
+                // Bounds heap to maxParallelParts buffers per object
+                inFlight.acquire();
+                byte[] body = part;
+                int number = partNumber;
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> uploadPart(key, uploadId, number, body), partUploadExecutor)
+                        .whenComplete((completedPart, error) -> {
+                            if (error != null) {
+                                partFailed.set(true);
+                            }
+                            inFlight.release();
+                        }));
+                part = inputStream.readNBytes(partSizeBytes);
+                partNumber++;
+            }
+            
+            List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> future : parts) {
+                completedParts.add(future.join());
+            }
+            
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+            logger.debug("Completed multipart upload for s3://{}/{} ({} parts)", bucketName, key, completedParts.size());
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipart(key, uploadId, parts);
+            throw new IOException("Interrupted during multipart upload", e);
+        } catch (IOException e) {
+            abortMultipart(key, uploadId, parts);
+            throw e;
+        } catch (RuntimeException e) {
+            abortMultipart(key, uploadId, parts);
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private CompletedPart uploadPart(String key, String uploadId, int partNumber, byte[] body) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) body.length)
+                .build();
+        
+        long start = System.nanoTime();
+        UploadPartResponse response = s3Client.uploadPart(uploadPartRequest, bytesBody(body));
+        performanceMonitor.recordPartUploaded(key, partNumber, body.length, elapsedMs(start));
+        
+        return CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(response.eTag())
+                .build();
+    }
+    
+    private void abortMultipart(String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        // Let in-flight parts settle so none land after the abort
+        for (CompletableFuture<CompletedPart> future : parts) {
+            try {
+                future.join();
+            } catch (RuntimeException ignored) {
+                // Reported by the caller
+            }
+        }
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            logger.warn("Aborted multipart upload for s3://{}/{} (uploadId: {})", bucketName, key, uploadId);
+        } catch (RuntimeException e) {
+            logger.error("Failed to abort multipart upload for s3://{}/{} (uploadId: {})", bucketName, key, uploadId, e);
+        }
+    }
+    
+    /**
+     * Request body over an existing buffer; unlike RequestBody.fromBytes it does not copy.
+     */
+    private static RequestBody bytesBody(byte[] bytes) {
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(bytes), bytes.length,
+                "application/octet-stream");
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    }
+    
+    @Override
+    public String getBackendName() {
+        return "s3";
+    }
+    
     @Override
     public InputStream download(String key) {
         try {
@@ -0,0 +1,146 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker per storage backend.
+ *
+ * After failure-threshold consecutive upload failures the circuit opens and uploads to
+ * that backend are deferred instead of attempted, so a throttling or unavailable backend
+ * doesn't burn through every queued photo's retry budget. Once open-duration elapses a
+ * single trial upload is let through (half-open): success closes the circuit, failure
+ * opens it again.
+ */
+@Component
+public class StorageCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    public StorageCircuitBreaker(
+            @Value("${upload.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${upload.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be greater than 0");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Duration.ofMillis(openDurationMs);
+    }
+
+    /**
+     * Ask to start an upload to the given backend.
+     * Every granted request must be followed by {@link #recordSuccess} or {@link #recordFailure}.
+     * @return false if the circuit is open (or a half-open trial is already running)
+     */
+    public boolean tryAcquire(String backend) {
+        return circuit(backend).tryAcquire();
+    }
+
+    /**
+     * Record a successful upload; closes the circuit.
+     */
+    public void recordSuccess(String backend) {
+        circuit(backend).recordSuccess();
+    }
+
+    /**
+     * Record a failed upload; may open the circuit.
+     */
+    public void recordFailure(String backend) {
+        circuit(backend).recordFailure();
+    }
+
+    /**
+     * Time until an open circuit lets a trial upload through (zero if not open).
+     */
+    public Duration remainingOpenTime(String backend) {
+        return circuit(backend).remainingOpenTime();
+    }
+
+    /**
+     * Current circuit state for the given backend.
+     */
+    public State getState(String backend) {
+        return circuit(backend).state();
+    }
+
+    private Circuit circuit(String backend) {
+        return circuits.computeIfAbsent(backend, Circuit::new);
+    }
+
+    private final class Circuit {
+        private final String backend;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAtNanos;
+        private boolean trialInFlight;
+
+        Circuit(String backend) {
+            this.backend = backend;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDuration.toNanos()) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+                logger.info("Storage circuit for backend {} half-open, allowing a trial upload", backend);
+            }
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (trialInFlight) {
+                        return false;
+                    }
+                    trialInFlight = true;
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        synchronized void recordSuccess() {
+            if (state != State.CLOSED) {
+                logger.info("Storage circuit for backend {} closed", backend);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        synchronized void recordFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAtNanos = System.nanoTime();
+                trialInFlight = false;
+                logger.warn("Storage circuit for backend {} opened after {} consecutive failures, pausing uploads for {} ms",
+                    backend, consecutiveFailures, openDuration.toMillis());
+            }
+        }
+
+        synchronized Duration remainingOpenTime() {
+            if (state != State.OPEN) {
+                return Duration.ZERO;
+            }
+            long remaining = openDuration.toNanos() - (System.nanoTime() - openedAtNanos);
+            return Duration.ofNanos(Math.max(remaining, 0));
+        }
+
+        synchronized State state() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps concurrent in-flight uploads per storage backend.
+ *
+ * With a virtual-thread executor the pool size no longer bounds concurrency, so each
+ * backend gets its own semaphore instead. Limits come from
+ * upload.concurrency.{backend} (e.g. upload.concurrency.s3=128), falling back to
+ * upload.concurrency.default.
+ */
+@Component
+public class StorageConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageConcurrencyLimiter.class);
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Environment environment;
+    private final int defaultLimit;
+
+    public StorageConcurrencyLimiter(
+            Environment environment,
+            @Value("${upload.concurrency.default:64}") int defaultLimit) {
+        if (defaultLimit <= 0) {
+            throw new IllegalArgumentException("Default concurrency limit must be greater than 0");
+        }
+        this.environment = environment;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * Block until an upload slot is free for the given backend.
+     * @throws IllegalStateException if interrupted while waiting
+     */
+    public void acquire(String backend) {
+        try {
+            semaphore(backend).acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + backend + " upload slot", e);
+        }
+    }
+
+    /**
+     * Release an upload slot previously acquired for the given backend.
+     */
+    public void release(String backend) {
+        semaphore(backend).release();
+    }
+
+    /**
+     * Number of free upload slots for the given backend.
+     */
+    public int availablePermits(String backend) {
+        return semaphore(backend).availablePermits();
+    }
+
+    private Semaphore semaphore(String backend) {
+        return permits.computeIfAbsent(backend, name -> {
+            int limit = environment.getProperty("upload.concurrency." + name, Integer.class, defaultLimit);
+            logger.info("Storage concurrency limit for backend {}: {}", name, limit);
+            return new Semaphore(limit);
+        });
+    }
+}
@@ -1,66 +1,475 @@
 package com.rapidphotoupload.infrastructure.storage;
 
 import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.infrastructure.exceptions.TemporaryStorageFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Temporary in-memory storage for files during upload processing.
+ * Bounded temporary storage for files during upload processing.
  * Files are stored here until async processing completes.
+ *
+ * Files are streamed to a spool file through a FileChannel so heap usage stays bounded
+ * regardless of batch size; the OS page cache keeps recently written files cheap to read
+ * back. An optional in-memory budget keeps small files on heap instead. Once the total buffered bytes (heap +
+ * spool) reach the configured ceiling, new files are rejected with
+ * {@link TemporaryStorageFullException} so callers can apply backpressure.
+ *
+ * Spool files are the durable tier: they are written under a temporary name and renamed
+ * into place once complete, and are re-indexed at startup so queued uploads survive a
+ * restart. A spool file missing from the index (e.g. written by another instance sharing
+ * the spool directory) is picked up on first lookup. Heap-held files do not survive a
+ * restart, so the memory budget defaults to 0; only raise it where losing queued uploads
+ * on a restart is acceptable.
  */
 @Component
 public class TemporaryFileStorage {
-    
-    private final Map<String, byte[]> fileStorage = new ConcurrentHashMap<>();
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(TemporaryFileStorage.class);
+    private static final String SPOOL_SUFFIX = ".spool";
+    private static final String PARTIAL_SUFFIX = ".partial";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, StoredFile> fileStorage = new ConcurrentHashMap<>();
+
+    private final long memoryBudgetBytes;
+    private final long maxInMemoryFileBytes;
+    private final long maxBufferedBytes;
+    private final int retryAfterSeconds;
+    private final Path spoolDirectory;
+
+    // Gauges
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+    private final AtomicLong inMemoryBytes = new AtomicLong(0);
+    private final AtomicLong spilledBytes = new AtomicLong(0);
+
+    public TemporaryFileStorage(
+            @Value("${upload.temp-storage.memory-budget-bytes:0}") long memoryBudgetBytes,
+            @Value("${upload.temp-storage.max-in-memory-file-bytes:1048576}") long maxInMemoryFileBytes,
+            @Value("${upload.temp-storage.max-buffered-bytes:4294967296}") long maxBufferedBytes,
+            @Value("${upload.temp-storage.retry-after-seconds:5}") int retryAfterSeconds,
+            @Value("${upload.temp-storage.spool-directory:${java.io.tmpdir}/rapid-photo-upload-spool}") String spoolDirectory,
+            MeterRegistry registry,
+            @Value("${cloud.storage.type:local}") String storageType) {
+        if (memoryBudgetBytes < 0) {
+            throw new IllegalArgumentException("Memory budget cannot be negative");
+        }
+        if (maxBufferedBytes <= 0) {
+            throw new IllegalArgumentException("Max buffered bytes must be greater than 0");
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.maxInMemoryFileBytes = Math.min(maxInMemoryFileBytes, Integer.MAX_VALUE);
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.spoolDirectory = Paths.get(spoolDirectory);
+        try {
+            Files.createDirectories(this.spoolDirectory);
+            recoverSpoolFiles();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to initialize spool directory: " + this.spoolDirectory, e);
+        }
+        registerGauges(registry, storageType.toLowerCase(Locale.ROOT));
+        logger.info("Temporary file storage initialized (memory budget: {} bytes, ceiling: {} bytes, spool: {})",
+            memoryBudgetBytes, maxBufferedBytes, this.spoolDirectory.toAbsolutePath());
+    }
+
     /**
      * Store a file temporarily, keyed by PhotoId.
      * @param photoId Photo ID to use as key
      * @param file MultipartFile to store
+     * @return size and SHA-256 of the stored bytes
      * @throws IOException if file cannot be read
+     * @throws TemporaryStorageFullException if the buffered-bytes ceiling would be exceeded
      */
-    public void store(PhotoId photoId, MultipartFile file) throws IOException {
+    public StoredFileInfo store(PhotoId photoId, MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be null or empty");
         }
-        byte[] bytes = file.getBytes();
-        fileStorage.put(photoId.getValue().toString(), bytes);
+        try (InputStream in = file.getInputStream()) {
+            return store(photoId, in, file.getSize());
+        }
+    }
+
+    /**
+     * Stream content into temporary storage, computing size and SHA-256 on the fly.
+     * Content is copied through a fixed-size buffer; files larger than the per-file
+     * in-memory limit (or arriving once the memory budget is spent) go straight to a
+     * spool file, so heap usage per upload is bounded by the buffer size.
+     * @param photoId Photo ID to use as key
+     * @param content Stream positioned at the start of the file; not closed by this method
+     * @param expectedSize Declared size in bytes
+     * @return size and SHA-256 of the stored bytes
+     * @throws IOException if the stream cannot be read or is shorter/longer than declared
+     * @throws TemporaryStorageFullException if the buffered-bytes ceiling would be exceeded
+     */
+    public StoredFileInfo store(PhotoId photoId, InputStream content, long expectedSize) throws IOException {
+        if (expectedSize <= 0) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+        reserve(expectedSize);
+
+        MessageDigest digest = newSha256();
+        StoredFile stored;
+        try {
+            if (expectedSize <= maxInMemoryFileBytes && tryReserveMemory(expectedSize)) {
+                try {
+                    stored = StoredFile.inMemory(readToHeap(photoId, content, expectedSize, digest));
+                } catch (IOException | RuntimeException e) {
+                    inMemoryBytes.addAndGet(-expectedSize);
+                    throw e;
+                }
+            } else {
+                stored = StoredFile.spooled(spill(photoId, content, expectedSize, digest), expectedSize);
+                spilledBytes.addAndGet(expectedSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            bufferedBytes.addAndGet(-expectedSize);
+            throw e;
+        }
+
+        StoredFile previous = fileStorage.put(key(photoId), stored);
+        if (previous != null) {
+            release(previous);
+        }
+        return new StoredFileInfo(expectedSize, HexFormat.of().formatHex(digest.digest()));
     }
-    
+
     /**
      * Retrieve a stored file as InputStream.
      * @param photoId Photo ID key
      * @return InputStream of file bytes, or null if not found
      */
     public InputStream retrieve(PhotoId photoId) {
-        byte[] bytes = fileStorage.get(photoId.getValue().toString());
-        if (bytes == null) {
+        StoredFile stored = lookup(photoId);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.bytes() != null) {
+            return new ByteArrayInputStream(stored.bytes());
+        }
+        try {
+            return Channels.newInputStream(FileChannel.open(stored.path(), StandardOpenOption.READ));
+        } catch (IOException e) {
+            logger.error("Failed to open spool file for photo: {}", photoId.getValue(), e);
             return null;
         }
-        return new ByteArrayInputStream(bytes);
     }
-    
+
+    /**
+     * Path of the spool file backing a stored photo, if it was spilled to disk.
+     * Lets storage clients read the file directly (e.g. asynchronously) instead of via a stream.
+     * @param photoId Photo ID key
+     * @return spool file path, or empty if the file is held in memory or not found
+     */
+    public Optional<Path> spoolFile(PhotoId photoId) {
+        StoredFile stored = lookup(photoId);
+        return stored == null ? Optional.empty() : Optional.ofNullable(stored.path());
+    }
+
     /**
      * Remove a stored file.
      * @param photoId Photo ID key
      */
     public void remove(PhotoId photoId) {
-        fileStorage.remove(photoId.getValue().toString());
+        StoredFile stored = fileStorage.remove(key(photoId));
+        if (stored != null) {
+            release(stored);
+            return;
+        }
+        // Not indexed here, but another instance sharing the spool directory may have written it
+        try {
+            Files.deleteIfExists(spoolPath(photoId));
+        } catch (IOException e) {
+            logger.warn("Failed to delete spool file for photo: {}", photoId.getValue(), e);
+        }
     }
-    
+
     /**
      * Check if a file exists.
      * @param photoId Photo ID key
      * @return true if file exists
      */
     public boolean exists(PhotoId photoId) {
-        return fileStorage.containsKey(photoId.getValue().toString());
+        return lookup(photoId) != null;
     }
-}
 
+    /**
+     * Photos whose files are buffered on this instance and were stored before the cutoff.
+     * Used to sweep files that are no longer needed (finished, or failed past retention).
+     */
+    public Set<PhotoId> storedBefore(Instant cutoff) {
+        Set<PhotoId> ids = new HashSet<>();
+        fileStorage.forEach((key, stored) -> {
+            if (stored.storedAt().isBefore(cutoff)) {
+                ids.add(PhotoId.from(UUID.fromString(key)));
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Check whether the given number of bytes can currently be buffered
+     * without exceeding the ceiling. Used to reject a whole batch up front.
+     */
+    public boolean hasCapacityFor(long bytes) {
+        return bufferedBytes.get() + bytes <= maxBufferedBytes;
+    }
+
+    /**
+     * Suggested client back-off (seconds) when storage is full.
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Total bytes currently buffered (heap + spool).
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    /**
+     * Bytes currently held on heap.
+     */
+    public long getInMemoryBytes() {
+        return inMemoryBytes.get();
+    }
+
+    /**
+     * Bytes currently spilled to spool files.
+     */
+    public long getSpilledBytes() {
+        return spilledBytes.get();
+    }
+
+    /**
+     * Expose buffered, spilled and in-memory bytes (and the ceiling) so spool pressure shows
+     * up next to the other upload metrics.
+     */
+    private void registerGauges(MeterRegistry registry, String storage) {
+        gauge(registry, storage, "upload.temp.buffered.bytes", "Bytes buffered for upload (heap + spool)",
+            bufferedBytes);
+        gauge(registry, storage, "upload.temp.spilled.bytes", "Bytes buffered in spool files", spilledBytes);
+        gauge(registry, storage, "upload.temp.in.memory.bytes", "Bytes buffered on heap", inMemoryBytes);
+        Gauge.builder("upload.temp.max.bytes", () -> maxBufferedBytes)
+            .description("Ceiling for buffered bytes; batches beyond it are rejected")
+            .baseUnit("bytes")
+            .tag("storage", storage)
+            .register(registry);
+    }
+
+    private static void gauge(MeterRegistry registry, String storage, String name, String description,
+                              AtomicLong value) {
+        Gauge.builder(name, value, AtomicLong::get)
+            .description(description)
+            .baseUnit("bytes")
+            .tag("storage", storage)
+            .register(registry);
+    }
+
+    private void reserve(long size) {
+        while (true) {
+            long current = bufferedBytes.get();
+            if (current + size > maxBufferedBytes) {
+                throw new TemporaryStorageFullException(current, maxBufferedBytes, retryAfterSeconds);
+            }
+            if (bufferedBytes.compareAndSet(current, current + size)) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryReserveMemory(long size) {
+        while (true) {
+            long current = inMemoryBytes.get();
+            if (current + size > memoryBudgetBytes) {
+                return false;
+            }
+            if (inMemoryBytes.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    private byte[] readToHeap(PhotoId photoId, InputStream content, long size, MessageDigest digest) throws IOException {
+        byte[] bytes = new byte[(int) size];
+        int offset = 0;
+        while (offset < bytes.length) {
+            int read = content.read(bytes, offset, Math.min(BUFFER_SIZE, bytes.length - offset));
+            if (read < 0) {
+                throw new IOException("Unexpected end of upload stream for photo: " + photoId.getValue());
+            }
+            digest.update(bytes, offset, read);
+            offset += read;
+        }
+        if (content.read() != -1) {
+            throw new IOException("Upload stream longer than declared size for photo: " + photoId.getValue());
+        }
+        return bytes;
+    }
+
+    private StoredFile lookup(PhotoId photoId) {
+        StoredFile stored = fileStorage.get(key(photoId));
+        if (stored != null) {
+            return stored;
+        }
+        Path path = spoolPath(photoId);
+        try {
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            return index(photoId, path, Files.size(path), Files.getLastModifiedTime(path).toInstant());
+        } catch (IOException e) {
+            logger.warn("Failed to read spool file for photo: {}", photoId.getValue(), e);
+            return null;
+        }
+    }
+
+    private StoredFile index(PhotoId photoId, Path path, long size, Instant storedAt) {
+        StoredFile spooled = new StoredFile(null, path, size, storedAt);
+        StoredFile existing = fileStorage.putIfAbsent(key(photoId), spooled);
+        if (existing != null) {
+            return existing;
+        }
+        bufferedBytes.addAndGet(size);
+        spilledBytes.addAndGet(size);
+        return spooled;
+    }
+
+    private Path spoolPath(PhotoId photoId) {
+        return spoolDirectory.resolve(key(photoId) + SPOOL_SUFFIX);
+    }
+
+    private Path spill(PhotoId photoId, InputStream content, long size, MessageDigest digest) throws IOException {
+        Path path = spoolPath(photoId);
+        Path partial = spoolDirectory.resolve(key(photoId) + PARTIAL_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel target = FileChannel.open(partial,
+                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long written = 0;
+            int read;
+            while ((read = content.read(buffer.array())) != -1) {
+                digest.update(buffer.array(), 0, read);
+                buffer.limit(read);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+                written += read;
+                if (written > size) {
+                    throw new IOException("Upload stream longer than declared size for photo: " + photoId.getValue());
+                }
+            }
+            if (written != size) {
+                throw new IOException("Unexpected end of upload stream for photo: " + photoId.getValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        // Only complete files ever carry the spool suffix, so recovery never sees a torn write
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Spilled {} bytes to spool file for photo: {}", size, photoId.getValue());
+        return path;
+    }
+
+    private void release(StoredFile stored) {
+        bufferedBytes.addAndGet(-stored.size());
+        if (stored.bytes() != null) {
+            inMemoryBytes.addAndGet(-stored.size());
+            return;
+        }
+        spilledBytes.addAndGet(-stored.size());
+        try {
+            Files.deleteIfExists(stored.path());
+        } catch (IOException e) {
+            logger.warn("Failed to delete spool file: {}", stored.path(), e);
+        }
+    }
+
+    private void recoverSpoolFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolDirectory, "*" + PARTIAL_SUFFIX)) {
+            for (Path partial : stream) {
+                Files.deleteIfExists(partial);
+                logger.info("Deleted incomplete spool file: {}", partial);
+            }
+        }
+        int recovered = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolDirectory, "*" + SPOOL_SUFFIX)) {
+            for (Path spooled : stream) {
+                String name = spooled.getFileName().toString();
+                try {
+                    PhotoId photoId = PhotoId.from(UUID.fromString(name.substring(0, name.length() - SPOOL_SUFFIX.length())));
+                    index(photoId, spooled, Files.size(spooled), Files.getLastModifiedTime(spooled).toInstant());
+                    recovered++;
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring unrecognized file in spool directory: {}", spooled);
+                }
+            }
+        }
+        if (recovered > 0) {
+            logger.info("Recovered {} spool files ({} bytes) from previous run", recovered, spilledBytes.get());
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String key(PhotoId photoId) {
+        return photoId.getValue().toString();
+    }
+
+    /**
+     * Size and content hash of a stored file.
+     */
+    public record StoredFileInfo(long size, String sha256) {}
+
+    /**
+     * A buffered file: either heap bytes or a spool file path.
+     */
+    private record StoredFile(byte[] bytes, Path path, long size, Instant storedAt) {
+        static StoredFile inMemory(byte[] bytes) {
+            return new StoredFile(bytes, null, bytes.length, Instant.now());
+        }
+
+        static StoredFile spooled(Path path, long size) {
+            return new StoredFile(null, path, size, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import java.time.Duration;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Turns byte counts of one upload into percentage callbacks, rate-limited.
+ * A percentage is emitted when it has advanced by at least minStep points since the last
+ * one, or by any amount once minInterval has passed, so fast uploads report in steps and
+ * slow ones still move regularly. Only 1-99 are emitted: the start and the end of an
+ * upload are reported by the caller together with the photo status. Percentages never
+ * go backwards, even if the backend restarts a transfer.
+ */
+public class ThrottledUploadProgress implements UploadProgressListener {
+
+    private final long totalBytes;
+    private final int minStep;
+    private final long minIntervalNanos;
+    private final IntConsumer callback;
+    private final LongSupplier nanoClock;
+    private int lastPercentage;
+    private long lastEmitNanos;
+
+    public ThrottledUploadProgress(long totalBytes, int minStep, Duration minInterval, IntConsumer callback) {
+        this(totalBytes, minStep, minInterval, callback, System::nanoTime);
+    }
+
+    ThrottledUploadProgress(long totalBytes, int minStep, Duration minInterval, IntConsumer callback,
+                            LongSupplier nanoClock) {
+        this.totalBytes = totalBytes;
+        this.minStep = minStep;
+        this.minIntervalNanos = minInterval.toNanos();
+        this.callback = callback;
+        this.nanoClock = nanoClock;
+        this.lastEmitNanos = nanoClock.getAsLong();
+    }
+
+    @Override
+    public void onProgress(long bytesTransferred) {
+        if (totalBytes <= 0) {
+            return;
+        }
+        int percentage = (int) Math.min(99, bytesTransferred * 100 / totalBytes);
+        int emit;
+        synchronized (this) {
+            if (percentage <= lastPercentage) {
+                return;
+            }
+            long now = nanoClock.getAsLong();
+            if (percentage - lastPercentage < minStep && now - lastEmitNanos < minIntervalNanos) {
+                return;
+            }
+            lastPercentage = percentage;
+            lastEmitNanos = now;
+            emit = percentage;
+        }
+        callback.accept(emit);
+    }
+}
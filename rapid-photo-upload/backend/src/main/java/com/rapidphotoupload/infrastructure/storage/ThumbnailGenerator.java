@@ -0,0 +1,255 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.entities.PhotoMetadata;
+import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.StorageKey;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Generates downscaled JPEG renditions of completed photos so galleries don't download
+ * full-resolution originals.
+ *
+ * Runs on its own bounded executor after an upload completes; resizing is CPU-heavy and
+ * must not hold upload threads. The original is decoded once with ImageReader source
+ * subsampling, so only about (width / n) x (height / n) pixels are ever in memory rather
+ * than the full image, and every rendition is scaled from that decoded copy.
+ *
+ * The smallest rendition becomes the photo's thumbnail_storage_key; larger ones are stored
+ * next to it under thumbnails/{prefix}/{photoId}/{size}.jpg. Generation is best effort:
+ * photos whose format ImageIO can't read, or whose task was rejected, keep serving the original.
+ */
+@Component
+public class ThumbnailGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailGenerator.class);
+
+    private static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final CloudStorageService storageService;
+    private final PhotoRepository photoRepository;
+    private final Executor thumbnailExecutor;
+    private final int[] sizes;
+    private final long maxDecodedPixels;
+
+    public ThumbnailGenerator(
+            CloudStorageService storageService,
+            PhotoRepository photoRepository,
+            @Qualifier("thumbnailExecutor") Executor thumbnailExecutor,
+            @Value("${thumbnail.sizes:320,1280}") int[] sizes,
+            @Value("${thumbnail.max-decoded-pixels:16000000}") long maxDecodedPixels) {
+        if (sizes.length == 0 || Arrays.stream(sizes).anyMatch(size -> size <= 0)) {
+            throw new IllegalArgumentException("Thumbnail sizes must be greater than 0");
+        }
+        if (maxDecodedPixels <= 0) {
+            throw new IllegalArgumentException("Max decoded pixels must be greater than 0");
+        }
+        this.storageService = storageService;
+        this.photoRepository = photoRepository;
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.sizes = Arrays.stream(sizes).sorted().distinct().toArray();
+        this.maxDecodedPixels = maxDecodedPixels;
+    }
+
+    /**
+     * Queue thumbnail generation for a completed photo.
+     * Returns immediately; failures are logged and leave the photo without a thumbnail.
+     */
+    public void submit(PhotoId photoId, String storageKey) {
+        try {
+            thumbnailExecutor.execute(() -> generate(photoId, storageKey));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Thumbnail queue full, skipping thumbnails for photo {}", photoId.getValue());
+        }
+    }
+
+    private void generate(PhotoId photoId, String storageKey) {
+        long start = System.nanoTime();
+        try {
+            Optional<Renditions> renditions;
+            try (InputStream original = storageService.download(storageKey)) {
+                renditions = render(original, sizes, maxDecodedPixels);
+            }
+            if (renditions.isEmpty()) {
+                logger.debug("No image reader for photo {}, skipping thumbnails", photoId.getValue());
+                return;
+            }
+
+            String thumbnailKey = null;
+            for (Map.Entry<Integer, byte[]> rendition : renditions.get().images().entrySet()) {
+                byte[] bytes = rendition.getValue();
+                String key = renditionKey(photoId, rendition.getKey());
+                storageService.upload(key, new ByteArrayInputStream(bytes), bytes.length, RENDITION_CONTENT_TYPE);
+                if (thumbnailKey == null) {
+                    thumbnailKey = key;
+                }
+            }
+
+            Optional<Photo> found = photoRepository.findById(photoId);
+            if (found.isEmpty() || found.get().getStatus() != UploadStatus.COMPLETED) {
+                logger.debug("Photo {} no longer completed, discarding thumbnails", photoId.getValue());
+                return;
+            }
+            Photo photo = found.get();
+            photo.setThumbnailStorageKey(StorageKey.from(thumbnailKey));
+            PhotoMetadata metadata = photo.getMetadata() != null ? photo.getMetadata() : new PhotoMetadata();
+            metadata.setWidth(renditions.get().width());
+            metadata.setHeight(renditions.get().height());
+            photo.updateMetadata(metadata);
+            photoRepository.save(photo);
+
+            logger.debug("Generated {} thumbnails for photo {} ({}x{}) in {} ms",
+                renditions.get().images().size(), photoId.getValue(),
+                renditions.get().width(), renditions.get().height(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Failed to generate thumbnails for photo {}: {}", photoId.getValue(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decode an image once at reduced resolution and encode a JPEG rendition per size.
+     * @param sizes Long-edge sizes in pixels, ascending
+     * @return renditions keyed by size, or empty if no ImageIO reader understands the input
+     */
+    static Optional<Renditions> render(InputStream original, int[] sizes, long maxDecodedPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original)) {
+            if (input == null) {
+                return Optional.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsampling(width, height, sizes[sizes.length - 1], maxDecodedPixels);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                Map<Integer, byte[]> images = new LinkedHashMap<>();
+                for (int size : sizes) {
+                    images.put(size, encodeJpeg(scaleToLongEdge(decoded, size)));
+                }
+                return Optional.of(new Renditions(width, height, images));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Largest source subsampling factor that still decodes at least targetLongEdge pixels on
+     * the long edge, raised further if needed to keep the decoded image within maxDecodedPixels.
+     */
+    static int subsampling(int width, int height, int targetLongEdge, long maxDecodedPixels) {
+        int subsampling = Math.max(1, Math.max(width, height) / targetLongEdge);
+        while ((long) ceilDiv(width, subsampling) * ceilDiv(height, subsampling) > maxDecodedPixels) {
+            subsampling++;
+        }
+        return subsampling;
+    }
+
+    /**
+     * Scale so the long edge is at most longEdge pixels, never upscaling, onto an opaque RGB
+     * canvas (JPEG has no alpha).
+     */
+    static BufferedImage scaleToLongEdge(BufferedImage source, int longEdge) {
+        double scale = Math.min(1.0, (double) longEdge / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        // Halve in steps first; a single bilinear pass over a large ratio drops most pixels
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Storage key of one rendition.
+     * Format: thumbnails/{first 2 chars of photoId}/{photoId}/{size}.jpg
+     */
+    private static String renditionKey(PhotoId photoId, int size) {
+        String id = photoId.getValue().toString();
+        return String.format("thumbnails/%s/%s/%d.jpg", id.substring(0, 2), id, size);
+    }
+
+    /**
+     * Encoded renditions of one image with the original's dimensions.
+     */
+    record Renditions(int width, int height, Map<Integer, byte[]> images) {
+        Renditions {
+            images = Collections.unmodifiableMap(new LinkedHashMap<>(images));
+        }
+    }
+}
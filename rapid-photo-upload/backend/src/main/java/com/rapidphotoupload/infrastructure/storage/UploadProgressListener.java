@@ -0,0 +1,15 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+/**
+ * Receives the number of bytes of an upload handed to the storage backend so far.
+ * Called from whichever thread moves the bytes (a stream reader or an I/O event loop),
+ * so implementations must be cheap and must not block.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * @param bytesTransferred Bytes sent so far; may start over from 0 if the backend retries
+     */
+    void onProgress(long bytesTransferred);
+}
@@ -0,0 +1,28 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * ProgressBus for a single instance: messages are handed straight to the local receivers.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.progress.bus", havingValue = "local", matchIfMissing = true)
+public class InProcessProgressBus implements ProgressBus {
+
+    private final List<BiConsumer<String, String>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String userId, String message) {
+        receivers.forEach(receiver -> receiver.accept(userId, message));
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, String> receiver) {
+        receivers.add(receiver);
+    }
+}
@@ -0,0 +1,250 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import com.rapidphotoupload.domain.valueobjects.JobProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces upload progress of a job into periodic WebSocket frames.
+ *
+ * Upload workers record photo states and job counters here instead of sending a message
+ * for each; every flush interval each job with changes gets one job_batch frame carrying
+ * its latest counters and the latest state of every photo that changed since the previous
+ * frame. A 100-photo job thus costs a frame per interval rather than ~300 messages. The
+ * counters come from the atomic increment that counted each photo outcome, so no database
+ * read is needed to build a frame. The frame that completes a job is sent immediately.
+ *
+ * Photos uploaded outside a job are rare and sent straight away as photo_progress.
+ */
+@Component
+public class JobProgressAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobProgressAggregator.class);
+
+    static final String BATCH_TYPE = "job_batch";
+
+    // Keeps a frame well under the 8000-byte NOTIFY limit of PostgresProgressBus
+    static final int MAX_PHOTOS_PER_FRAME = 50;
+
+    // Buffers are dropped once idle this long, finished or not
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(2);
+
+    private final ProgressWebSocketHandler webSocketHandler;
+    private final LongSupplier nanoClock;
+    private final Map<String, JobBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JobProgressAggregator(ProgressWebSocketHandler webSocketHandler) {
+        this(webSocketHandler, System::nanoTime);
+    }
+
+    JobProgressAggregator(ProgressWebSocketHandler webSocketHandler, LongSupplier nanoClock) {
+        this.webSocketHandler = webSocketHandler;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Record the state of a photo.
+     * @param jobId Job the photo belongs to, or null for a single upload (sent immediately)
+     * @param percentage Upload progress, 0-100
+     * @param status Photo status (UPLOADING, COMPLETED, FAILED)
+     */
+    public void photoProgress(String userId, String jobId, String photoId, int percentage, String status) {
+        if (jobId == null) {
+            webSocketHandler.sendProgressUpdate(userId, new ProgressWebSocketHandler.ProgressMessage(
+                "photo_progress", photoId, null, percentage, 100, status));
+            return;
+        }
+        JobBuffer buffer = buffer(jobId, userId);
+        long now = nanoClock.getAsLong();
+        while (!buffer.recordPhoto(photoId, percentage, status, now)) {
+            buffer = replaceRetired(jobId, userId, buffer);
+        }
+    }
+
+    /**
+     * Record the job's counters after a photo outcome was counted.
+     * The increment that finished the job flushes the job's frame right away.
+     */
+    public void jobProgress(JobProgress progress) {
+        String jobId = progress.jobId().getValue().toString();
+        String userId = progress.userId().getValue().toString();
+        JobBuffer buffer = buffer(jobId, userId);
+        long now = nanoClock.getAsLong();
+        while (!buffer.recordCounters(progress, now)) {
+            buffer = replaceRetired(jobId, userId, buffer);
+        }
+        if (progress.justFinished()) {
+            // Left for the idle expiry: outcomes of other workers may still be recorded
+            flush(jobId, buffer);
+        }
+    }
+
+    /**
+     * Send one frame for every job that changed since its last frame.
+     */
+    @Scheduled(fixedDelayString = "${websocket.progress.flush-interval-ms:250}")
+    public void flush() {
+        long now = nanoClock.getAsLong();
+        buffers.forEach((jobId, buffer) -> {
+            if (!flush(jobId, buffer) && buffer.retireIfIdle(now, IDLE_EXPIRY.toNanos())) {
+                buffers.remove(jobId, buffer);
+                logger.debug("Dropped idle progress buffer of job {}", jobId);
+            }
+        });
+    }
+
+    /**
+     * Number of jobs currently buffered.
+     */
+    public int getBufferedJobCount() {
+        return buffers.size();
+    }
+
+    private JobBuffer buffer(String jobId, String userId) {
+        return buffers.computeIfAbsent(jobId, id -> new JobBuffer(userId, nanoClock.getAsLong()));
+    }
+
+    // The buffer was retired between lookup and record; it may still be mapped until the flush
+    // that retired it removes it, so drop it here rather than wait for that
+    private JobBuffer replaceRetired(String jobId, String userId, JobBuffer retired) {
+        buffers.remove(jobId, retired);
+        return buffer(jobId, userId);
+    }
+
+    private boolean flush(String jobId, JobBuffer buffer) {
+        // Handed off under the buffer's lock so a job's frames reach the sender in order;
+        // sendMessage only serializes and queues
+        synchronized (buffer) {
+            List<JobProgressBatch> frames = buffer.drain(jobId);
+            for (JobProgressBatch frame : frames) {
+                webSocketHandler.sendMessage(buffer.userId, frame);
+                logger.debug("Sent progress frame for job {}: {} photos, {}/{} completed",
+                    jobId, frame.photos().size(), frame.completed(), frame.total());
+            }
+            return !frames.isEmpty();
+        }
+    }
+
+    /**
+     * Changes of one job since its last frame. Never locked during I/O.
+     */
+    private static final class JobBuffer {
+        private final String userId;
+        private Map<String, PhotoState> photos = new LinkedHashMap<>();
+        private JobProgress counters;
+        private boolean countersChanged;
+        private long lastUpdateNanos;
+        // Set once dropped as idle; later records must go to a fresh buffer
+        private boolean retired;
+
+        JobBuffer(String userId, long now) {
+            this.userId = userId;
+            this.lastUpdateNanos = now;
+        }
+
+        /**
+         * @return false if the buffer was retired and nothing was recorded
+         */
+        synchronized boolean recordPhoto(String photoId, int percentage, String status, long now) {
+            if (retired) {
+                return false;
+            }
+            // Only the latest state of a photo is sent
+            photos.remove(photoId);
+            photos.put(photoId, new PhotoState(photoId, percentage, status));
+            lastUpdateNanos = now;
+            return true;
+        }
+
+        /**
+         * @return false if the buffer was retired and nothing was recorded
+         */
+        synchronized boolean recordCounters(JobProgress progress, long now) {
+            if (retired) {
+                return false;
+            }
+            // Increments may be reported out of order; keep the most advanced snapshot
+            if (counters == null || outcomes(progress) >= outcomes(counters)) {
+                counters = progress;
+                countersChanged = true;
+            }
+            lastUpdateNanos = now;
+            return true;
+        }
+
+        /**
+         * Frames for the changes since the last drain, in chunks of MAX_PHOTOS_PER_FRAME
+         * photos; each carries the current counters.
+         */
+        synchronized List<JobProgressBatch> drain(String jobId) {
+            if (photos.isEmpty() && !countersChanged) {
+                return List.of();
+            }
+            List<PhotoState> changed = new ArrayList<>(photos.values());
+            photos = new LinkedHashMap<>();
+            countersChanged = false;
+            List<JobProgressBatch> frames = new ArrayList<>();
+            int from = 0;
+            do {
+                int to = Math.min(changed.size(), from + MAX_PHOTOS_PER_FRAME);
+                frames.add(new JobProgressBatch(
+                    BATCH_TYPE,
+                    jobId,
+                    counters != null ? counters.completedPhotos() : null,
+                    counters != null ? counters.failedPhotos() : null,
+                    counters != null ? counters.totalPhotos() : null,
+                    counters != null ? counters.status().name() : null,
+                    List.copyOf(changed.subList(from, to))));
+                from = to;
+            } while (from < changed.size());
+            return frames;
+        }
+
+        /**
+         * Retire the buffer if nothing is pending and it has been idle longer than expiryNanos.
+         * Checked under the lock so a change recorded concurrently is never dropped with it.
+         */
+        synchronized boolean retireIfIdle(long now, long expiryNanos) {
+            if (!photos.isEmpty() || countersChanged || now - lastUpdateNanos <= expiryNanos) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+
+        private static int outcomes(JobProgress progress) {
+            return progress.completedPhotos() + progress.failedPhotos();
+        }
+    }
+
+    /**
+     * Frame with a job's latest counters (null until the first photo outcome of the job
+     * was seen) and the photos that changed since the previous frame.
+     */
+    public record JobProgressBatch(
+        String type,
+        String jobId,
+        Integer completed,
+        Integer failed,
+        Integer total,
+        String status,
+        List<PhotoState> photos
+    ) {}
+
+    /**
+     * Latest state of one photo within a frame.
+     */
+    public record PhotoState(String photoId, int progress, String status) {}
+}
@@ -0,0 +1,240 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * ProgressBus across instances over PostgreSQL LISTEN/NOTIFY.
+ *
+ * publish() only queues the message. A sender thread waits batch-window-ms after the first
+ * queued message, then packs everything queued into as few NOTIFY payloads as fit the
+ * 8000-byte limit, so a burst of frames costs a handful of notifications. Since
+ * JobProgressAggregator already sends at most one frame per job per flush interval,
+ * notification traffic is bounded by the number of active jobs rather than by photos.
+ *
+ * A listener thread holds its own connection outside the pool (LISTEN is per session and
+ * the connection never goes idle) and reconnects with backoff when it is lost. Messages
+ * published while it is disconnected are not received by this instance.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.progress.bus", havingValue = "postgres")
+public class PostgresProgressBus implements ProgressBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresProgressBus.class);
+
+    static final String CHANNEL = "upload_progress";
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final long batchWindowMs;
+    private final BlockingQueue<String> outbound;
+    private final List<BiConsumer<String, String>> receivers = new CopyOnWriteArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread sender;
+    private Thread listener;
+
+    @Autowired
+    public PostgresProgressBus(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            @Value("${websocket.progress.bus.batch-window-ms:50}") long batchWindowMs,
+            @Value("${websocket.progress.bus.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.batchWindowMs = batchWindowMs;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void publish(String userId, String message) {
+        String envelope;
+        try {
+            // Message is already JSON and is embedded as is
+            envelope = "{\"u\":" + objectMapper.writeValueAsString(userId) + ",\"m\":" + message + "}";
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to encode progress message for user {}: {}", userId, e.getMessage());
+            return;
+        }
+        if (!outbound.offer(envelope) && dropped.incrementAndGet() % 1000 == 1) {
+            logger.warn("Progress notification queue full, {} messages dropped so far", dropped.get());
+        }
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, String> receiver) {
+        receivers.add(receiver);
+    }
+
+    /**
+     * Start sending and listening once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        sender = startThread("progress-notify-sender", this::sendLoop);
+        listener = startThread("progress-notify-listener", this::listenLoop);
+        logger.info("Postgres progress bus started on channel {} (batch window: {} ms)", CHANNEL, batchWindowMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (sender != null) {
+            sender.interrupt();
+        }
+        if (listener != null) {
+            listener.interrupt();
+        }
+        logger.info("Postgres progress bus stopped ({} messages dropped)", dropped.get());
+    }
+
+    private void sendLoop() {
+        List<String> batch = new ArrayList<>();
+        while (running) {
+            try {
+                String first = outbound.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Let the rest of a burst arrive so it shares notifications
+                Thread.sleep(batchWindowMs);
+                outbound.drainTo(batch);
+                for (String payload : pack(batch, MAX_PAYLOAD_BYTES)) {
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish {} progress messages: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void listenLoop() {
+        long delayMs = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                logger.info("Listening for progress notifications on channel {}", CHANNEL);
+                delayMs = 1000;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Progress listener connection lost, reconnecting in {} ms: {}", delayMs, e.getMessage());
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delayMs = Math.min(delayMs * 2, MAX_RECONNECT_DELAY.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Hand every message of a notification payload to the receivers.
+     */
+    void dispatch(String payload) {
+        try {
+            for (JsonNode envelope : objectMapper.readTree(payload)) {
+                String userId = envelope.path("u").asText();
+                String message = envelope.path("m").toString();
+                receivers.forEach(receiver -> receiver.accept(userId, message));
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Ignoring malformed progress notification: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pack envelopes into JSON array payloads of at most maxBytes UTF-8 bytes, in order.
+     * An envelope too large for any payload is dropped.
+     */
+    static List<String> pack(List<String> envelopes, int maxBytes) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder();
+        int payloadBytes = 0;
+        for (String envelope : envelopes) {
+            int envelopeBytes = envelope.getBytes(StandardCharsets.UTF_8).length;
+            if (envelopeBytes + 2 > maxBytes) {
+                logger.warn("Dropping progress message of {} bytes, over the notification limit", envelopeBytes);
+                continue;
+            }
+            // Brackets plus a separating comma
+            if (payloadBytes > 0 && payloadBytes + envelopeBytes + 2 > maxBytes) {
+                payloads.add(payload.append(']').toString());
+                payload.setLength(0);
+                payloadBytes = 0;
+            }
+            payload.append(payloadBytes == 0 ? '[' : ',').append(envelope);
+            payloadBytes += envelopeBytes + 1;
+        }
+        if (payloadBytes > 0) {
+            payloads.add(payload.append(']').toString());
+        }
+        return payloads;
+    }
+
+    private static Thread startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,27 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Carries serialized progress messages to the instances holding the users' WebSocket
+ * sessions. Every message published is delivered to the receivers of every instance,
+ * including the publishing one; each then sends it to its own sessions of the user.
+ *
+ * The implementation is selected with websocket.progress.bus: "local" (default) for a
+ * single instance, "postgres" to fan out across instances with LISTEN/NOTIFY. Delivery is
+ * best-effort; progress is superseded by the next update and the final state is persisted.
+ */
+public interface ProgressBus {
+
+    /**
+     * Publish a message for a user. Must not block the caller.
+     * @param userId User whose sessions should receive the message
+     * @param message Serialized JSON message
+     */
+    void publish(String userId, String message);
+
+    /**
+     * Register a receiver of (userId, message) for the messages delivered to this instance.
+     */
+    void subscribe(BiConsumer<String, String> receiver);
+}
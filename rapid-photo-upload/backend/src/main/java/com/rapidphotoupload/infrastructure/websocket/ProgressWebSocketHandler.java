@@ -3,37 +3,73 @@ package com.rapidphotoupload.infrastructure.websocket;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rapidphotoupload.domain.events.PhotoUploadProgressed;
 import com.rapidphotoupload.domain.events.UploadJobProgressed;
-import com.rapidphotoupload.domain.repositories.PhotoRepository;
 import com.rapidphotoupload.domain.repositories.UploadJobRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * WebSocket handler for real-time upload progress updates.
+ *
+ * A user may have any number of sessions open (several tabs, or every anonymous client,
+ * which all share one user ID), and each receives every update for that user. Sessions are
+ * wrapped in ConcurrentWebSocketSessionDecorator, which queues messages while another send
+ * is in progress within a bounded buffer and send-time limit. Sends run on
+ * progressSendExecutor, so upload workers only serialize the message and hand it off: no
+ * lock is shared between sessions and a slow client never blocks the caller.
+ *
+ * Messages go out through the ProgressBus, so with several instances they reach the
+ * sessions of the user on every instance, not only the one that produced them.
  */
 @Component
 public class ProgressWebSocketHandler extends TextWebSocketHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(ProgressWebSocketHandler.class);
     
-    private final Map<String, WebSocketSession> userSessions = new ConcurrentHashMap<>();
+    // userId -> (sessionId -> decorated session)
+    private final Map<String, Map<String, WebSocketSession>> userSessions = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final PhotoRepository photoRepository;
     private final UploadJobRepository uploadJobRepository;
+    // Provider because the aggregator sends through this handler
+    private final ObjectProvider<JobProgressAggregator> progressAggregator;
+    private final ProgressBus progressBus;
+    private final Executor sendExecutor;
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
     
-    public ProgressWebSocketHandler(PhotoRepository photoRepository, UploadJobRepository uploadJobRepository) {
-        this.photoRepository = photoRepository;
+    @Autowired
+    public ProgressWebSocketHandler(
+            UploadJobRepository uploadJobRepository,
+            ObjectProvider<JobProgressAggregator> progressAggregator,
+            ProgressBus progressBus,
+            @Qualifier("progressSendExecutor") Executor sendExecutor,
+            @Value("${websocket.progress.send-time-limit-ms:5000}") int sendTimeLimitMs,
+            @Value("${websocket.progress.send-buffer-size-limit:524288}") int sendBufferSizeLimit) {
         this.uploadJobRepository = uploadJobRepository;
+        this.progressAggregator = progressAggregator;
+        this.progressBus = progressBus;
+        this.sendExecutor = sendExecutor;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        progressBus.subscribe(this::deliver);
     }
     
     @Override
@@ -41,7 +77,14 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
         // Extract user ID from session attributes (set by interceptor)
         String userId = (String) session.getAttributes().get("userId");
         if (userId != null) {
-            userSessions.put(userId, session);
+            // Progress updates supersede each other, so on overflow the oldest are dropped
+            WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMs, sendBufferSizeLimit, OverflowStrategy.DROP);
+            userSessions.compute(userId, (id, sessions) -> {
+                Map<String, WebSocketSession> updated = sessions != null ? sessions : new ConcurrentHashMap<>();
+                updated.put(session.getId(), decorated);
+                return updated;
+            });
             logger.info("WebSocket session established for user: {} (sessionId: {})", userId, session.getId());
         } else {
             logger.warn("WebSocket session established without userId (sessionId: {})", session.getId());
@@ -52,7 +95,9 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         // Remove session when connection closes
         String userId = (String) session.getAttributes().get("userId");
-        userSessions.entrySet().removeIf(entry -> entry.getValue().equals(session));
+        if (userId != null) {
+            removeSession(userId, session.getId());
+        }
         logger.info("WebSocket session closed for user: {} (sessionId: {}, status: {})", 
                     userId, session.getId(), status);
     }
@@ -65,14 +110,17 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
     
     /**
      * Listen to PhotoUploadProgressed domain events and send to connected clients.
+     * Runs on the thread that moves the bytes, so it only hands the update to the
+     * aggregator, which coalesces updates of job photos into the job's next frame.
      */
     @EventListener
     public void handlePhotoUploadProgressed(PhotoUploadProgressed event) {
-        // Get photo to find user
-        photoRepository.findById(event.photoId()).ifPresent(photo -> {
-            String userId = photo.getUploadedBy().getUserId().toString();
-            sendProgressUpdate(userId, createProgressMessage(event));
-        });
+        progressAggregator.getObject().photoProgress(
+            event.uploadedBy().getUserId().toString(),
+            event.jobId() != null ? event.jobId().getValue().toString() : null,
+            event.photoId().getValue().toString(),
+            event.progressPercentage(),
+            "UPLOADING");
     }
     
     /**
@@ -88,43 +136,90 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
     }
     
     /**
-     * Send progress update to a specific user.
+     * Send progress update to every open session of a user.
      * Made public so other components can send updates directly.
-     * Thread-safe to handle concurrent updates from async processors.
+     * Returns once the message is handed to the ProgressBus; safe to call from any thread.
+     */
+    public void sendProgressUpdate(String userId, ProgressMessage message) {
+        sendMessage(userId, message);
+    }
+    
+    /**
+     * Send any JSON-serializable message to every open session of a user, on whichever
+     * instance holds them. Returns once the message is handed to the ProgressBus; safe to
+     * call from any thread.
      */
-    public synchronized void sendProgressUpdate(String userId, ProgressMessage message) {
-        WebSocketSession session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
+    public void sendMessage(String userId, Object message) {
+        try {
+            // Serialized once, however many sessions and instances receive it
+            progressBus.publish(userId, objectMapper.writeValueAsString(message));
+        } catch (IOException e) {
+            logger.error("Failed to serialize WebSocket message for user {}: {}", userId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Send a serialized message delivered by the ProgressBus to this instance's sessions
+     * of the user. Sends are handed to the send executor.
+     */
+    void deliver(String userId, String message) {
+        Map<String, WebSocketSession> sessions = userSessions.get(userId);
+        if (sessions == null || sessions.isEmpty()) {
+            logger.debug("No active WebSocket session for user {}", userId);
+            return;
+        }
+        
+        TextMessage textMessage = new TextMessage(message);
+        for (WebSocketSession session : sessions.values()) {
             try {
-                // Synchronize on the session to prevent concurrent writes
-                synchronized (session) {
-                    String json = objectMapper.writeValueAsString(message);
-                    session.sendMessage(new TextMessage(json));
-                    logger.debug("Sent WebSocket message to user {}: {}", userId, message.getType());
-                }
-            } catch (IOException e) {
-                // Log error and remove session
-                logger.error("Failed to send WebSocket message to user {}: {}", userId, e.getMessage());
-                userSessions.remove(userId);
-            } catch (IllegalStateException e) {
-                // Handle concurrent write attempts gracefully
-                logger.warn("Concurrent WebSocket write detected for user {}: {}", userId, e.getMessage());
+                sendExecutor.execute(() -> send(userId, session, textMessage));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Dropped WebSocket message for user {} (sessionId: {}): send queue full",
+                            userId, session.getId());
             }
-        } else {
-            logger.debug("No active WebSocket session for user {} (session: {}, open: {})", 
-                        userId, session != null ? "exists" : "null", session != null ? session.isOpen() : "n/a");
         }
     }
     
-    private ProgressMessage createProgressMessage(PhotoUploadProgressed event) {
-        return new ProgressMessage(
-            "photo_progress",
-            event.photoId().getValue().toString(),
-            null, // JobId not available in this event
-            event.progressPercentage(),
-            100, // Total percentage
-            "UPLOADING"
-        );
+    /**
+     * Number of open sessions of a user.
+     */
+    public int getSessionCount(String userId) {
+        Map<String, WebSocketSession> sessions = userSessions.get(userId);
+        return sessions != null ? sessions.size() : 0;
+    }
+    
+    private void send(String userId, WebSocketSession session, TextMessage message) {
+        if (!session.isOpen()) {
+            removeSession(userId, session.getId());
+            return;
+        }
+        try {
+            // Returns at once if another thread is sending; the message is then sent by that thread
+            session.sendMessage(message);
+        } catch (SessionLimitExceededException e) {
+            logger.warn("Closing slow WebSocket session of user {} (sessionId: {}): {}",
+                        userId, session.getId(), e.getMessage());
+            removeSession(userId, session.getId());
+            closeQuietly(session, e.getStatus());
+        } catch (IOException | IllegalStateException e) {
+            logger.error("Failed to send WebSocket message to user {}: {}", userId, e.getMessage());
+            removeSession(userId, session.getId());
+        }
+    }
+    
+    private void removeSession(String userId, String sessionId) {
+        userSessions.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+    
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            logger.debug("Failed to close WebSocket session {}", session.getId(), e);
+        }
     }
     
     private ProgressMessage createJobProgressMessage(UploadJobProgressed event) {
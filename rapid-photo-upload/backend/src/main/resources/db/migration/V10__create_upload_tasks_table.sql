@@ -0,0 +1,27 @@
+-- Migration: Create upload_tasks table
+-- Version: 10
+-- Description: Durable work queue for transferring buffered photos to cloud storage
+
+CREATE TABLE upload_tasks (
+    photo_id UUID PRIMARY KEY,
+    job_id UUID,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    visible_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(255),
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT upload_tasks_photo_id_fk FOREIGN KEY (photo_id) REFERENCES photos(id) ON DELETE CASCADE,
+    CONSTRAINT upload_tasks_attempts_positive CHECK (attempts >= 0)
+);
+
+-- Index for claiming the next visible tasks
+CREATE INDEX idx_upload_tasks_visible_at ON upload_tasks(visible_at);
+
+-- Comments for documentation
+COMMENT ON TABLE upload_tasks IS 'Pending photo transfers to cloud storage, claimed with FOR UPDATE SKIP LOCKED';
+COMMENT ON COLUMN upload_tasks.photo_id IS 'Photo to transfer';
+COMMENT ON COLUMN upload_tasks.job_id IS 'Upload job the photo belongs to (NULL for single uploads)';
+COMMENT ON COLUMN upload_tasks.attempts IS 'Number of times the task has been claimed; also fences stale workers';
+COMMENT ON COLUMN upload_tasks.visible_at IS 'Earliest time the task can be claimed (visibility timeout or retry backoff)';
+COMMENT ON COLUMN upload_tasks.locked_by IS 'Worker that last claimed the task';
+COMMENT ON COLUMN upload_tasks.last_error IS 'Error from the most recent failed attempt';
@@ -0,0 +1,8 @@
+-- Migration: Add content-hash lookup index to photos table
+-- Version: 11
+-- Description: Supports upload deduplication by finding a user's completed photo with the same SHA-256
+
+CREATE INDEX idx_photos_user_file_hash ON photos(user_id, file_hash)
+    WHERE file_hash IS NOT NULL AND status = 'COMPLETED';
+
+COMMENT ON INDEX idx_photos_user_file_hash IS 'Dedup lookup: completed photos by owner and content hash';
@@ -0,0 +1,10 @@
+-- Migration: Replace per-user photo listing index with a keyset pagination index
+-- Version: 12
+-- Description: Lets GET /api/v1/photos seek straight to (uploaded_at, id) instead of scanning a user's photos
+
+CREATE INDEX idx_photos_user_uploaded_at_id ON photos(user_id, uploaded_at DESC, id DESC);
+
+-- Superseded: the new index covers the same (user_id, uploaded_at DESC) prefix
+DROP INDEX IF EXISTS idx_photos_user_uploaded_at;
+
+COMMENT ON INDEX idx_photos_user_uploaded_at_id IS 'Photo list keyset pagination: newest first per owner, id as tie-breaker';
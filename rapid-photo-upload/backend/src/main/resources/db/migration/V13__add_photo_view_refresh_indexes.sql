@@ -0,0 +1,16 @@
+-- Migration: Prepare photo_view for concurrent refresh and keyset reads
+-- Version: 13
+-- Description: Adds the unique index REFRESH MATERIALIZED VIEW CONCURRENTLY requires and a keyset index for gallery reads
+
+CREATE UNIQUE INDEX idx_photo_view_photo_id ON photo_view(photo_id);
+
+CREATE INDEX idx_photo_view_user_uploaded_at_id ON photo_view(user_id, uploaded_at DESC, photo_id DESC);
+
+-- Superseded: the new index covers the same (user_id, uploaded_at DESC) prefix
+DROP INDEX IF EXISTS idx_photo_view_user_uploaded_at;
+
+-- The view has not been refreshed since it was created
+REFRESH MATERIALIZED VIEW photo_view;
+
+COMMENT ON INDEX idx_photo_view_photo_id IS 'Row identity for REFRESH MATERIALIZED VIEW CONCURRENTLY';
+COMMENT ON INDEX idx_photo_view_user_uploaded_at_id IS 'Gallery keyset pagination: newest first per owner, photo_id as tie-breaker';
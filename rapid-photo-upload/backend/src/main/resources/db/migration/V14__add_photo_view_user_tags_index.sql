@@ -0,0 +1,14 @@
+-- Migration: Per-user tag search index on photo_view
+-- Version: 14
+-- Description: Replaces the global tags GIN index with a (user_id, tags) GIN index so tag search
+-- only touches the requesting user's entries
+
+-- btree_gin lets a scalar column (user_id) share a GIN index with the tags array
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX idx_photo_view_user_tags ON photo_view USING GIN (user_id, tags);
+
+-- Superseded: every tag query is scoped to one user
+DROP INDEX IF EXISTS idx_photo_view_tags;
+
+COMMENT ON INDEX idx_photo_view_user_tags IS 'Tag search (@> all-of, && any-of) within one user''s photos';
@@ -0,0 +1,54 @@
+-- Migration: Create photo_list_versions table
+-- Version: 15
+-- Description: Per-user change counter for the photos table, used as the HTTP ETag of
+-- photo list and detail responses so unchanged galleries are answered with 304 without
+-- reading any photo rows
+
+CREATE TABLE photo_list_versions (
+    user_id UUID PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 1,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT photo_list_versions_user_id_fk FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Statement-level triggers bump each affected user once per statement, so a batch insert
+-- of N photos costs one upsert rather than N. Maintained in the database so writes made
+-- through JPA, plain JDBC and on every instance are all counted.
+CREATE FUNCTION bump_photo_list_versions() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO photo_list_versions (user_id)
+        SELECT DISTINCT user_id FROM old_rows
+        ORDER BY user_id
+        ON CONFLICT (user_id) DO UPDATE
+            SET version = photo_list_versions.version + 1, updated_at = CURRENT_TIMESTAMP;
+    ELSE
+        INSERT INTO photo_list_versions (user_id)
+        SELECT DISTINCT user_id FROM new_rows
+        ORDER BY user_id
+        ON CONFLICT (user_id) DO UPDATE
+            SET version = photo_list_versions.version + 1, updated_at = CURRENT_TIMESTAMP;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER photos_bump_list_version_insert
+    AFTER INSERT ON photos
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_photo_list_versions();
+
+CREATE TRIGGER photos_bump_list_version_update
+    AFTER UPDATE ON photos
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_photo_list_versions();
+
+CREATE TRIGGER photos_bump_list_version_delete
+    AFTER DELETE ON photos
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_photo_list_versions();
+
+-- Comments for documentation
+COMMENT ON TABLE photo_list_versions IS 'Per-user change counter of photos, used for HTTP conditional requests';
+COMMENT ON COLUMN photo_list_versions.version IS 'Incremented by every statement that writes the user''s photos';
+COMMENT ON COLUMN photo_list_versions.updated_at IS 'Time of the last write';
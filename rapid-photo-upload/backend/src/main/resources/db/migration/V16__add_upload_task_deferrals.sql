@@ -0,0 +1,10 @@
+-- Migration: Add deferrals to upload_tasks
+-- Version: 16
+-- Description: Count claims handed back without an attempt, so attempts stays a monotonic fencing token
+
+ALTER TABLE upload_tasks
+    ADD COLUMN deferrals INTEGER NOT NULL DEFAULT 0,
+    ADD CONSTRAINT upload_tasks_deferrals_within_attempts CHECK (deferrals >= 0 AND deferrals <= attempts);
+
+-- Comments for documentation
+COMMENT ON COLUMN upload_tasks.deferrals IS 'Claims handed back unattempted; attempts - deferrals is what counts against max-attempts';
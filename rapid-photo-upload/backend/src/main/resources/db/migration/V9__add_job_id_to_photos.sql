@@ -0,0 +1,13 @@
+-- Migration: Add job_id to photos table
+-- Version: 9
+-- Description: Links photos to the upload job that created them so job membership survives reloads
+
+ALTER TABLE photos ADD COLUMN job_id UUID;
+
+ALTER TABLE photos
+    ADD CONSTRAINT photos_job_id_fk FOREIGN KEY (job_id) REFERENCES upload_jobs(id) ON DELETE SET NULL;
+
+-- Index for loading a job's photos
+CREATE INDEX idx_photos_job_id ON photos(job_id) WHERE job_id IS NOT NULL;
+
+COMMENT ON COLUMN photos.job_id IS 'Upload job this photo belongs to (NULL for single uploads)';
@@ -4,6 +4,8 @@ import com.rapidphotoupload.domain.valueobjects.*;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 class CommandTest {
@@ -59,6 +61,20 @@ class CommandTest {
         assertEquals(userId, command.userId());
     }
 
+    @Test
+    void shouldCreateRetryFailedJobUploadsCommand() {
+        var jobId = JobId.generate();
+        var userId = UserId.generate();
+
+        var command = new RetryFailedJobUploadsCommand(jobId, userId);
+
+        assertEquals(jobId, command.jobId());
+        assertEquals(userId, command.userId());
+        assertThrows(IllegalArgumentException.class, () -> {
+            new RetryFailedJobUploadsCommand(null, userId);
+        });
+    }
+
     @Test
     void shouldCreateCreateUploadJobCommand() {
         var userId = UserId.generate();
@@ -82,5 +98,44 @@ class CommandTest {
             new CreateUploadJobCommand(userId, 101);
         });
     }
-}
 
+    @Test
+    void shouldCreateUploadPhotoBatchCommand() {
+        var userId = UserId.generate();
+        var first = batchPhoto(1024);
+        var second = batchPhoto(2048);
+
+        var command = new UploadPhotoBatchCommand(userId, List.of(first, second));
+
+        assertEquals(userId, command.userId());
+        assertEquals(2, command.photos().size());
+        assertEquals(3072, command.totalBytes());
+    }
+
+    @Test
+    void shouldValidateUploadPhotoBatchCommand() {
+        var userId = UserId.generate();
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new UploadPhotoBatchCommand(userId, List.of());
+        });
+
+        var tooMany = new ArrayList<UploadPhotoBatchCommand.BatchPhoto>();
+        for (int i = 0; i < 101; i++) {
+            tooMany.add(batchPhoto(1024));
+        }
+        assertThrows(IllegalArgumentException.class, () -> {
+            new UploadPhotoBatchCommand(userId, tooMany);
+        });
+    }
+
+    private static UploadPhotoBatchCommand.BatchPhoto batchPhoto(long size) {
+        return new UploadPhotoBatchCommand.BatchPhoto(
+            PhotoId.generate(),
+            Filename.from("test.jpg"),
+            FileSize.from(size),
+            ContentType.from("image/jpeg"),
+            null
+        );
+    }
+}
@@ -0,0 +1,333 @@
+package com.rapidphotoupload.application.commands.handlers;
+
+import com.rapidphotoupload.application.commands.RetryFailedJobUploadsCommand;
+import com.rapidphotoupload.application.commands.RetryFailedUploadCommand;
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.aggregates.UploadJob;
+import com.rapidphotoupload.domain.events.PhotoUploadStarted;
+import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.repositories.UploadJobRepository;
+import com.rapidphotoupload.domain.valueobjects.*;
+import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
+import com.rapidphotoupload.infrastructure.exceptions.ValidationException;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
+import com.rapidphotoupload.infrastructure.storage.TemporaryFileStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RetryFailedUploadCommandHandler and RetryFailedJobUploadsCommandHandler,
+ * including retries racing each other between the status check and the reset.
+ */
+class RetryFailedUploadsCommandHandlerTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final UserId userId = UserId.generate();
+    private final JobId jobId = JobId.generate();
+    private final InMemoryPhotoRepository photoRepository = new InMemoryPhotoRepository();
+    private final InMemoryUploadJobRepository uploadJobRepository = new InMemoryUploadJobRepository();
+    private final RecordingQueue queue = new RecordingQueue();
+    private final RecordingEventPublisher eventPublisher = new RecordingEventPublisher();
+    private final InterleavingTransactionTemplate transactionTemplate = new InterleavingTransactionTemplate();
+    private TemporaryFileStorage temporaryFileStorage;
+    private RetryFailedUploadCommandHandler retryPhoto;
+    private RetryFailedJobUploadsCommandHandler retryJob;
+
+    @BeforeEach
+    void setUp() {
+        temporaryFileStorage = new TemporaryFileStorage(0, 1024 * 1024, 64L * 1024 * 1024, 5,
+            spoolDirectory.toString(), new SimpleMeterRegistry(), "local");
+        retryPhoto = new RetryFailedUploadCommandHandler(photoRepository, uploadJobRepository, queue,
+            temporaryFileStorage, eventPublisher, transactionTemplate);
+        retryJob = new RetryFailedJobUploadsCommandHandler(photoRepository, uploadJobRepository, queue,
+            temporaryFileStorage, eventPublisher, transactionTemplate);
+        uploadJobRepository.save(UploadJob.create(jobId, userId, 3));
+    }
+
+    @Test
+    void shouldRequeueFailedPhoto() throws IOException {
+        Photo photo = failedPhoto();
+        uploadJobRepository.failedPhotos = 1;
+
+        assertTrue(retryPhoto.handle(new RetryFailedUploadCommand(photo.getId(), userId)).isSuccess());
+
+        assertEquals(UploadStatus.QUEUED, photoRepository.statusOf(photo.getId()));
+        assertEquals(0, uploadJobRepository.failedPhotos);
+        assertEquals(List.of(photo.getId()), queue.enqueued);
+        assertEquals(1, eventPublisher.started());
+    }
+
+    @Test
+    void shouldRejectPhotoThatIsNotFailed() throws IOException {
+        Photo photo = failedPhoto();
+        photoRepository.resetFailedForRetry(List.of(photo.getId()));
+
+        assertThrows(ValidationException.class,
+            () -> retryPhoto.handle(new RetryFailedUploadCommand(photo.getId(), userId)));
+        assertTrue(queue.enqueued.isEmpty());
+    }
+
+    @Test
+    void shouldReopenJobOnceForConcurrentRetriesOfOnePhoto() throws IOException {
+        Photo photo = failedPhoto();
+        uploadJobRepository.failedPhotos = 1;
+        // Both retries read the photo as FAILED; the second one commits first
+        transactionTemplate.beforeNext = () ->
+            retryPhoto.handle(new RetryFailedUploadCommand(photo.getId(), userId));
+
+        assertThrows(ValidationException.class,
+            () -> retryPhoto.handle(new RetryFailedUploadCommand(photo.getId(), userId)));
+
+        assertEquals(0, uploadJobRepository.failedPhotos);
+        assertEquals(1, uploadJobRepository.reopenCalls);
+        assertEquals(List.of(photo.getId()), queue.enqueued);
+        assertEquals(1, eventPublisher.started());
+    }
+
+    @Test
+    void shouldRequeueOnlyPhotosStillFailedWhenBulkRetryRacesSingleRetry() throws IOException {
+        Photo first = failedPhoto();
+        Photo second = failedPhoto();
+        uploadJobRepository.failedPhotos = 2;
+        transactionTemplate.beforeNext = () ->
+            retryPhoto.handle(new RetryFailedUploadCommand(first.getId(), userId));
+
+        var result = retryJob.handle(new RetryFailedJobUploadsCommand(jobId, userId));
+
+        assertTrue(result.isSuccess());
+        assertEquals(0, uploadJobRepository.failedPhotos);
+        assertEquals(List.of(first.getId(), second.getId()), queue.enqueued);
+        assertEquals(2, eventPublisher.started());
+    }
+
+    @Test
+    void shouldRetryEveryFailedPhotoOfJobWithBufferedBytes() throws IOException {
+        Photo buffered = failedPhoto();
+        Photo swept = photoRepository.add(jobId, UploadStatus.FAILED);
+        uploadJobRepository.failedPhotos = 2;
+
+        var result = retryJob.handle(new RetryFailedJobUploadsCommand(jobId, userId));
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(buffered.getId()), queue.enqueued);
+        assertEquals(UploadStatus.FAILED, photoRepository.statusOf(swept.getId()));
+        assertEquals(1, uploadJobRepository.failedPhotos);
+    }
+
+    private Photo failedPhoto() throws IOException {
+        Photo photo = photoRepository.add(jobId, UploadStatus.FAILED);
+        byte[] content = new byte[(int) photo.getFileSize().getValue()];
+        temporaryFileStorage.store(photo.getId(), new ByteArrayInputStream(content), content.length);
+        return photo;
+    }
+
+    /**
+     * Hands out a fresh copy of the stored row on every read, like JPA, so two handlers
+     * can both see a photo as FAILED.
+     */
+    private class InMemoryPhotoRepository implements PhotoRepository {
+        private final Map<PhotoId, Photo> rows = new LinkedHashMap<>();
+
+        Photo add(JobId jobId, UploadStatus status) {
+            Photo photo = Photo.reconstruct(PhotoId.generate(), Filename.from("photo.jpg"), FileSize.from(2048),
+                ContentType.from("image/jpeg"), status, null, null, UploadedAt.now(),
+                UploadedBy.from(userId.getValue()), null, jobId);
+            rows.put(photo.getId(), photo);
+            return copy(photo, status);
+        }
+
+        UploadStatus statusOf(PhotoId photoId) {
+            return rows.get(photoId).getStatus();
+        }
+
+        @Override
+        public void save(Photo photo) {
+            rows.put(photo.getId(), copy(photo, photo.getStatus()));
+        }
+
+        @Override
+        public void insertAll(List<Photo> photos) {
+            photos.forEach(this::save);
+        }
+
+        @Override
+        public Optional<Photo> findById(PhotoId photoId) {
+            return Optional.ofNullable(rows.get(photoId)).map(photo -> copy(photo, photo.getStatus()));
+        }
+
+        @Override
+        public List<Photo> findByUserId(UserId userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Photo> findByUserIdAndStatus(UserId userId, UploadStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Photo> findByJobIdAndStatus(JobId jobId, UploadStatus status) {
+            return rows.values().stream()
+                .filter(photo -> jobId.equals(photo.getJobId()) && photo.getStatus() == status)
+                .map(photo -> copy(photo, status))
+                .toList();
+        }
+
+        @Override
+        public Optional<Photo> findCompletedByUserIdAndFileHash(UserId userId, String fileHash) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PhotoId> resetFailedForRetry(Collection<PhotoId> photoIds) {
+            List<PhotoId> reset = new ArrayList<>();
+            for (PhotoId photoId : photoIds) {
+                Photo photo = rows.get(photoId);
+                if (photo != null && photo.getStatus() == UploadStatus.FAILED) {
+                    rows.put(photoId, copy(photo, UploadStatus.QUEUED));
+                    reset.add(photoId);
+                }
+            }
+            return reset;
+        }
+
+        @Override
+        public List<Photo> findByStatus(UploadStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(PhotoId photoId) {
+            rows.remove(photoId);
+        }
+
+        private Photo copy(Photo photo, UploadStatus status) {
+            return Photo.reconstruct(photo.getId(), photo.getFilename(), photo.getFileSize(), photo.getContentType(),
+                status, photo.getStorageKey(), photo.getThumbnailStorageKey(), photo.getUploadedAt(),
+                photo.getUploadedBy(), photo.getMetadata(), photo.getJobId());
+        }
+    }
+
+    /**
+     * Tracks the failed_photos counter of the one job under test, with the same guard as
+     * the SQL in JpaUploadJobRepository.
+     */
+    private static class InMemoryUploadJobRepository implements UploadJobRepository {
+        private UploadJob job;
+        int failedPhotos;
+        int reopenCalls;
+
+        @Override
+        public void save(UploadJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public Optional<UploadJob> findById(JobId jobId) {
+            return Optional.ofNullable(job).filter(found -> found.getId().equals(jobId));
+        }
+
+        @Override
+        public List<UploadJob> findByUserId(UserId userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<UploadJob> findByUserIdAndStatus(UserId userId, JobStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<UploadJob> findByStatus(JobStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<JobProgress> recordPhotoOutcome(JobId jobId, boolean succeeded) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean reopenFailedPhotos(JobId jobId, int count) {
+            reopenCalls++;
+            if (failedPhotos < count) {
+                return false;
+            }
+            failedPhotos -= count;
+            return true;
+        }
+
+        @Override
+        public void delete(JobId jobId) {
+            job = null;
+        }
+    }
+
+    private static class RecordingQueue extends UploadTaskQueue {
+        private final List<PhotoId> enqueued = new ArrayList<>();
+
+        RecordingQueue() {
+            super(null, 600, 5, 2000, 60_000, "test-worker");
+        }
+
+        @Override
+        public void enqueueAll(Collection<Photo> photos) {
+            photos.forEach(photo -> enqueued.add(photo.getId()));
+        }
+    }
+
+    /**
+     * Runs callbacks directly; beforeNext runs once before the next transaction starts,
+     * standing in for a concurrent request that commits first.
+     */
+    private static class InterleavingTransactionTemplate extends TransactionTemplate {
+        Runnable beforeNext;
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            Runnable interleaved = beforeNext;
+            beforeNext = null;
+            if (interleaved != null) {
+                interleaved.run();
+            }
+            return action.doInTransaction(null);
+        }
+    }
+
+    private static class RecordingEventPublisher implements DomainEventPublisher {
+        private final List<Object> events = new ArrayList<>();
+
+        @Override
+        public void publish(Object event) {
+            events.add(event);
+        }
+
+        @Override
+        public void publishAll(List<Object> events) {
+            this.events.addAll(events);
+        }
+
+        long started() {
+            return events.stream().filter(PhotoUploadStarted.class::isInstance).count();
+        }
+    }
+}
@@ -44,6 +44,55 @@ class QueryTest {
         assertEquals("desc", query.sortOrder());
     }
 
+    @Test
+    void shouldCreateFilteredListUserPhotosQuery() {
+        var userId = UserId.generate();
+        var cursor = PhotoCursor.of(java.time.Instant.now(), java.util.UUID.randomUUID());
+
+        var query = new ListUserPhotosQuery(userId, 0, 20, null, null, PhotoFilter.byTag("beach"), cursor, false);
+
+        assertEquals("uploadedAt", query.sortBy());
+        assertEquals(java.util.Set.of("beach"), query.filter().tags());
+        assertEquals(cursor, query.after());
+        assertFalse(query.includeTotal());
+        assertEquals(PhotoFilter.none(), new ListUserPhotosQuery(userId, 0, 20, null, null, null, null, false).filter());
+    }
+
+    @Test
+    void shouldValidatePhotoFilterDateRange() {
+        var from = java.time.Instant.parse("2024-02-01T00:00:00Z");
+        var to = java.time.Instant.parse("2024-01-01T00:00:00Z");
+
+        assertThrows(IllegalArgumentException.class, () -> new PhotoFilter(null, true, null, from, to));
+        assertTrue(new PhotoFilter(null, false, null, to, from).tags().isEmpty());
+        assertTrue(new PhotoFilter(null, false, null, to, null).isSearch());
+        assertFalse(new PhotoFilter(null, true, UploadStatus.COMPLETED, null, null).isSearch());
+    }
+
+    @Test
+    void shouldCreateGetPhotosByIdsQueryWithoutDuplicates() {
+        var userId = UserId.generate();
+        var first = PhotoId.generate();
+        var second = PhotoId.generate();
+
+        var query = new GetPhotosByIdsQuery(java.util.List.of(first, second, first), userId);
+
+        assertEquals(java.util.List.of(first, second), query.photoIds());
+    }
+
+    @Test
+    void shouldValidateGetPhotosByIdsQuery() {
+        var userId = UserId.generate();
+        var tooMany = java.util.stream.Stream.generate(PhotoId::generate)
+            .limit(GetPhotosByIdsQuery.MAX_IDS + 1)
+            .collect(java.util.stream.Collectors.toList());
+
+        assertThrows(IllegalArgumentException.class, () -> new GetPhotosByIdsQuery(java.util.List.of(), userId));
+        assertThrows(IllegalArgumentException.class, () -> new GetPhotosByIdsQuery(tooMany, userId));
+        assertThrows(IllegalArgumentException.class,
+            () -> new GetPhotosByIdsQuery(java.util.List.of(PhotoId.generate()), null));
+    }
+
     @Test
     void shouldValidateListUserPhotosQuery() {
         var userId = UserId.generate();
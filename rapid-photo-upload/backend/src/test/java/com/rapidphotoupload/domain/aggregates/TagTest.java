@@ -0,0 +1,47 @@
+package com.rapidphotoupload.domain.aggregates;
+
+import com.rapidphotoupload.domain.valueobjects.TagId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagTest {
+
+    @Test
+    void shouldCreateTagWithNormalizedName() {
+        var tag = Tag.create(TagId.generate(), "  Beach ");
+
+        assertEquals("beach", tag.getName());
+        assertNotNull(tag.getCreatedAt());
+    }
+
+    @Test
+    void shouldRejectInvalidNames() {
+        assertThrows(IllegalArgumentException.class, () -> Tag.normalizeName(null));
+        assertThrows(IllegalArgumentException.class, () -> Tag.normalizeName("   "));
+        assertThrows(IllegalArgumentException.class, () -> Tag.normalizeName("x".repeat(Tag.MAX_NAME_LENGTH + 1)));
+    }
+
+    @Test
+    void shouldNormalizeNamesDroppingBlanksAndDuplicates() {
+        var names = Tag.normalizeNames(Arrays.asList("Beach", "beach ", "", null, "Sunset"));
+
+        assertEquals(Set.of("beach", "sunset"), names);
+    }
+
+    @Test
+    void shouldLimitTagsPerPhoto() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i <= Tag.MAX_TAGS_PER_PHOTO; i++) {
+            names.add("tag" + i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> Tag.normalizeNames(names));
+        assertEquals(Tag.MAX_TAGS_PER_PHOTO, Tag.normalizeNames(names.subList(0, Tag.MAX_TAGS_PER_PHOTO)).size());
+    }
+}
@@ -0,0 +1,28 @@
+package com.rapidphotoupload.domain.valueobjects;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobProgressTest {
+
+    @Test
+    void shouldReportFinishedWhenAllPhotosAccountedFor() {
+        var progress = new JobProgress(JobId.generate(), UserId.generate(), 2, 1, 3, JobStatus.PARTIALLY_FAILED);
+
+        assertTrue(progress.justFinished());
+    }
+
+    @Test
+    void shouldNotReportFinishedWhilePhotosOutstanding() {
+        var progress = new JobProgress(JobId.generate(), UserId.generate(), 1, 1, 3, JobStatus.IN_PROGRESS);
+
+        assertFalse(progress.justFinished());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenJobIdIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new JobProgress(null, UserId.generate(), 0, 0, 1, JobStatus.IN_PROGRESS);
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.rapidphotoupload.domain.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoCursorTest {
+
+    @Test
+    void shouldRoundTripThroughEncodedToken() {
+        var cursor = PhotoCursor.of(Instant.parse("2024-05-01T12:30:45.123456Z"), UUID.randomUUID());
+
+        var decoded = PhotoCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals(cursor.getUploadedAt(), decoded.getUploadedAt());
+        assertEquals(cursor.getPhotoId(), decoded.getPhotoId());
+    }
+
+    @Test
+    void shouldEncodeAsUrlSafeToken() {
+        var token = PhotoCursor.of(Instant.now(), UUID.randomUUID()).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void shouldRejectMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.decode(encode("no-separator")));
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.decode(encode("yesterday|" + UUID.randomUUID())));
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.decode(encode(Instant.now() + "|not-a-uuid")));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenFieldsAreNull() {
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.of(null, UUID.randomUUID()));
+        assertThrows(IllegalArgumentException.class, () -> PhotoCursor.of(Instant.now(), null));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
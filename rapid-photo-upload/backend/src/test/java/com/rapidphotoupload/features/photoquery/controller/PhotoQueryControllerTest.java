@@ -0,0 +1,248 @@
+package com.rapidphotoupload.features.photoquery.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.application.queries.handlers.GetPhotoMetadataQueryHandler;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import com.rapidphotoupload.infrastructure.persistence.PhotoListVersionRepository;
+import com.rapidphotoupload.infrastructure.persistence.PhotoLookupRepository;
+import com.rapidphotoupload.infrastructure.storage.CloudStorageService;
+import com.rapidphotoupload.infrastructure.storage.PresignedUrlCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoQueryControllerTest {
+
+    private final UserId userId = UserId.generate();
+    private final PhotoDTO photo = new PhotoDTO(PhotoId.generate(), "photo.jpg", 1024, "image/jpeg",
+        UploadStatus.UPLOADING, null, null, Instant.parse("2024-01-01T00:00:00Z"),
+        userId.getValue().toString(), Set.of(), null, null, null);
+
+    private final StubVersions versions = new StubVersions();
+    private final StubPresignedUrlCache presignedUrlCache = new StubPresignedUrlCache();
+    private final StubLookup lookup = new StubLookup();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PhotoQueryController controller = new PhotoQueryController(null, new NoopStorage(),
+        presignedUrlCache, null, new GetPhotoMetadataQueryHandler(lookup), null, versions,
+        lookup, objectMapper, null);
+
+    @Test
+    void shouldRevalidatePhotoByEtag() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        ResponseEntity<?> response = getPhoto(null, first);
+        assertEquals(200, response.getStatusCode().value());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertNull(getPhoto(etag, second));
+        assertEquals(304, second.getStatus());
+
+        versions.version++;
+        MockHttpServletResponse afterWrite = new MockHttpServletResponse();
+        assertEquals(200, getPhoto(etag, afterWrite).getStatusCode().value());
+        assertNotEquals(etag, afterWrite.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldServeFreshBodyWhenSigningWindowChanges() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        getPhoto(null, first);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        presignedUrlCache.window++;
+        MockHttpServletResponse next = new MockHttpServletResponse();
+        assertEquals(200, getPhoto(etag, next).getStatusCode().value());
+        assertNotEquals(etag, next.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldIgnoreIfModifiedSince() {
+        // A write in the same second as the cached copy must not be hidden by a date validator
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/" + photo.photoId().getValue());
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 01 Jan 2999 00:00:00 GMT");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<?> result = controller.getPhotoById(userId.getValue().toString(),
+            photo.photoId().getValue().toString(), new ServletWebRequest(request, response));
+
+        assertEquals(200, result.getStatusCode().value());
+    }
+
+    @Test
+    void shouldExportOneJsonObjectPerLineInCursorOrder() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            lookup.library.add(exportedPhoto(Instant.parse("2024-01-01T00:00:00Z").minusSeconds(i)));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertTrue(line.isObject());
+            assertEquals(lookup.library.get(i).photoId().getValue().toString(), line.get("id").asText());
+        }
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    @Test
+    void shouldStopExportingWhenClientDisconnects() {
+        for (int i = 0; i < 10_000; i++) {
+            lookup.library.add(exportedPhoto(Instant.parse("2024-01-01T00:00:00Z").minusSeconds(i)));
+        }
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> export().writeTo(disconnected));
+
+        // Only the rows that fit in the export buffer were read before the first failed write
+        assertTrue(lookup.streamed > 0);
+        assertTrue(lookup.streamed < lookup.library.size(), "streamed " + lookup.streamed);
+    }
+
+    @Test
+    void shouldRejectNullIdsWithBadRequest() {
+        List<String> ids = new ArrayList<>();
+        ids.add(photo.photoId().getValue().toString());
+        ids.add(null);
+
+        assertEquals(400, controller.getPhotosByIds(userId.getValue().toString(),
+            new PhotoQueryController.PhotoBatchRequest(ids)).getStatusCode().value());
+        assertEquals(400, controller.downloadArchive(userId.getValue().toString(), null, null, ids)
+            .getStatusCode().value());
+    }
+
+    private StreamingResponseBody export() {
+        ResponseEntity<StreamingResponseBody> response = controller.exportPhotos(userId.getValue().toString(), false, 60);
+        assertEquals(200, response.getStatusCode().value());
+        return response.getBody();
+    }
+
+    private PhotoDTO exportedPhoto(Instant uploadedAt) {
+        PhotoId id = PhotoId.generate();
+        return new PhotoDTO(id, "photo.jpg", 1024, "image/jpeg", UploadStatus.COMPLETED, "photos/" + id.getValue(),
+            null, uploadedAt, userId.getValue().toString(), Set.of("beach"), 640, 480, null);
+    }
+
+    private ResponseEntity<?> getPhoto(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/" + photo.photoId().getValue());
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return controller.getPhotoById(userId.getValue().toString(), photo.photoId().getValue().toString(),
+            new ServletWebRequest(request, response));
+    }
+
+    private class StubLookup extends PhotoLookupRepository {
+        final List<PhotoDTO> library = new ArrayList<>();
+        int streamed;
+
+        StubLookup() {
+            super(null, null);
+        }
+
+        @Override
+        public Optional<PhotoDTO> findById(PhotoId photoId, UserId userId) {
+            return photoId.equals(photo.photoId()) ? Optional.of(photo) : Optional.empty();
+        }
+
+        @Override
+        public long forEachByUserId(UserId userId, int fetchSize, Consumer<PhotoDTO> consumer) {
+            for (PhotoDTO row : library) {
+                streamed++;
+                consumer.accept(row);
+            }
+            return streamed;
+        }
+    }
+
+    private static class StubVersions extends PhotoListVersionRepository {
+        long version = 1;
+
+        StubVersions() {
+            super(null);
+        }
+
+        @Override
+        public Optional<PhotoListVersion> find(UserId userId) {
+            return Optional.of(new PhotoListVersion(version, Instant.parse("2024-01-01T00:00:00Z")));
+        }
+    }
+
+    private static class StubPresignedUrlCache extends PresignedUrlCache {
+        long window = 100;
+
+        StubPresignedUrlCache() {
+            super(new NoopStorage(), 15, 100, new SimpleMeterRegistry());
+        }
+
+        @Override
+        public long getSigningWindow() {
+            return window;
+        }
+    }
+
+    private static class NoopStorage implements CloudStorageService {
+        @Override
+        public String upload(String key, InputStream inputStream, String contentType) {
+            return key;
+        }
+
+        @Override
+        public InputStream download(String key) {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void delete(String key) {
+        }
+
+        @Override
+        public String getPublicUrl(String key) {
+            return "https://storage.test/" + key;
+        }
+
+        @Override
+        public String generatePresignedUrl(String key, int expirationMinutes) {
+            return "https://storage.test/" + key + "?signed=" + UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.rapidphotoupload.infrastructure.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadPerformanceMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UploadPerformanceMonitor monitor = new UploadPerformanceMonitor(registry, "S3");
+
+    @Test
+    void shouldTagTimersWithStorageBackend() {
+        monitor.recordStoragePut("key", 1000, Duration.ofMillis(120), true);
+        monitor.recordStoragePut("key", 1000, Duration.ofMillis(80), false);
+
+        Timer succeeded = registry.get("upload.storage.put").tags("storage", "s3", "outcome", "success").timer();
+        Timer failed = registry.get("upload.storage.put").tags("storage", "s3", "outcome", "failure").timer();
+        assertEquals(1, succeeded.count());
+        assertEquals(120, succeeded.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, failed.count());
+    }
+
+    @Test
+    void shouldPublishPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            monitor.recordDbUpdate(Duration.ofMillis(i));
+        }
+
+        HistogramSnapshot snapshot = registry.get("upload.db.update").timer().takeSnapshot();
+        assertArrayEquals(new double[] {0.5, 0.95, 0.99},
+            Arrays.stream(snapshot.percentileValues()).mapToDouble(p -> p.percentile()).toArray());
+    }
+
+    @Test
+    void shouldMeasureQueueWaitAndTrackActiveUploads() {
+        monitor.recordUploadStart("p1", "j1", Instant.now().minusSeconds(3));
+        monitor.recordUploadStart("p2", null, null);
+
+        assertEquals(2, monitor.getActiveUploadCount());
+        assertEquals(2, registry.get("upload.active").gauge().value());
+        Timer queueWait = registry.get("upload.queue.wait").timer();
+        assertEquals(1, queueWait.count());
+        assertTrue(queueWait.totalTime(TimeUnit.SECONDS) >= 3);
+
+        monitor.recordUploadFinished();
+        monitor.recordUploadFinished();
+        assertEquals(0, monitor.getActiveUploadCount());
+    }
+
+    @Test
+    void shouldCountJobsWithinSla() {
+        monitor.recordJobComplete("j1", 100, Instant.now().minusSeconds(30), "COMPLETED");
+        monitor.recordJobComplete("j2", 100, Instant.now().minusSeconds(120), "COMPLETED");
+
+        Timer jobs = registry.get("upload.job.duration").tags("status", "COMPLETED").timer();
+        assertEquals(2, jobs.count());
+        var withinSla = Arrays.stream(jobs.takeSnapshot().histogramCounts())
+            .filter(bucket -> bucket.bucket(TimeUnit.SECONDS) == UploadPerformanceMonitor.JOB_SLA.toSeconds())
+            .findFirst()
+            .orElseThrow();
+        assertEquals(1, withinSla.count());
+    }
+
+    @Test
+    void shouldComputeSuccessRateFromCounters() {
+        monitor.recordUploadComplete("p1", Instant.now());
+        monitor.recordUploadComplete("p2", Instant.now());
+        monitor.recordUploadComplete("p3", Instant.now());
+        monitor.recordUploadFailed("p4", "boom");
+
+        assertEquals(3, monitor.getCompletedUploadCount());
+        assertEquals(1, monitor.getFailedUploadCount());
+        assertEquals(75.0, monitor.getSuccessRate(), 0.001);
+        assertEquals(1, registry.get("upload.photos.failed").counter().count());
+        assertEquals(3, registry.get("upload.photo.duration").timer().count());
+    }
+}
@@ -0,0 +1,268 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import com.rapidphotoupload.application.dtos.PhotoDTO;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoLookupRepositoryTest {
+
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final UserId userId = UserId.generate();
+    private final PagingJdbcTemplate jdbcTemplate = new PagingJdbcTemplate();
+    private final PhotoLookupRepository repository = new PhotoLookupRepository(jdbcTemplate, null);
+
+    @Test
+    void shouldPageArchiveSelectionByKeyset() {
+        // Same timestamp on several rows, so the id must break ties between pages
+        for (int i = 0; i < 7; i++) {
+            jdbcTemplate.rows.add(photo(BASE.plusSeconds(i / 3), UUID.randomUUID()));
+        }
+        jdbcTemplate.rows.sort(Comparator.comparing(PhotoDTO::uploadedAt)
+            .thenComparing(photo -> photo.photoId().getValue()));
+
+        List<PhotoDTO> seen = new ArrayList<>();
+        long count = repository.forEachCompletedByJobId(userId, JobId.generate(), 3, photo -> {
+            assertFalse(jdbcTemplate.querying, "consumer must not run while a query holds a connection");
+            seen.add(photo);
+        });
+
+        assertEquals(7, count);
+        assertEquals(jdbcTemplate.rows, seen);
+        assertEquals(3, jdbcTemplate.queries.size());
+        assertFalse(jdbcTemplate.queries.get(0).contains("(p.uploaded_at, p.id) >"));
+        assertTrue(jdbcTemplate.queries.get(1).contains("(p.uploaded_at, p.id) > (?, ?)"));
+        assertTrue(jdbcTemplate.queries.get(2).endsWith("LIMIT ?"));
+    }
+
+    @Test
+    void shouldStopSelectingPagesWhenConsumerFails() {
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.rows.add(photo(BASE.plusSeconds(i), UUID.randomUUID()));
+        }
+
+        assertThrows(IllegalStateException.class, () ->
+            repository.forEachCompletedByTag(userId, "beach", 4, photo -> {
+                throw new IllegalStateException("client went away");
+            }));
+
+        assertEquals(1, jdbcTemplate.queries.size());
+    }
+
+    @Test
+    void shouldIssueOneQueryForAnEmptySelection() {
+        long count = repository.forEachCompletedByTag(userId, "beach", 200, photo -> fail());
+
+        assertEquals(0, count);
+        assertEquals(1, jdbcTemplate.queries.size());
+    }
+
+    @Test
+    void shouldStreamUserPhotosNewestFirstThroughCursor() {
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        CursorJdbcTemplate cursor = new CursorJdbcTemplate();
+        for (int i = 0; i < 5; i++) {
+            cursor.rows.add(photo(BASE.minusSeconds(i), UUID.randomUUID()));
+        }
+        PhotoLookupRepository streaming = new PhotoLookupRepository(cursor, transactionManager);
+
+        List<PhotoDTO> seen = new ArrayList<>();
+        long count = streaming.forEachByUserId(userId, 500, seen::add);
+
+        assertEquals(5, count);
+        assertEquals(cursor.rows.stream().map(PhotoDTO::photoId).toList(),
+            seen.stream().map(PhotoDTO::photoId).toList());
+        assertTrue(cursor.sql.contains("WHERE p.user_id = ?"));
+        assertTrue(cursor.sql.endsWith("ORDER BY p.uploaded_at DESC, p.id DESC"));
+        assertEquals(List.of(userId.getValue()), cursor.parameters);
+        assertEquals(500, cursor.fetchSize);
+        // PostgreSQL only uses the fetch size inside a transaction
+        assertTrue(transactionManager.readOnly);
+        assertEquals(1, transactionManager.commits);
+    }
+
+    @Test
+    void shouldAbandonCursorWhenClientDisconnects() {
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        CursorJdbcTemplate cursor = new CursorJdbcTemplate();
+        for (int i = 0; i < 100; i++) {
+            cursor.rows.add(photo(BASE.minusSeconds(i), UUID.randomUUID()));
+        }
+        PhotoLookupRepository streaming = new PhotoLookupRepository(cursor, transactionManager);
+        int[] written = {0};
+
+        assertThrows(UncheckedIOException.class, () -> streaming.forEachByUserId(userId, 500, photo -> {
+            if (++written[0] == 3) {
+                throw new UncheckedIOException(new IOException("Broken pipe"));
+            }
+        }));
+
+        assertEquals(3, cursor.rowsRead);
+        assertEquals(1, transactionManager.rollbacks);
+        assertEquals(0, transactionManager.commits);
+    }
+
+    private PhotoDTO photo(Instant uploadedAt, UUID id) {
+        return new PhotoDTO(PhotoId.from(id), "photo.jpg", 1024, "image/jpeg", UploadStatus.COMPLETED,
+            "photos/" + id, null, uploadedAt, userId.getValue().toString(), Set.of(), null, null, null);
+    }
+
+    /**
+     * Serves pages from an ordered in-memory table, honouring the keyset and limit arguments.
+     */
+    private static class PagingJdbcTemplate extends JdbcTemplate {
+        final List<PhotoDTO> rows = new ArrayList<>();
+        final List<String> queries = new ArrayList<>();
+        boolean querying;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            querying = true;
+            try {
+                queries.add(sql);
+                int limit = (Integer) args[args.length - 1];
+                boolean keyset = sql.contains("(p.uploaded_at, p.id) > (?, ?)");
+                Instant afterUploadedAt = keyset ? ((Timestamp) args[args.length - 3]).toInstant() : null;
+                UUID afterId = keyset ? (UUID) args[args.length - 2] : null;
+                return (List<T>) rows.stream()
+                    .filter(photo -> !keyset
+                        || photo.uploadedAt().isAfter(afterUploadedAt)
+                        || (photo.uploadedAt().equals(afterUploadedAt)
+                            && photo.photoId().getValue().compareTo(afterId) > 0))
+                    .limit(limit)
+                    .toList();
+            } finally {
+                querying = false;
+            }
+        }
+    }
+
+    /**
+     * Runs the statement creator against a recording connection and feeds the rows one at a
+     * time to the callback, the way a cursor would, counting how many were read.
+     */
+    private static class CursorJdbcTemplate extends JdbcTemplate {
+        final List<PhotoDTO> rows = new ArrayList<>();
+        final List<Object> parameters = new ArrayList<>();
+        String sql;
+        int fetchSize;
+        int rowsRead;
+
+        @Override
+        public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+            try {
+                creator.createPreparedStatement(connection());
+                for (PhotoDTO row : rows) {
+                    rowsRead++;
+                    handler.processRow(resultSet(row));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("prepareStatement")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    sql = (String) args[0];
+                    return statement();
+                });
+        }
+
+        private PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setFetchSize" -> fetchSize = (Integer) args[0];
+                        case "setObject" -> parameters.add(args[1]);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                    return null;
+                });
+        }
+
+        private ResultSet resultSet(PhotoDTO photo) {
+            Map<String, Object> columns = new HashMap<>();
+            columns.put("photo_id", photo.photoId().getValue());
+            columns.put("filename", photo.filename());
+            columns.put("file_size", photo.fileSize());
+            columns.put("content_type", photo.contentType());
+            columns.put("status", photo.status().name());
+            columns.put("storage_key", photo.storageKey());
+            columns.put("thumbnail_storage_key", photo.thumbnailStorageKey());
+            columns.put("uploaded_at", Timestamp.from(photo.uploadedAt()));
+            columns.put("user_id", UUID.fromString(photo.uploadedByUserId()));
+            columns.put("tags", null);
+            columns.put("width", photo.width());
+            columns.put("height", photo.height());
+            columns.put("file_hash", photo.fileHash());
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = columns.get((String) args[0]);
+                    return switch (method.getName()) {
+                        case "getObject", "getString", "getTimestamp" -> value;
+                        case "getLong" -> value != null ? value : 0L;
+                        case "getArray" -> (Array) value;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+        }
+    }
+
+    private static class RecordingTransactionManager implements PlatformTransactionManager {
+        boolean readOnly;
+        int commits;
+        int rollbacks;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            readOnly = definition != null && definition.isReadOnly();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks++;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rapidphotoupload.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoViewRefresherTest {
+
+    private final PhotoViewRefresher refresher = new PhotoViewRefresher(null, 500, 2000, 30000);
+
+    @Test
+    void shouldWaitWhileWritesAreStillComing() {
+        assertFalse(refresher.isRefreshDue(10, Duration.ofMillis(500), Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void shouldRefreshOnceWritesGoQuiet() {
+        assertTrue(refresher.isRefreshDue(10, Duration.ofSeconds(2), Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void shouldRefreshWhenWritesPileUp() {
+        assertTrue(refresher.isRefreshDue(500, Duration.ZERO, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void shouldBoundStalenessUnderSustainedWrites() {
+        assertTrue(refresher.isRefreshDue(10, Duration.ZERO, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new PhotoViewRefresher(null, 0, 2000, 30000));
+    }
+}
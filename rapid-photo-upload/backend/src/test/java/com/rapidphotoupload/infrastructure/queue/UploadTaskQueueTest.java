@@ -0,0 +1,80 @@
+package com.rapidphotoupload.infrastructure.queue;
+
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadTaskQueueTest {
+
+    private static final Duration BASE = Duration.ofSeconds(2);
+    private static final Duration MAX = Duration.ofSeconds(60);
+
+    @Test
+    void shouldDoubleBackoffPerAttempt() {
+        assertEquals(Duration.ofSeconds(2), UploadTaskQueue.backoffDelay(1, BASE, MAX));
+        assertEquals(Duration.ofSeconds(4), UploadTaskQueue.backoffDelay(2, BASE, MAX));
+        assertEquals(Duration.ofSeconds(16), UploadTaskQueue.backoffDelay(4, BASE, MAX));
+    }
+
+    @Test
+    void shouldCapBackoffAtMaxDelay() {
+        assertEquals(MAX, UploadTaskQueue.backoffDelay(6, BASE, MAX));
+        assertEquals(MAX, UploadTaskQueue.backoffDelay(1000, BASE, MAX));
+    }
+
+    @Test
+    void shouldJitterWithinUpperHalfOfDelay() {
+        var delay = Duration.ofSeconds(10);
+
+        assertEquals(Duration.ofSeconds(5), UploadTaskQueue.withJitter(delay, 0.0));
+        assertEquals(Duration.ofMillis(7500), UploadTaskQueue.withJitter(delay, 0.5));
+        assertTrue(UploadTaskQueue.withJitter(delay, 0.999).compareTo(delay) < 0);
+    }
+
+    @Test
+    void shouldNotCountDeferredClaimsAgainstRetryBudget() {
+        var queue = new UploadTaskQueue(null, 600, 3, 2000, 60_000, "test-worker");
+
+        assertTrue(queue.canRetry(new UploadTask(PhotoId.generate(), null, 4, 2, null)));
+        assertFalse(queue.canRetry(new UploadTask(PhotoId.generate(), null, 4, 1, null)));
+    }
+
+    @Test
+    void shouldKeepFencingTokenWhenDeferring() {
+        var jdbcTemplate = new RecordingJdbcTemplate();
+        var queue = new UploadTaskQueue(jdbcTemplate, 600, 5, 2000, 60_000, "test-worker");
+        var task = new UploadTask(PhotoId.generate(), null, 7, 0, null);
+
+        assertTrue(queue.defer(task, Duration.ofSeconds(30)));
+
+        String sql = jdbcTemplate.statements.get(0);
+        assertTrue(sql.contains("deferrals = deferrals + 1"));
+        assertFalse(sql.contains("attempts = attempts"), "defer must not move the fencing token");
+        assertTrue(sql.contains("WHERE photo_id = ? AND attempts = ?"));
+        assertEquals(7, jdbcTemplate.arguments.get(0)[2]);
+    }
+
+    @Test
+    void shouldRejectMoreDeferralsThanEarlierClaims() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new UploadTask(PhotoId.generate(), null, 2, 2, null));
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        final List<String> statements = new ArrayList<>();
+        final List<Object[]> arguments = new ArrayList<>();
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(sql);
+            arguments.add(args);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoArchiveWriterTest {
+
+    private static final Instant UPLOADED_AT = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Test
+    void shouldWriteEntriesInOrderWithUniqueNames() throws IOException {
+        var storage = new InMemoryStorage();
+        storage.put("a", randomBytes(100_000));
+        storage.put("b", randomBytes(5_000));
+        storage.put("c", "plain text".getBytes());
+        var writer = new PhotoArchiveWriter(storage, Runnable::run, 1);
+        var out = new ByteArrayOutputStream();
+
+        try (var archive = writer.open(out)) {
+            archive.add("a", "beach.jpg", "image/jpeg", UPLOADED_AT);
+            archive.add("b", "beach.jpg", "image/jpeg", UPLOADED_AT);
+            archive.add("c", "notes.txt", "text/plain", UPLOADED_AT);
+            archive.finish();
+            assertEquals(3, archive.getEntryCount());
+        }
+
+        Map<String, byte[]> entries = read(out.toByteArray());
+        assertEquals(List.of("beach.jpg", "beach (2).jpg", "notes.txt"), List.copyOf(entries.keySet()));
+        assertArrayEquals(storage.objects.get("a"), entries.get("beach.jpg"));
+        assertArrayEquals(storage.objects.get("b"), entries.get("beach (2).jpg"));
+        assertArrayEquals(storage.objects.get("c"), entries.get("notes.txt"));
+    }
+
+    @Test
+    void shouldNotCompressJpegs() throws IOException {
+        var storage = new InMemoryStorage();
+        // Highly compressible, so any deflating would show in the archive size
+        storage.put("a", new byte[200_000]);
+        var writer = new PhotoArchiveWriter(storage, Runnable::run, 2);
+        var out = new ByteArrayOutputStream();
+
+        try (var archive = writer.open(out)) {
+            archive.add("a", "a.jpg", "image/jpeg", UPLOADED_AT);
+            archive.finish();
+        }
+
+        assertTrue(out.size() > 200_000);
+    }
+
+    @Test
+    void shouldListUnreadableObjectsInErrorsEntry() throws IOException {
+        var storage = new InMemoryStorage();
+        storage.put("a", randomBytes(1_000));
+        var writer = new PhotoArchiveWriter(storage, Runnable::run, 4);
+        var out = new ByteArrayOutputStream();
+
+        try (var archive = writer.open(out)) {
+            archive.add("missing", "gone.jpg", "image/jpeg", UPLOADED_AT);
+            archive.add("a", "a.jpg", "image/jpeg", UPLOADED_AT);
+            archive.finish();
+            assertEquals(1, archive.getEntryCount());
+            assertEquals(1, archive.getFailures().size());
+        }
+
+        Map<String, byte[]> entries = read(out.toByteArray());
+        assertEquals(List.of("a.jpg", PhotoArchiveWriter.ERRORS_ENTRY), List.copyOf(entries.keySet()));
+        assertTrue(new String(entries.get(PhotoArchiveWriter.ERRORS_ENTRY)).startsWith("gone.jpg: not found"));
+    }
+
+    @Test
+    void shouldClosePrefetchedDownloadsOfAbandonedArchive() throws IOException {
+        var storage = new InMemoryStorage();
+        storage.put("a", randomBytes(1_000));
+        storage.put("b", randomBytes(1_000));
+        var writer = new PhotoArchiveWriter(storage, Runnable::run, 4);
+
+        try (var archive = writer.open(new ByteArrayOutputStream())) {
+            archive.add("a", "a.jpg", "image/jpeg", UPLOADED_AT);
+            archive.add("b", "b.jpg", "image/jpeg", UPLOADED_AT);
+        }
+
+        assertEquals(2, storage.opened.size());
+        assertTrue(storage.opened.stream().allMatch(TrackingStream::isClosed));
+    }
+
+    @Test
+    void shouldSanitizeEntryNames() {
+        Set<String> used = new HashSet<>();
+
+        assertEquals(".._.._etc_passwd", PhotoArchiveWriter.entryName("../../etc/passwd", used));
+        assertEquals("a_b.jpg", PhotoArchiveWriter.entryName("a\\b.jpg", used));
+        assertEquals("photo", PhotoArchiveWriter.entryName("  ", used));
+        assertEquals("photo (2)", PhotoArchiveWriter.entryName(null, used));
+        assertEquals("A_B (2).JPG", PhotoArchiveWriter.entryName("A_B.JPG", used));
+    }
+
+    @Test
+    void shouldRecognizeCompressedContentTypes() {
+        assertTrue(PhotoArchiveWriter.isCompressed("image/jpeg"));
+        assertTrue(PhotoArchiveWriter.isCompressed("IMAGE/PNG"));
+        assertFalse(PhotoArchiveWriter.isCompressed("image/tiff"));
+        assertFalse(PhotoArchiveWriter.isCompressed(null));
+    }
+
+    private static Map<String, byte[]> read(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static class TrackingStream extends ByteArrayInputStream {
+        private boolean closed;
+
+        TrackingStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+
+    private static class InMemoryStorage implements CloudStorageService {
+        private final Map<String, byte[]> objects = new HashMap<>();
+        private final List<TrackingStream> opened = new ArrayList<>();
+
+        void put(String key, byte[] bytes) {
+            objects.put(key, bytes);
+        }
+
+        @Override
+        public String upload(String key, InputStream inputStream, String contentType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InputStream download(String key) {
+            byte[] bytes = objects.get(key);
+            if (bytes == null) {
+                return null;
+            }
+            TrackingStream stream = new TrackingStream(bytes);
+            opened.add(stream);
+            return stream;
+        }
+
+        @Override
+        public void delete(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getPublicUrl(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generatePresignedUrl(String key, int expirationMinutes) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
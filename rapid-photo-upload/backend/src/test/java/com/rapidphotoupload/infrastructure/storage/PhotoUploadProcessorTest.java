@@ -0,0 +1,366 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import com.rapidphotoupload.domain.aggregates.Photo;
+import com.rapidphotoupload.domain.repositories.PhotoRepository;
+import com.rapidphotoupload.domain.valueobjects.ContentType;
+import com.rapidphotoupload.domain.valueobjects.FileSize;
+import com.rapidphotoupload.domain.valueobjects.Filename;
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.domain.valueobjects.StorageKey;
+import com.rapidphotoupload.domain.valueobjects.UploadStatus;
+import com.rapidphotoupload.domain.valueobjects.UploadedBy;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import com.rapidphotoupload.infrastructure.events.DomainEventPublisher;
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
+import com.rapidphotoupload.infrastructure.queue.UploadTask;
+import com.rapidphotoupload.infrastructure.queue.UploadTaskQueue;
+import com.rapidphotoupload.infrastructure.websocket.InProcessProgressBus;
+import com.rapidphotoupload.infrastructure.websocket.JobProgressAggregator;
+import com.rapidphotoupload.infrastructure.websocket.ProgressWebSocketHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoUploadProcessorTest {
+
+    private static final UUID USER = UUID.randomUUID();
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final InMemoryPhotoRepository photoRepository = new InMemoryPhotoRepository();
+    private final RecordingStorage storage = new RecordingStorage();
+    private final RecordingQueue queue = new RecordingQueue();
+    private final List<Runnable> thumbnailJobs = new ArrayList<>();
+    private final StorageCircuitBreaker circuitBreaker = new StorageCircuitBreaker(5, 30_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UploadPerformanceMonitor monitor = new UploadPerformanceMonitor(registry, "local");
+    private TemporaryFileStorage temporaryFileStorage;
+    private PhotoUploadProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        temporaryFileStorage = new TemporaryFileStorage(0, 1024 * 1024, 64L * 1024 * 1024, 5,
+            spoolDirectory.toString(), registry, "local");
+        var webSocketHandler = new ProgressWebSocketHandler(null, null, new InProcessProgressBus(), Runnable::run,
+            5000, 64 * 1024);
+        processor = new PhotoUploadProcessor(
+            temporaryFileStorage,
+            storage,
+            photoRepository,
+            null,
+            queue,
+            new DirectTransactionTemplate(),
+            new RecordingEventPublisher(),
+            new JobProgressAggregator(webSocketHandler),
+            monitor,
+            new StorageConcurrencyLimiter(new StandardEnvironment(), 4),
+            circuitBreaker,
+            new ThumbnailGenerator(storage, photoRepository, thumbnailJobs::add, new int[] {320}, 16_000_000),
+            Runnable::run);
+    }
+
+    @Test
+    void shouldReuseStoredObjectForRepeatedHash() throws IOException {
+        Photo original = completedPhoto(USER, HASH, "photos/aa/original.jpg", "thumbnails/aa/original.jpg");
+        original.getMetadata().setWidth(640);
+        original.getMetadata().setHeight(480);
+        Photo duplicate = queuedPhoto(USER, HASH);
+
+        processor.process(task(duplicate)).join();
+
+        assertTrue(storage.uploadedKeys.isEmpty());
+        assertEquals(UploadStatus.COMPLETED, duplicate.getStatus());
+        assertEquals(original.getStorageKey(), duplicate.getStorageKey());
+        assertEquals(original.getThumbnailStorageKey(), duplicate.getThumbnailStorageKey());
+        assertEquals(640, duplicate.getMetadata().getWidth());
+        assertTrue(thumbnailJobs.isEmpty());
+        assertFalse(temporaryFileStorage.exists(duplicate.getId()));
+        assertEquals(1, monitor.getDeduplicatedUploadCount());
+    }
+
+    @Test
+    void shouldUploadSameHashOfAnotherUser() throws IOException {
+        completedPhoto(UUID.randomUUID(), HASH, "photos/aa/other.jpg", "thumbnails/aa/other.jpg");
+        Photo photo = queuedPhoto(USER, HASH);
+
+        processor.process(task(photo)).join();
+
+        assertEquals(1, storage.uploadedKeys.size());
+        assertEquals(UploadStatus.COMPLETED, photo.getStatus());
+        assertEquals(storage.uploadedKeys.get(0), photo.getStorageKey().getValue());
+        assertEquals(1, thumbnailJobs.size());
+        assertEquals(0, monitor.getDeduplicatedUploadCount());
+    }
+
+    @Test
+    void shouldUploadPhotoWithoutHash() throws IOException {
+        completedPhoto(USER, null, "photos/aa/unhashed.jpg", null);
+        Photo photo = queuedPhoto(USER, null);
+
+        processor.process(task(photo)).join();
+
+        assertEquals(1, storage.uploadedKeys.size());
+        assertEquals(UploadStatus.COMPLETED, photo.getStatus());
+        assertNotEquals("photos/aa/unhashed.jpg", photo.getStorageKey().getValue());
+    }
+
+    @Test
+    void shouldFailPhotoWhoseBytesWereLostWithoutRetrying() {
+        // Queued before a restart with its bytes on heap: the task survives, the file doesn't
+        Photo photo = newPhoto(USER, HASH);
+        photoRepository.save(photo);
+        UploadTask task = task(photo);
+
+        processor.process(task).join();
+
+        assertEquals(UploadStatus.FAILED, photo.getStatus());
+        assertTrue(queue.retried.isEmpty());
+        assertEquals(List.of(task), queue.completed);
+        assertTrue(storage.uploadedKeys.isEmpty());
+    }
+
+    @Test
+    void shouldDeferWithoutCountingFailureWhileCircuitIsOpen() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.recordFailure(storage.getBackendName());
+        }
+        Photo photo = queuedPhoto(USER, HASH);
+
+        processor.process(task(photo)).join();
+
+        assertEquals(1, queue.deferred.size());
+        assertEquals(1, monitor.getDeferredAttemptCount());
+        assertEquals(0, monitor.getFailedUploadCount());
+        assertEquals(0, registry.get("upload.photos.failed").counter().count());
+    }
+
+    @Test
+    void shouldCountRetryableFailureAsRetry() throws IOException {
+        storage.failUploads = true;
+        Photo photo = queuedPhoto(USER, HASH);
+
+        processor.process(task(photo)).join();
+
+        assertEquals(1, queue.retried.size());
+        assertEquals(1, monitor.getRetriedAttemptCount());
+        assertEquals(0, monitor.getFailedUploadCount());
+        assertEquals(UploadStatus.UPLOADING, photo.getStatus());
+    }
+
+    @Test
+    void shouldCountFailureOnceAttemptsAreExhausted() throws IOException {
+        storage.failUploads = true;
+        Photo photo = queuedPhoto(USER, HASH);
+
+        processor.process(new UploadTask(photo.getId(), null, 5, 0, null)).join();
+
+        assertTrue(queue.retried.isEmpty());
+        assertEquals(1, monitor.getFailedUploadCount());
+        assertEquals(0, monitor.getRetriedAttemptCount());
+        assertEquals(UploadStatus.FAILED, photo.getStatus());
+    }
+
+    private Photo completedPhoto(UUID userId, String hash, String storageKey, String thumbnailKey) {
+        Photo photo = newPhoto(userId, hash);
+        photo.markAsUploading();
+        photo.markAsCompleted(StorageKey.from(storageKey));
+        if (thumbnailKey != null) {
+            photo.setThumbnailStorageKey(StorageKey.from(thumbnailKey));
+        }
+        photoRepository.save(photo);
+        return photo;
+    }
+
+    private Photo queuedPhoto(UUID userId, String hash) throws IOException {
+        Photo photo = newPhoto(userId, hash);
+        photoRepository.save(photo);
+        byte[] content = new byte[(int) photo.getFileSize().getValue()];
+        temporaryFileStorage.store(photo.getId(), new ByteArrayInputStream(content), content.length);
+        return photo;
+    }
+
+    private static Photo newPhoto(UUID userId, String hash) {
+        Photo photo = Photo.create(PhotoId.generate(), Filename.from("photo.jpg"), FileSize.from(2048),
+            ContentType.from("image/jpeg"), UploadedBy.from(userId));
+        photo.getMetadata().setFileHash(hash);
+        return photo;
+    }
+
+    private static UploadTask task(Photo photo) {
+        return new UploadTask(photo.getId(), null, 1, 0, null);
+    }
+
+    private static class InMemoryPhotoRepository implements PhotoRepository {
+        private final Map<PhotoId, Photo> photos = new LinkedHashMap<>();
+
+        @Override
+        public void save(Photo photo) {
+            photos.put(photo.getId(), photo);
+        }
+
+        @Override
+        public void insertAll(List<Photo> photos) {
+            photos.forEach(this::save);
+        }
+
+        @Override
+        public Optional<Photo> findById(PhotoId photoId) {
+            return Optional.ofNullable(photos.get(photoId));
+        }
+
+        @Override
+        public List<Photo> findByUserId(UserId userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Photo> findByUserIdAndStatus(UserId userId, UploadStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Photo> findByJobIdAndStatus(JobId jobId, UploadStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Photo> findCompletedByUserIdAndFileHash(UserId userId, String fileHash) {
+            return photos.values().stream()
+                .filter(photo -> photo.getStatus() == UploadStatus.COMPLETED)
+                .filter(photo -> photo.getUploadedBy().getUserId().equals(userId.getValue()))
+                .filter(photo -> Objects.equals(photo.getMetadata().getFileHash(), fileHash))
+                .findFirst();
+        }
+
+        @Override
+        public List<PhotoId> resetFailedForRetry(Collection<PhotoId> photoIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Photo> findByStatus(UploadStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(PhotoId photoId) {
+            photos.remove(photoId);
+        }
+    }
+
+    private static class RecordingStorage implements CloudStorageService {
+        private final List<String> uploadedKeys = new ArrayList<>();
+        private boolean failUploads;
+
+        @Override
+        public String upload(String key, InputStream inputStream, String contentType) {
+            if (failUploads) {
+                throw new IllegalStateException("Storage unavailable");
+            }
+            try {
+                inputStream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            uploadedKeys.add(key);
+            return key;
+        }
+
+        @Override
+        public InputStream download(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getPublicUrl(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generatePresignedUrl(String key, int expirationMinutes) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Queue whose fenced operations always succeed, recording what was asked of it.
+     */
+    private static class RecordingQueue extends UploadTaskQueue {
+        private final List<UploadTask> completed = new ArrayList<>();
+        private final List<UploadTask> retried = new ArrayList<>();
+        private final List<UploadTask> deferred = new ArrayList<>();
+
+        RecordingQueue() {
+            super(null, 600, 5, 2000, 60_000, "test-worker");
+        }
+
+        @Override
+        public boolean complete(UploadTask task) {
+            completed.add(task);
+            return true;
+        }
+
+        @Override
+        public boolean retryLater(UploadTask task, String error) {
+            retried.add(task);
+            return true;
+        }
+
+        @Override
+        public boolean defer(UploadTask task, Duration delay) {
+            deferred.add(task);
+            return true;
+        }
+    }
+
+    private static class DirectTransactionTemplate extends TransactionTemplate {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            return action.doInTransaction(null);
+        }
+    }
+
+    private static class RecordingEventPublisher implements DomainEventPublisher {
+        private final List<Object> events = new ArrayList<>();
+
+        @Override
+        public void publish(Object event) {
+            events.add(event);
+        }
+
+        @Override
+        public void publishAll(List<Object> events) {
+            this.events.addAll(events);
+        }
+    }
+}
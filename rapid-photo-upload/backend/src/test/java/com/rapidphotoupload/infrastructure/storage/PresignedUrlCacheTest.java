@@ -0,0 +1,185 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresignedUrlCacheTest {
+
+    private static final Instant WINDOW_START = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Test
+    void shouldReuseSignedUrlWithinWindow() {
+        var storage = new CountingStorage();
+        var clock = new MutableClock(WINDOW_START);
+        var cache = new PresignedUrlCache(storage, Duration.ofMinutes(15), 100, clock);
+
+        String first = cache.getPresignedUrl("photos/a.jpg", 60);
+        clock.advance(Duration.ofMinutes(14));
+        String second = cache.getPresignedUrl("photos/a.jpg", 60);
+
+        assertEquals(first, second);
+        assertEquals(1, storage.signatures.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void shouldExposeHitsAndMissesAsMeters() {
+        var registry = new SimpleMeterRegistry();
+        var cache = new PresignedUrlCache(new CountingStorage(), Duration.ofMinutes(15), 100,
+            new MutableClock(WINDOW_START));
+        cache.registerMetrics(registry);
+
+        cache.getPresignedUrl("photos/a.jpg", 60);
+        cache.getPresignedUrls(List.of("photos/a.jpg", "photos/b.jpg"), 60);
+
+        assertEquals(1, registry.get("presigned.url.cache").tag("result", "hit").functionCounter().count());
+        assertEquals(2, registry.get("presigned.url.cache").tag("result", "miss").functionCounter().count());
+        assertEquals(2, registry.get("presigned.url.cache.size").gauge().value());
+    }
+
+    @Test
+    void shouldSignForRequestedLifetimePlusWindow() {
+        var storage = new CountingStorage();
+        var cache = new PresignedUrlCache(storage, Duration.ofMinutes(15), 100, new MutableClock(WINDOW_START));
+
+        String url = cache.getPresignedUrl("photos/a.jpg", 60);
+
+        assertTrue(url.endsWith("expires=75"));
+    }
+
+    @Test
+    void shouldSignAgainInNextWindow() {
+        var storage = new CountingStorage();
+        var clock = new MutableClock(WINDOW_START);
+        var cache = new PresignedUrlCache(storage, Duration.ofMinutes(15), 100, clock);
+
+        cache.getPresignedUrl("photos/a.jpg", 60);
+        clock.advance(Duration.ofMinutes(15));
+        cache.getPresignedUrl("photos/a.jpg", 60);
+
+        assertEquals(2, storage.signatures.get());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void shouldKeepDifferentLifetimesApart() {
+        var storage = new CountingStorage();
+        var cache = new PresignedUrlCache(storage, Duration.ofMinutes(15), 100, new MutableClock(WINDOW_START));
+
+        String gallery = cache.getPresignedUrl("photos/a.jpg", 60);
+        String download = cache.getPresignedUrl("photos/a.jpg", 120);
+
+        assertNotEquals(gallery, download);
+        assertEquals(2, storage.signatures.get());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntries() {
+        var storage = new CountingStorage();
+        var cache = new PresignedUrlCache(storage, Duration.ofMinutes(15), 2, new MutableClock(WINDOW_START));
+
+        cache.getPresignedUrl("photos/a.jpg", 60);
+        cache.getPresignedUrl("photos/b.jpg", 60);
+        cache.getPresignedUrl("photos/a.jpg", 60);
+        cache.getPresignedUrl("photos/c.jpg", 60);
+
+        assertEquals(2, cache.size());
+        cache.getPresignedUrl("photos/a.jpg", 60);
+        assertEquals(3, storage.signatures.get());
+        cache.getPresignedUrl("photos/b.jpg", 60);
+        assertEquals(4, storage.signatures.get());
+    }
+
+    @Test
+    void shouldSignOnlyMissingKeysInBulk() {
+        var storage = new CountingStorage();
+        var cache = new PresignedUrlCache(storage, Duration.ofMinutes(15), 100, new MutableClock(WINDOW_START));
+        String cached = cache.getPresignedUrl("photos/a.jpg", 60);
+
+        var urls = cache.getPresignedUrls(Arrays.asList("photos/a.jpg", "photos/b.jpg", null, "photos/b.jpg"), 60);
+
+        assertEquals(2, urls.size());
+        assertEquals(cached, urls.get("photos/a.jpg"));
+        assertEquals(2, storage.signatures.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(urls.get("photos/b.jpg"), cache.getPresignedUrl("photos/b.jpg", 60));
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        var storage = new CountingStorage();
+        var clock = new MutableClock(WINDOW_START);
+        assertThrows(IllegalArgumentException.class, () -> new PresignedUrlCache(storage, Duration.ZERO, 100, clock));
+        assertThrows(IllegalArgumentException.class, () -> new PresignedUrlCache(storage, Duration.ofMinutes(15), 0, clock));
+    }
+
+    private static final class CountingStorage implements CloudStorageService {
+        final AtomicInteger signatures = new AtomicInteger();
+
+        @Override
+        public String generatePresignedUrl(String key, int expirationMinutes) {
+            return "https://storage.example/" + key + "?sig=" + signatures.incrementAndGet() + "&expires=" + expirationMinutes;
+        }
+
+        @Override
+        public String upload(String key, InputStream inputStream, String contentType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InputStream download(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getPublicUrl(String key) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3AsyncPhotoStorageServiceTest {
+
+    private static final int BUFFERED_LIMIT = 1024 * 1024;
+
+    private final InMemoryS3AsyncClient s3 = new InMemoryS3AsyncClient();
+    private final UploadPerformanceMonitor monitor = new UploadPerformanceMonitor(new SimpleMeterRegistry(), "s3");
+    private final AtomicInteger readerThreads = new AtomicInteger();
+    private final ExecutorService streamReaderExecutor = Executors.newCachedThreadPool(runnable -> {
+        readerThreads.incrementAndGet();
+        Thread thread = new Thread(runnable, "s3-stream-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final S3AsyncPhotoStorageService service =
+        new S3AsyncPhotoStorageService(s3, null, "test-bucket", streamReaderExecutor, monitor);
+
+    @AfterEach
+    void shutdown() {
+        streamReaderExecutor.shutdownNow();
+    }
+
+    @Test
+    void shouldBufferSmallStreamsBeforeSending() throws Exception {
+        byte[] content = bytes(BUFFERED_LIMIT);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        s3.source = in;
+
+        String key = service.uploadAsync("photos/ab/small.jpg", in, content.length, "image/jpeg")
+            .get(5, TimeUnit.SECONDS);
+
+        assertEquals("photos/ab/small.jpg", key);
+        assertArrayEquals(content, s3.objects.get(key));
+        // Read in full on the caller before the request was handed to the client
+        assertEquals(0, s3.unreadAtPut.get(key));
+        assertEquals(0, readerThreads.get());
+        assertEquals(1, monitor.getUploadedPartCount());
+        assertEquals(content.length, monitor.getUploadedPartBytes());
+    }
+
+    @Test
+    void shouldPumpLargeStreamsOnReaderExecutor() throws Exception {
+        byte[] content = bytes(BUFFERED_LIMIT + 1);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        s3.source = in;
+
+        String key = service.uploadAsync("photos/ab/large.jpg", in, content.length, "image/jpeg")
+            .get(5, TimeUnit.SECONDS);
+
+        assertArrayEquals(content, s3.objects.get(key));
+        assertEquals(content.length, s3.unreadAtPut.get(key));
+        assertTrue(readerThreads.get() > 0);
+        assertEquals(1, monitor.getUploadedPartCount());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenPutFails() {
+        s3.failure = (S3Exception) S3Exception.builder()
+            .message("Injected failure")
+            .awsErrorDetails(AwsErrorDetails.builder().errorMessage("Injected failure").build())
+            .build();
+        byte[] content = bytes(1000);
+
+        CompletableFuture<String> upload = assertDoesNotThrow(() ->
+            service.uploadAsync("photos/ab/broken.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> upload.get(5, TimeUnit.SECONDS));
+        assertEquals("Failed to upload file to S3: Injected failure", error.getCause().getMessage());
+        assertFalse(s3.objects.containsKey("photos/ab/broken.jpg"));
+        assertEquals(0, monitor.getUploadedPartCount());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenClientThrows() {
+        s3.throwOnPut = true;
+        byte[] content = bytes(1000);
+
+        CompletableFuture<String> upload = assertDoesNotThrow(() ->
+            service.uploadAsync("photos/ab/rejected.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> upload.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().startsWith("Failed to upload file to S3"));
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    /**
+     * Minimal in-memory S3 async stand-in that drains each request body as a subscriber would.
+     */
+    private static class InMemoryS3AsyncClient implements S3AsyncClient {
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, Integer> unreadAtPut = new ConcurrentHashMap<>();
+        volatile S3Exception failure;
+        volatile boolean throwOnPut;
+        // Stream being uploaded, to see how much of it was read before the request was made
+        volatile ByteArrayInputStream source;
+
+        @Override
+        public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest request, AsyncRequestBody body) {
+            if (throwOnPut) {
+                throw new IllegalStateException("Client closed");
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            if (source != null) {
+                unreadAtPut.put(request.key(), source.available());
+            }
+            CompletableFuture<PutObjectResponse> response = new CompletableFuture<>();
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            body.subscribe(new Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(ByteBuffer buffer) {
+                    byte[] chunk = new byte[buffer.remaining()];
+                    buffer.get(chunk);
+                    received.writeBytes(chunk);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    response.completeExceptionally(error);
+                }
+
+                @Override
+                public void onComplete() {
+                    objects.put(request.key(), received.toByteArray());
+                    response.complete(PutObjectResponse.builder().eTag("etag").build());
+                }
+            });
+            return response;
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import com.rapidphotoupload.infrastructure.monitoring.UploadPerformanceMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3PhotoStorageServiceTest {
+
+    private static final int PART_SIZE = (int) S3PhotoStorageService.MIN_PART_SIZE_BYTES;
+
+    @Test
+    void shouldUseSinglePutBelowThreshold() {
+        var s3 = new InMemoryS3Client();
+        var monitor = new UploadPerformanceMonitor(new SimpleMeterRegistry(), "s3");
+        var service = service(s3, monitor, Runnable::run);
+        byte[] content = bytes(1000);
+
+        service.upload("photos/ab/small.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        assertArrayEquals(content, s3.objects.get("photos/ab/small.jpg"));
+        assertEquals(0, s3.createdUploads.get());
+        assertEquals(1, monitor.getUploadedPartCount());
+    }
+
+    @Test
+    void shouldUploadLargeObjectInParallelParts() {
+        var s3 = new InMemoryS3Client();
+        var monitor = new UploadPerformanceMonitor(new SimpleMeterRegistry(), "s3");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            var service = service(s3, monitor, executor);
+            byte[] content = bytes(PART_SIZE * 2 + 123);
+
+            service.upload("photos/ab/large.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+            assertArrayEquals(content, s3.objects.get("photos/ab/large.jpg"));
+            assertEquals(1, s3.createdUploads.get());
+            assertEquals(3, monitor.getUploadedPartCount());
+            assertEquals(content.length, monitor.getUploadedPartBytes());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldAbortMultipartUploadWhenPartFails() {
+        var s3 = new InMemoryS3Client();
+        s3.failPartNumber = 2;
+        var service = service(s3, new UploadPerformanceMonitor(new SimpleMeterRegistry(), "s3"), Runnable::run);
+        byte[] content = bytes(PART_SIZE * 3);
+
+        assertThrows(RuntimeException.class, () ->
+            service.upload("photos/ab/broken.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg"));
+
+        assertEquals(1, s3.abortedUploads.get());
+        assertFalse(s3.objects.containsKey("photos/ab/broken.jpg"));
+    }
+
+    private static S3PhotoStorageService service(S3Client s3, UploadPerformanceMonitor monitor,
+                                                 Executor executor) {
+        return new S3PhotoStorageService(s3, null, "test-bucket", 60,
+            PART_SIZE, PART_SIZE, 2, executor, monitor);
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    /**
+     * Minimal in-memory S3 stand-in covering the calls used for uploads.
+     */
+    private static class InMemoryS3Client implements S3Client {
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, Map<Integer, byte[]>> pendingParts = new ConcurrentHashMap<>();
+        final AtomicInteger createdUploads = new AtomicInteger();
+        final AtomicInteger abortedUploads = new AtomicInteger();
+        volatile int failPartNumber = -1;
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            objects.put(request.key(), read(body));
+            return PutObjectResponse.builder().eTag("etag").build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            String uploadId = "upload-" + createdUploads.incrementAndGet();
+            pendingParts.put(uploadId, new ConcurrentHashMap<>());
+            return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            if (request.partNumber() == failPartNumber) {
+                throw S3Exception.builder()
+                    .message("Injected failure")
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorMessage("Injected failure").build())
+                    .build();
+            }
+            pendingParts.get(request.uploadId()).put(request.partNumber(), read(body));
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            Map<Integer, byte[]> parts = pendingParts.remove(request.uploadId());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (CompletedPart part : request.multipartUpload().parts()) {
+                out.writeBytes(parts.get(part.partNumber()));
+            }
+            objects.put(request.key(), out.toByteArray());
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            pendingParts.remove(request.uploadId());
+            abortedUploads.incrementAndGet();
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static byte[] read(RequestBody body) {
+            try {
+                return body.contentStreamProvider().newStream().readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
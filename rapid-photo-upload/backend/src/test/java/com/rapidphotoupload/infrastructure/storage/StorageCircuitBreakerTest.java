@@ -0,0 +1,48 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageCircuitBreakerTest {
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        var breaker = new StorageCircuitBreaker(2, 60_000);
+
+        breaker.recordFailure("s3");
+        assertTrue(breaker.tryAcquire("s3"));
+        breaker.recordFailure("s3");
+
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState("s3"));
+        assertFalse(breaker.tryAcquire("s3"));
+        assertTrue(breaker.remainingOpenTime("s3").toMillis() > 0);
+        assertTrue(breaker.tryAcquire("local"));
+    }
+
+    @Test
+    void shouldAllowSingleTrialWhenHalfOpen() {
+        var breaker = new StorageCircuitBreaker(1, 0);
+        breaker.recordFailure("s3");
+
+        assertTrue(breaker.tryAcquire("s3"));
+        assertEquals(StorageCircuitBreaker.State.HALF_OPEN, breaker.getState("s3"));
+        assertFalse(breaker.tryAcquire("s3"));
+
+        breaker.recordSuccess("s3");
+
+        assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState("s3"));
+        assertTrue(breaker.tryAcquire("s3"));
+    }
+
+    @Test
+    void shouldReopenWhenTrialFails() {
+        var breaker = new StorageCircuitBreaker(1, 0);
+        breaker.recordFailure("s3");
+        assertTrue(breaker.tryAcquire("s3"));
+
+        breaker.recordFailure("s3");
+
+        assertNotEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState("s3"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageConcurrencyLimiterTest {
+
+    @Test
+    void shouldApplyPerBackendLimitWithDefaultFallback() {
+        var environment = new MockEnvironment().withProperty("upload.concurrency.s3", "2");
+        var limiter = new StorageConcurrencyLimiter(environment, 5);
+
+        assertEquals(2, limiter.availablePermits("s3"));
+        assertEquals(5, limiter.availablePermits("local"));
+    }
+
+    @Test
+    void shouldTrackAcquireAndReleaseIndependentlyPerBackend() {
+        var limiter = new StorageConcurrencyLimiter(new MockEnvironment(), 2);
+
+        limiter.acquire("s3");
+        limiter.acquire("s3");
+
+        assertEquals(0, limiter.availablePermits("s3"));
+        assertEquals(2, limiter.availablePermits("local"));
+
+        limiter.release("s3");
+
+        assertEquals(1, limiter.availablePermits("s3"));
+    }
+}
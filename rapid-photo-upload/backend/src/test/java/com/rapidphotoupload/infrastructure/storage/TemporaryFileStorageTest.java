@@ -0,0 +1,149 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import com.rapidphotoupload.domain.valueobjects.PhotoId;
+import com.rapidphotoupload.infrastructure.exceptions.TemporaryStorageFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporaryFileStorageTest {
+
+    @TempDir
+    Path spoolDir;
+
+    @Test
+    void shouldKeepSmallFilesInMemory() throws Exception {
+        var storage = new TemporaryFileStorage(1024, 1024, 4096, 5, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local");
+        var photoId = PhotoId.generate();
+
+        storage.store(photoId, file(100));
+
+        assertEquals(100, storage.getInMemoryBytes());
+        assertEquals(0, storage.getSpilledBytes());
+        assertEquals(100, storage.getBufferedBytes());
+        try (InputStream in = storage.retrieve(photoId)) {
+            assertEquals(100, in.readAllBytes().length);
+        }
+    }
+
+    @Test
+    void shouldExposeBufferedBytesAsGauges() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var storage = new TemporaryFileStorage(150, 1024, 4096, 5, spoolDir.toString(), registry, "S3");
+
+        storage.store(PhotoId.generate(), file(100));
+        storage.store(PhotoId.generate(), file(100));
+
+        assertEquals(200, registry.get("upload.temp.buffered.bytes").tag("storage", "s3").gauge().value());
+        assertEquals(100, registry.get("upload.temp.spilled.bytes").gauge().value());
+        assertEquals(100, registry.get("upload.temp.in.memory.bytes").gauge().value());
+        assertEquals(4096, registry.get("upload.temp.max.bytes").gauge().value());
+    }
+
+    @Test
+    void shouldSpillToDiskPastMemoryBudget() throws Exception {
+        var storage = new TemporaryFileStorage(150, 1024, 4096, 5, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local");
+        var first = PhotoId.generate();
+        var second = PhotoId.generate();
+
+        storage.store(first, file(100));
+        storage.store(second, file(100));
+
+        assertEquals(100, storage.getInMemoryBytes());
+        assertEquals(100, storage.getSpilledBytes());
+        try (InputStream in = storage.retrieve(second)) {
+            assertArrayEquals(file(100).getBytes(), in.readAllBytes());
+        }
+
+        storage.remove(second);
+
+        assertEquals(0, storage.getSpilledBytes());
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldRejectWhenCeilingReached() throws Exception {
+        var storage = new TemporaryFileStorage(0, 1024, 150, 7, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local");
+        storage.store(PhotoId.generate(), file(100));
+
+        assertFalse(storage.hasCapacityFor(100));
+        var ex = assertThrows(TemporaryStorageFullException.class,
+            () -> storage.store(PhotoId.generate(), file(100)));
+        assertEquals(7, ex.getRetryAfterSeconds());
+        assertEquals(100, storage.getBufferedBytes());
+    }
+
+    @Test
+    void shouldStreamLargeFilesToDiskAndComputeHash() throws Exception {
+        var storage = new TemporaryFileStorage(1 << 20, 64, 1 << 20, 5, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local");
+        var photoId = PhotoId.generate();
+        var upload = file(200_000);
+
+        var info = storage.store(photoId, upload);
+
+        assertEquals(200_000, info.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(upload.getBytes())),
+            info.sha256());
+        assertEquals(0, storage.getInMemoryBytes());
+        assertEquals(200_000, storage.getSpilledBytes());
+        try (InputStream in = storage.retrieve(photoId)) {
+            assertArrayEquals(upload.getBytes(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void shouldRejectTruncatedStreamAndReleaseReservation() {
+        var storage = new TemporaryFileStorage(0, 1024, 4096, 5, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local");
+
+        assertThrows(IOException.class,
+            () -> storage.store(PhotoId.generate(), new ByteArrayInputStream(new byte[50]), 100));
+        assertEquals(0, storage.getBufferedBytes());
+        assertEquals(0, storage.getSpilledBytes());
+    }
+
+    @Test
+    void shouldRecoverSpooledFilesAfterRestart() throws Exception {
+        var photoId = PhotoId.generate();
+        new TemporaryFileStorage(0, 1024, 4096, 5, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local").store(photoId, file(100));
+        Files.writeString(spoolDir.resolve(PhotoId.generate().getValue() + ".partial"), "torn write");
+
+        var restarted = new TemporaryFileStorage(0, 1024, 4096, 5, spoolDir.toString(),
+            new SimpleMeterRegistry(), "local");
+
+        assertTrue(restarted.exists(photoId));
+        assertEquals(100, restarted.getSpilledBytes());
+        try (InputStream in = restarted.retrieve(photoId)) {
+            assertArrayEquals(file(100).getBytes(), in.readAllBytes());
+        }
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private static MockMultipartFile file(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new MockMultipartFile("files", "photo.jpg", "image/jpeg", bytes);
+    }
+}
@@ -0,0 +1,70 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThrottledUploadProgressTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Integer> emitted = new ArrayList<>();
+
+    @Test
+    void shouldEmitInStepsWhenFast() {
+        var progress = new ThrottledUploadProgress(1000, 5, Duration.ofMillis(250), emitted::add, clock::get);
+
+        for (long bytes = 10; bytes <= 1000; bytes += 10) {
+            progress.onProgress(bytes);
+        }
+
+        assertEquals(List.of(5, 10, 15, 20, 25, 30, 35, 40, 45, 50, 55, 60, 65, 70, 75, 80, 85, 90, 95), emitted);
+    }
+
+    @Test
+    void shouldEmitSmallerStepsAfterInterval() {
+        var progress = new ThrottledUploadProgress(1000, 5, Duration.ofMillis(250), emitted::add, clock::get);
+
+        progress.onProgress(10);
+        clock.addAndGet(Duration.ofMillis(250).toNanos());
+        progress.onProgress(20);
+        progress.onProgress(30);
+
+        assertEquals(List.of(2), emitted);
+    }
+
+    @Test
+    void shouldNeverGoBackwardsOrReachHundred() {
+        var progress = new ThrottledUploadProgress(100, 5, Duration.ofMillis(250), emitted::add, clock::get);
+
+        progress.onProgress(50);
+        // Backend restarted the transfer
+        progress.onProgress(10);
+        progress.onProgress(100);
+
+        assertEquals(List.of(50, 99), emitted);
+    }
+
+    @Test
+    void shouldReportBytesReadThroughStream() throws IOException {
+        var progress = new ThrottledUploadProgress(100_000, 5, Duration.ofMillis(250), emitted::add, clock::get);
+
+        try (InputStream in = new ProgressReportingInputStream(new ByteArrayInputStream(new byte[100_000]), progress)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // drain
+            }
+        }
+
+        assertFalse(emitted.isEmpty());
+        assertTrue(emitted.get(emitted.size() - 1) >= 95);
+        assertTrue(emitted.size() <= 19);
+    }
+}
@@ -0,0 +1,74 @@
+package com.rapidphotoupload.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThumbnailGeneratorTest {
+
+    @Test
+    void shouldRenderEachSizeFromOneDecode() throws IOException {
+        byte[] png = png(2000, 1000);
+
+        var renditions = ThumbnailGenerator.render(new ByteArrayInputStream(png), new int[] {100, 400}, 16_000_000)
+            .orElseThrow();
+
+        assertEquals(2000, renditions.width());
+        assertEquals(1000, renditions.height());
+        assertEquals(List.of(100, 400), List.copyOf(renditions.images().keySet()));
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(renditions.images().get(100)));
+        BufferedImage large = ImageIO.read(new ByteArrayInputStream(renditions.images().get(400)));
+        assertEquals(100, small.getWidth());
+        assertEquals(50, small.getHeight());
+        assertEquals(400, large.getWidth());
+        assertEquals(200, large.getHeight());
+    }
+
+    @Test
+    void shouldNotUpscaleSmallImages() throws IOException {
+        var renditions = ThumbnailGenerator.render(new ByteArrayInputStream(png(60, 80)), new int[] {320}, 16_000_000)
+            .orElseThrow();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(renditions.images().get(320)));
+        assertEquals(60, image.getWidth());
+        assertEquals(80, image.getHeight());
+    }
+
+    @Test
+    void shouldSkipUnreadableInput() throws IOException {
+        var renditions = ThumbnailGenerator.render(
+            new ByteArrayInputStream("not an image".getBytes()), new int[] {320}, 16_000_000);
+
+        assertTrue(renditions.isEmpty());
+    }
+
+    @Test
+    void shouldSubsampleToLargestRendition() {
+        // 8000x6000 only needs every 6th pixel for a 1280px rendition
+        assertEquals(6, ThumbnailGenerator.subsampling(8000, 6000, 1280, 16_000_000));
+        assertEquals(1, ThumbnailGenerator.subsampling(1000, 800, 1280, 16_000_000));
+    }
+
+    @Test
+    void shouldSubsampleFurtherToStayWithinPixelBudget() {
+        // Very wide panorama: the long-edge target alone would decode 20000 x 6250 pixels
+        int subsampling = ThumbnailGenerator.subsampling(40000, 12500, 20000, 10_000_000);
+
+        assertTrue((long) Math.ceil(40000.0 / subsampling) * (long) Math.ceil(12500.0 / subsampling) <= 10_000_000);
+        assertEquals(8, subsampling);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,169 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import com.rapidphotoupload.domain.valueobjects.JobId;
+import com.rapidphotoupload.domain.valueobjects.JobProgress;
+import com.rapidphotoupload.domain.valueobjects.JobStatus;
+import com.rapidphotoupload.domain.valueobjects.UserId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobProgressAggregatorTest {
+
+    private static final UserId USER = UserId.generate();
+    private static final JobId JOB = JobId.generate();
+    private static final String USER_ID = USER.getValue().toString();
+    private static final String JOB_ID = JOB.getValue().toString();
+
+    private final CapturingHandler handler = new CapturingHandler();
+    private final AtomicLong clock = new AtomicLong();
+    private final JobProgressAggregator aggregator = new JobProgressAggregator(handler, clock::get);
+
+    @Test
+    void shouldCoalesceJobUpdatesIntoOneFrame() {
+        aggregator.photoProgress(USER_ID, JOB_ID, "p1", 0, "UPLOADING");
+        aggregator.photoProgress(USER_ID, JOB_ID, "p2", 0, "UPLOADING");
+        aggregator.photoProgress(USER_ID, JOB_ID, "p1", 100, "COMPLETED");
+        aggregator.jobProgress(progress(1, 0, 3, JobStatus.IN_PROGRESS));
+
+        assertTrue(handler.sent.isEmpty());
+        aggregator.flush();
+
+        assertEquals(1, handler.sent.size());
+        var frame = (JobProgressAggregator.JobProgressBatch) handler.sent.get(0);
+        assertEquals("job_batch", frame.type());
+        assertEquals(JOB_ID, frame.jobId());
+        assertEquals(1, frame.completed());
+        assertEquals(3, frame.total());
+        assertEquals(List.of(
+            new JobProgressAggregator.PhotoState("p2", 0, "UPLOADING"),
+            new JobProgressAggregator.PhotoState("p1", 100, "COMPLETED")), frame.photos());
+    }
+
+    @Test
+    void shouldSkipFlushWithoutChanges() {
+        aggregator.photoProgress(USER_ID, JOB_ID, "p1", 0, "UPLOADING");
+        aggregator.flush();
+        aggregator.flush();
+
+        assertEquals(1, handler.sent.size());
+    }
+
+    @Test
+    void shouldKeepMostAdvancedCounters() {
+        aggregator.jobProgress(progress(2, 0, 5, JobStatus.IN_PROGRESS));
+        aggregator.jobProgress(progress(1, 0, 5, JobStatus.IN_PROGRESS));
+        aggregator.flush();
+
+        var frame = (JobProgressAggregator.JobProgressBatch) handler.sent.get(0);
+        assertEquals(2, frame.completed());
+    }
+
+    @Test
+    void shouldFlushImmediatelyWhenJobFinishes() {
+        aggregator.photoProgress(USER_ID, JOB_ID, "p1", 100, "COMPLETED");
+        aggregator.jobProgress(progress(1, 1, 2, JobStatus.PARTIALLY_FAILED));
+
+        assertEquals(1, handler.sent.size());
+        var frame = (JobProgressAggregator.JobProgressBatch) handler.sent.get(0);
+        assertEquals("PARTIALLY_FAILED", frame.status());
+        assertEquals(1, frame.failed());
+    }
+
+    @Test
+    void shouldSplitLargeChangesIntoFrames() {
+        for (int i = 0; i < 120; i++) {
+            aggregator.photoProgress(USER_ID, JOB_ID, "p" + i, 100, "COMPLETED");
+        }
+        aggregator.jobProgress(progress(120, 0, 200, JobStatus.IN_PROGRESS));
+        aggregator.flush();
+
+        assertEquals(3, handler.sent.size());
+        var last = (JobProgressAggregator.JobProgressBatch) handler.sent.get(2);
+        assertEquals(20, last.photos().size());
+        assertEquals("p119", last.photos().get(19).photoId());
+        assertEquals(120, last.completed());
+    }
+
+    @Test
+    void shouldSendSingleUploadsImmediately() {
+        aggregator.photoProgress(USER_ID, null, "p1", 100, "COMPLETED");
+
+        assertEquals(1, handler.sent.size());
+        var message = (ProgressWebSocketHandler.ProgressMessage) handler.sent.get(0);
+        assertEquals("photo_progress", message.getType());
+        assertEquals(0, aggregator.getBufferedJobCount());
+    }
+
+    @Test
+    void shouldDropIdleBuffers() {
+        aggregator.photoProgress(USER_ID, JOB_ID, "p1", 0, "UPLOADING");
+        aggregator.flush();
+        assertEquals(1, aggregator.getBufferedJobCount());
+
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+        aggregator.flush();
+
+        assertEquals(0, aggregator.getBufferedJobCount());
+    }
+
+    @Test
+    void shouldNotLoseUpdatesRecordedWhileBufferExpires() {
+        // The clock is read between looking up the buffer and recording into it; expire the
+        // buffer right there, as a concurrent flush could
+        Runnable[] interleave = {null};
+        JobProgressAggregator racing = new JobProgressAggregator(handler, () -> {
+            Runnable action = interleave[0];
+            interleave[0] = null;
+            if (action != null) {
+                action.run();
+            }
+            return clock.get();
+        });
+        racing.photoProgress(USER_ID, JOB_ID, "p1", 100, "COMPLETED");
+        racing.flush();
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+
+        interleave[0] = racing::flush;
+        racing.photoProgress(USER_ID, JOB_ID, "p2", 50, "UPLOADING");
+        racing.flush();
+
+        assertEquals(1, racing.getBufferedJobCount());
+        assertEquals(2, handler.sent.size());
+        var photoFrame = (JobProgressAggregator.JobProgressBatch) handler.sent.get(1);
+        assertEquals(List.of(new JobProgressAggregator.PhotoState("p2", 50, "UPLOADING")), photoFrame.photos());
+
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+        interleave[0] = racing::flush;
+        racing.jobProgress(progress(1, 0, 2, JobStatus.IN_PROGRESS));
+        racing.flush();
+
+        assertEquals(1, racing.getBufferedJobCount());
+        assertEquals(3, handler.sent.size());
+        var counterFrame = (JobProgressAggregator.JobProgressBatch) handler.sent.get(2);
+        assertEquals(1, counterFrame.completed());
+    }
+
+    private static JobProgress progress(int completed, int failed, int total, JobStatus status) {
+        return new JobProgress(JOB, USER, completed, failed, total, status);
+    }
+
+    private static class CapturingHandler extends ProgressWebSocketHandler {
+        private final List<Object> sent = new ArrayList<>();
+
+        CapturingHandler() {
+            super(null, null, new InProcessProgressBus(), Runnable::run, 5000, 64 * 1024);
+        }
+
+        @Override
+        public void sendMessage(String userId, Object message) {
+            assertEquals(USER_ID, userId);
+            sent.add(message);
+        }
+    }
+}
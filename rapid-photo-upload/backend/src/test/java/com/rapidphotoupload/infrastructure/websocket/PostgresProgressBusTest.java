@@ -0,0 +1,52 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresProgressBusTest {
+
+    @Test
+    void shouldPackEnvelopesIntoBoundedPayloads() {
+        String envelope = "{\"u\":\"user\",\"m\":{\"x\":\"" + "a".repeat(1000) + "\"}}";
+        List<String> envelopes = Collections.nCopies(20, envelope);
+
+        List<String> payloads = PostgresProgressBus.pack(envelopes, PostgresProgressBus.MAX_PAYLOAD_BYTES);
+
+        assertEquals(3, payloads.size());
+        for (String payload : payloads) {
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length <= PostgresProgressBus.MAX_PAYLOAD_BYTES);
+            assertTrue(payload.startsWith("[") && payload.endsWith("]"));
+        }
+    }
+
+    @Test
+    void shouldDropEnvelopeOverLimit() {
+        List<String> payloads = PostgresProgressBus.pack(
+            List.of("{\"u\":\"a\",\"m\":1}", "x".repeat(100), "{\"u\":\"b\",\"m\":2}"), 50);
+
+        assertEquals(List.of("[{\"u\":\"a\",\"m\":1},{\"u\":\"b\",\"m\":2}]"), payloads);
+    }
+
+    @Test
+    void shouldDeliverPublishedMessagesFromPayload() {
+        var bus = new PostgresProgressBus(null, null, 50, 100);
+        List<String> received = new ArrayList<>();
+        bus.subscribe((userId, message) -> received.add(userId + " " + message));
+
+        String payload = PostgresProgressBus.pack(List.of(
+            "{\"u\":\"u1\",\"m\":{\"type\":\"job_batch\",\"photos\":[]}}",
+            "{\"u\":\"u2\",\"m\":{\"type\":\"photo_progress\"}}"), PostgresProgressBus.MAX_PAYLOAD_BYTES).get(0);
+        bus.dispatch(payload);
+        bus.dispatch("not json");
+
+        assertEquals(List.of(
+            "u1 {\"type\":\"job_batch\",\"photos\":[]}",
+            "u2 {\"type\":\"photo_progress\"}"), received);
+    }
+}
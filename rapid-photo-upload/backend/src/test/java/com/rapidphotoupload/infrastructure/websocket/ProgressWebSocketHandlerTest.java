@@ -0,0 +1,207 @@
+package com.rapidphotoupload.infrastructure.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressWebSocketHandlerTest {
+
+    private static final String ANONYMOUS = "00000000-0000-0000-0000-000000000000";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldSendToEverySessionOfUser() throws Exception {
+        var handler = new ProgressWebSocketHandler(null, null, new InProcessProgressBus(), Runnable::run, 5000, 64 * 1024);
+        var first = new FakeSession("s1", ANONYMOUS);
+        var second = new FakeSession("s2", ANONYMOUS);
+        handler.afterConnectionEstablished(first);
+        handler.afterConnectionEstablished(second);
+
+        handler.sendProgressUpdate(ANONYMOUS, message());
+
+        assertEquals(2, handler.getSessionCount(ANONYMOUS));
+        assertEquals(1, first.sent.size());
+        assertEquals(1, second.sent.size());
+    }
+
+    @Test
+    void shouldStopSendingToClosedSession() throws Exception {
+        var handler = new ProgressWebSocketHandler(null, null, new InProcessProgressBus(), Runnable::run, 5000, 64 * 1024);
+        var first = new FakeSession("s1", ANONYMOUS);
+        var second = new FakeSession("s2", ANONYMOUS);
+        handler.afterConnectionEstablished(first);
+        handler.afterConnectionEstablished(second);
+
+        handler.afterConnectionClosed(first, CloseStatus.NORMAL);
+        handler.sendProgressUpdate(ANONYMOUS, message());
+
+        assertEquals(1, handler.getSessionCount(ANONYMOUS));
+        assertEquals(0, first.sent.size());
+        assertEquals(1, second.sent.size());
+    }
+
+    @Test
+    void shouldNotBlockCallerOnSlowSession() throws Exception {
+        var handler = new ProgressWebSocketHandler(null, null, new InProcessProgressBus(), executor, 5000, 64 * 1024);
+        var release = new CountDownLatch(1);
+        var slow = new FakeSession("slow", ANONYMOUS, release);
+        var fast = new FakeSession("fast", ANONYMOUS);
+        handler.afterConnectionEstablished(slow);
+        handler.afterConnectionEstablished(fast);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            handler.sendProgressUpdate(ANONYMOUS, message());
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1000, "sendProgressUpdate blocked for " + elapsedMs + " ms");
+        assertTrue(fast.awaitMessages(3));
+        release.countDown();
+        assertTrue(slow.awaitMessages(3));
+    }
+
+    private static ProgressWebSocketHandler.ProgressMessage message() {
+        return new ProgressWebSocketHandler.ProgressMessage("photo_progress", "p", null, 50, 100, "UPLOADING");
+    }
+
+    private static class FakeSession implements WebSocketSession {
+        private final String id;
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final CountDownLatch release;
+        private final List<WebSocketMessage<?>> sent = new CopyOnWriteArrayList<>();
+        private volatile boolean open = true;
+
+        FakeSession(String id, String userId) {
+            this(id, userId, new CountDownLatch(0));
+        }
+
+        FakeSession(String id, String userId, CountDownLatch release) {
+            this.id = id;
+            this.attributes.put("userId", userId);
+            this.release = release;
+        }
+
+        boolean awaitMessages(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent.size() >= count;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertInstanceOf(TextMessage.class, message);
+            sent.add(message);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            open = false;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 import { useQuery, useMutation, useQueryClient, useInfiniteQuery } from '@tanstack/react-query';
 import apiClient, { apiClient as apiClientInstance } from '../services/apiClient';
-import { Photo, PhotoListResponse, UploadJob } from '../types';
+import { Photo, PhotoBatchResponse, PhotoListResponse, UploadJob } from '../types';
 
 /**
  * React Query hooks for photo operations.
@@ -20,19 +20,19 @@ export const usePhotos = (page: number = 0, pageSize: number = 20) => {
 export const usePhotosInfinite = (pageSize: number = 20) => {
   return useInfiniteQuery<PhotoListResponse>({
     queryKey: ['photos', 'infinite'],
-    queryFn: async ({ pageParam = 0 }) => {
+    queryFn: async ({ pageParam }) => {
       const response = await apiClient.get('/photos', {
-        params: { page: pageParam, pageSize },
+        params: { cursor: pageParam as string | undefined, pageSize },
       });
       return response.data;
     },
     getNextPageParam: (lastPage) => {
-      if (lastPage.hasNext) {
-        return lastPage.page + 1;
+      if (lastPage.hasNext && lastPage.nextCursor) {
+        return lastPage.nextCursor;
       }
       return undefined;
     },
-    initialPageParam: 0,
+    initialPageParam: undefined,
   });
 };
 
@@ -47,6 +47,20 @@ export const usePhoto = (photoId: string) => {
   });
 };
 
+/**
+ * Fetch several photos in one request (at most 500 IDs) instead of one request per photo.
+ */
+export const usePhotosByIds = (photoIds: string[]) => {
+  return useQuery<PhotoBatchResponse>({
+    queryKey: ['photos', 'batch', photoIds],
+    queryFn: async () => {
+      const response = await apiClient.post('/photos/batch', { ids: photoIds });
+      return response.data;
+    },
+    enabled: photoIds.length > 0,
+  });
+};
+
 export const useUploadJob = (jobId: string) => {
   return useQuery<UploadJob>({
     queryKey: ['uploadJob', jobId],
@@ -12,6 +12,20 @@ interface ProgressMessage {
   status: string;
 }
 
+/**
+ * Coalesced progress of one job: latest counters (null until the first photo outcome)
+ * and the photos that changed since the previous frame
+ */
+interface JobBatchMessage {
+  type: 'job_batch';
+  jobId: string;
+  completed: number | null;
+  failed: number | null;
+  total: number | null;
+  status: string | null;
+  photos: { photoId: string; progress: number; status: string }[];
+}
+
 /**
  * WebSocket client for real-time upload progress updates.
  * Connects to backend WebSocket endpoint for upload progress events.
@@ -25,6 +39,8 @@ class WebSocketClient {
   private reconnectDelay: number = 1000;
   private reconnectTimer: ReturnType<typeof setTimeout> | null = null;
   private messageHandlers: Map<string, Set<(data: any) => void>> = new Map();
+  // Completed + failed photos last reported per job; frames can arrive out of order
+  private jobOutcomes: Map<string, number> = new Map();
   private token: string | undefined;
 
   connect(token?: string): void {
@@ -73,8 +89,12 @@ class WebSocketClient {
 
       this.socket.onmessage = (event) => {
         try {
-          const message: ProgressMessage = JSON.parse(event.data);
-          this.handleMessage(message);
+          const message: ProgressMessage | JobBatchMessage = JSON.parse(event.data);
+          if (message.type === 'job_batch') {
+            this.handleJobBatch(message);
+          } else {
+            this.handleMessage(message);
+          }
         } catch (error) {
           console.error('[WebSocket] Failed to parse message:', error, event.data);
         }
@@ -130,6 +150,36 @@ class WebSocketClient {
     }
   }
 
+  private handleJobBatch(batch: JobBatchMessage): void {
+    // Photo states first, as separate photo_progress messages
+    batch.photos.forEach((photo) => {
+      this.handleMessage({
+        type: 'photo_progress',
+        photoId: photo.photoId,
+        jobId: batch.jobId,
+        current: photo.progress,
+        total: 100,
+        status: photo.status,
+      });
+    });
+
+    if (batch.total === null || batch.completed === null || batch.status === null) {
+      return;
+    }
+    const outcomes = batch.completed + (batch.failed ?? 0);
+    if (outcomes < (this.jobOutcomes.get(batch.jobId) ?? 0)) {
+      return;
+    }
+    this.jobOutcomes.set(batch.jobId, outcomes);
+    this.handleMessage({
+      type: 'job_progress',
+      jobId: batch.jobId,
+      current: batch.completed,
+      total: batch.total,
+      status: batch.status,
+    });
+  }
+
   private mapStatus(status: string): 'completed' | 'failed' | 'uploading' {
     const upperStatus = status.toUpperCase();
     if (upperStatus === 'COMPLETED' || upperStatus === 'DONE') {
@@ -181,6 +231,7 @@ class WebSocketClient {
     const eventName = `job:${jobId}:progress`;
     console.log('[WebSocket] Unsubscribing from job progress:', eventName);
     this.messageHandlers.delete(eventName);
+    this.jobOutcomes.delete(jobId);
   }
 
   subscribeToPhotoProgress(photoId: string, callback: (data: any) => void): void {
@@ -43,10 +43,16 @@ export interface PhotoListResponse {
   photos: Photo[];
   page: number;
   pageSize: number;
-  totalPages: number;
-  totalCount: number;
+  totalPages?: number; // Only present when requested with includeTotal
+  totalCount?: number; // Only present when requested with includeTotal
   hasNext: boolean;
   hasPrevious: boolean;
+  nextCursor?: string; // Pass as cursor to fetch the next page
+}
+
+export interface PhotoBatchResponse {
+  photos: Photo[]; // In request order
+  missingIds: string[]; // Requested IDs that don't exist or aren't the user's
 }
 
 export interface ApiError {